@@ -16,6 +16,9 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // Los microbenchmarks de androidTest corren sobre la build debug (emulador incluido);
+        // sirven para comparar antes/después, no como cifras absolutas
+        testInstrumentationRunnerArguments["androidx.benchmark.suppressErrors"] = "DEBUGGABLE,EMULATOR,LOW-BATTERY,UNLOCKED"
     }
 
     buildTypes {
@@ -42,6 +45,8 @@ dependencies {
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    // Microbenchmarks de la base de datos (./gradlew :app:connectedAndroidTest)
+    androidTestImplementation(libs.androidx.benchmark.junit4)
 
     // UI
     implementation(libs.recyclerview.v132)
@@ -50,8 +55,17 @@ dependencies {
     // Para imágenes
     implementation("com.github.bumptech.glide:glide:5.0.5")
     annotationProcessor("com.github.bumptech.glide:compiler:5.0.5")
+    // Glide descarga con el OkHttpClient compartido (ver MangaGlideModule)
+    implementation("com.github.bumptech.glide:okhttp3-integration:5.0.5")
 
     // ⭐ Para networking - VERSIÓN OPTIMIZADA
     implementation("com.squareup.okhttp3:okhttp:4.12.0") // Última versión estable
     implementation("com.squareup.okhttp3:logging-interceptor:4.12.0") // Para debugging
+    // Servidor HTTP local para los tests en JVM de la capa de red
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
+
+    // Parsing JSON en streaming (JsonReader)
+    implementation(libs.gson)
+    // org.json real para los tests en JVM (el de android.jar es un stub)
+    testImplementation(libs.org.json)
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- Base anterior a v3 (esquema no conservado): read_mangas sin portada Base64
+-- y sin tablas de capítulos ni páginas
+CREATE TABLE read_mangas(id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, description TEXT, cover_url TEXT, read_date TEXT, last_chapter TEXT, status TEXT);
+INSERT INTO read_mangas(manga_id, title, description, cover_url, read_date, last_chapter, status) VALUES ('manga-1', 'Manga uno', 'Descripción', 'https://uploads.mangadex.org/covers/manga-1/cover.jpg', '2023-05-01 10:00:00', '3', 'reading');
@@ -0,0 +1,10 @@
+-- Esquema v3 (primera versión publicada del repositorio)
+CREATE TABLE read_mangas(id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, description TEXT, cover_url TEXT, cover_image TEXT, read_date TEXT, last_chapter TEXT, status TEXT);
+CREATE TABLE chapters(chapter_id TEXT PRIMARY KEY, manga_id TEXT, chapter_number TEXT, chapter_title TEXT, pages_count INTEGER, published_at TEXT, FOREIGN KEY(manga_id) REFERENCES read_mangas(manga_id) ON DELETE CASCADE);
+CREATE TABLE pages(page_id INTEGER PRIMARY KEY AUTOINCREMENT, chapter_id TEXT, page_number INTEGER, image_url TEXT, image_data TEXT, FOREIGN KEY(chapter_id) REFERENCES chapters(chapter_id) ON DELETE CASCADE);
+INSERT INTO read_mangas(manga_id, title, description, cover_url, read_date, last_chapter, status) VALUES ('manga-1', 'Manga uno', 'Descripción', 'https://uploads.mangadex.org/covers/manga-1/cover.jpg', '2023-05-01 10:00:00', '3', 'reading');
+INSERT INTO chapters VALUES ('chapter-1', 'manga-1', '1', 'Inicio', 2, '2023-04-01T00:00:00+00:00');
+INSERT INTO pages(chapter_id, page_number, image_url) VALUES ('chapter-1', 1, 'https://example.org/1.jpg');
+INSERT INTO pages(chapter_id, page_number, image_url) VALUES ('chapter-1', 2, 'https://example.org/2.jpg');
+-- Re-guardado de la página 2: duplicado que v6 debe limpiar
+INSERT INTO pages(chapter_id, page_number, image_url) VALUES ('chapter-1', 2, 'https://example.org/2-bis.jpg');
@@ -0,0 +1,8 @@
+-- Esquema v4: avisos de capítulos nuevos; imágenes todavía en Base64
+CREATE TABLE read_mangas(id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, description TEXT, cover_url TEXT, cover_image TEXT, read_date TEXT, last_chapter TEXT, status TEXT, new_chapters INTEGER NOT NULL DEFAULT 0, updates_checked_at TEXT);
+CREATE TABLE chapters(chapter_id TEXT PRIMARY KEY, manga_id TEXT, chapter_number TEXT, chapter_title TEXT, pages_count INTEGER, published_at TEXT, FOREIGN KEY(manga_id) REFERENCES read_mangas(manga_id) ON DELETE CASCADE);
+CREATE TABLE pages(page_id INTEGER PRIMARY KEY AUTOINCREMENT, chapter_id TEXT, page_number INTEGER, image_url TEXT, image_data TEXT, FOREIGN KEY(chapter_id) REFERENCES chapters(chapter_id) ON DELETE CASCADE);
+INSERT INTO read_mangas(manga_id, title, description, cover_url, cover_image, read_date, last_chapter, status, new_chapters, updates_checked_at) VALUES ('manga-1', 'Manga uno', 'Descripción', 'https://uploads.mangadex.org/covers/manga-1/cover.jpg', 'iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=', '2023-05-01 10:00:00', '3', 'reading', 2, '2024-01-01T00:00:00');
+INSERT INTO chapters VALUES ('chapter-1', 'manga-1', '1', 'Inicio', 2, '2023-04-01T00:00:00+00:00');
+INSERT INTO pages(chapter_id, page_number, image_url, image_data) VALUES ('chapter-1', 1, 'https://example.org/1.png', 'iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=');
+INSERT INTO pages(chapter_id, page_number, image_url, image_data) VALUES ('chapter-1', 2, 'https://example.org/2.png', 'iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=');
@@ -0,0 +1,9 @@
+-- Esquema v5: imágenes en PageStore, sin índices
+CREATE TABLE read_mangas(id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, description TEXT, cover_url TEXT, cover_image TEXT, read_date TEXT, last_chapter TEXT, status TEXT, new_chapters INTEGER NOT NULL DEFAULT 0, updates_checked_at TEXT, cover_path TEXT);
+CREATE TABLE chapters(chapter_id TEXT PRIMARY KEY, manga_id TEXT, chapter_number TEXT, chapter_title TEXT, pages_count INTEGER, published_at TEXT, FOREIGN KEY(manga_id) REFERENCES read_mangas(manga_id) ON DELETE CASCADE);
+CREATE TABLE pages(page_id INTEGER PRIMARY KEY AUTOINCREMENT, chapter_id TEXT, page_number INTEGER, image_url TEXT, image_data TEXT, file_path TEXT, content_hash TEXT, byte_size INTEGER, mime_type TEXT, FOREIGN KEY(chapter_id) REFERENCES chapters(chapter_id) ON DELETE CASCADE);
+INSERT INTO read_mangas(manga_id, title, description, cover_url, read_date, last_chapter, status) VALUES ('manga-1', 'Manga uno', 'Descripción', 'https://uploads.mangadex.org/covers/manga-1/cover.jpg', '2023-05-01 10:00:00', '3', 'reading');
+INSERT INTO chapters VALUES ('chapter-1', 'manga-1', '1', 'Inicio', 2, '2023-04-01T00:00:00+00:00');
+INSERT INTO pages(chapter_id, page_number, image_url, file_path, content_hash, byte_size, mime_type) VALUES ('chapter-1', 1, 'https://example.org/1.jpg', 'ab/abc1', 'abc1', 100, 'image/jpeg');
+INSERT INTO pages(chapter_id, page_number, image_url, file_path, content_hash, byte_size, mime_type) VALUES ('chapter-1', 2, 'https://example.org/2.jpg', 'ab/abc2', 'abc2', 100, 'image/jpeg');
+INSERT INTO pages(chapter_id, page_number, image_url, file_path, content_hash, byte_size, mime_type) VALUES ('chapter-1', 2, 'https://example.org/2-bis.jpg', 'ab/abc3', 'abc3', 100, 'image/jpeg');
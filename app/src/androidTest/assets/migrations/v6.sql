@@ -0,0 +1,13 @@
+-- Esquema v6: índices en chapters/pages; capítulos ordenados con CAST(chapter_number AS REAL)
+CREATE TABLE read_mangas(id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, description TEXT, cover_url TEXT, cover_image TEXT, read_date TEXT, last_chapter TEXT, status TEXT, new_chapters INTEGER NOT NULL DEFAULT 0, updates_checked_at TEXT, cover_path TEXT);
+CREATE TABLE chapters(chapter_id TEXT PRIMARY KEY, manga_id TEXT, chapter_number TEXT, chapter_title TEXT, pages_count INTEGER, published_at TEXT, FOREIGN KEY(manga_id) REFERENCES read_mangas(manga_id) ON DELETE CASCADE);
+CREATE TABLE pages(page_id INTEGER PRIMARY KEY AUTOINCREMENT, chapter_id TEXT, page_number INTEGER, image_url TEXT, image_data TEXT, file_path TEXT, content_hash TEXT, byte_size INTEGER, mime_type TEXT, FOREIGN KEY(chapter_id) REFERENCES chapters(chapter_id) ON DELETE CASCADE);
+CREATE INDEX idx_chapters_manga_id ON chapters(manga_id);
+CREATE UNIQUE INDEX idx_pages_chapter_page ON pages(chapter_id, page_number);
+INSERT INTO read_mangas(manga_id, title, description, cover_url, read_date, last_chapter, status) VALUES ('manga-1', 'Manga uno', 'Descripción', 'https://uploads.mangadex.org/covers/manga-1/cover.jpg', '2023-05-01 10:00:00', '3', 'reading');
+INSERT INTO chapters VALUES ('chapter-10.5a', 'manga-1', '10.5a', NULL, 20, NULL);
+INSERT INTO chapters VALUES ('chapter-10', 'manga-1', '10', NULL, 20, NULL);
+INSERT INTO chapters VALUES ('chapter-2', 'manga-1', '2', NULL, 20, NULL);
+INSERT INTO chapters VALUES ('chapter-10.5', 'manga-1', '10.5', NULL, 20, NULL);
+INSERT INTO chapters VALUES ('chapter-1', 'manga-1', '1', 'Inicio', 20, NULL);
+INSERT INTO pages(chapter_id, page_number, image_url) VALUES ('chapter-1', 1, 'https://example.org/1.jpg');
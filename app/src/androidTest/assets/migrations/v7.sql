@@ -0,0 +1,12 @@
+-- Esquema v7: clave numérica de orden en chapters; sin índice por fecha de lectura
+CREATE TABLE read_mangas(id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, description TEXT, cover_url TEXT, cover_image TEXT, read_date TEXT, last_chapter TEXT, status TEXT, new_chapters INTEGER NOT NULL DEFAULT 0, updates_checked_at TEXT, cover_path TEXT);
+CREATE TABLE chapters(chapter_id TEXT PRIMARY KEY, manga_id TEXT, chapter_number TEXT, chapter_title TEXT, pages_count INTEGER, published_at TEXT, volume TEXT, sort_key INTEGER, FOREIGN KEY(manga_id) REFERENCES read_mangas(manga_id) ON DELETE CASCADE);
+CREATE TABLE pages(page_id INTEGER PRIMARY KEY AUTOINCREMENT, chapter_id TEXT, page_number INTEGER, image_url TEXT, image_data TEXT, file_path TEXT, content_hash TEXT, byte_size INTEGER, mime_type TEXT, FOREIGN KEY(chapter_id) REFERENCES chapters(chapter_id) ON DELETE CASCADE);
+CREATE INDEX idx_chapters_manga_sort ON chapters(manga_id, sort_key);
+CREATE UNIQUE INDEX idx_pages_chapter_page ON pages(chapter_id, page_number);
+INSERT INTO read_mangas(manga_id, title, description, cover_url, read_date, last_chapter, status) VALUES ('manga-1', 'Manga uno', 'Descripción', 'https://uploads.mangadex.org/covers/manga-1/cover.jpg', '2023-05-01 10:00:00', '3', 'reading');
+-- Fila sin fecha de lectura (versiones antiguas)
+INSERT INTO read_mangas(manga_id, title, last_chapter, status) VALUES ('manga-2', 'Manga dos', '1', 'paused');
+INSERT INTO chapters VALUES ('chapter-b', 'manga-1', '1', NULL, 20, NULL, NULL, 4503324749725696);
+INSERT INTO chapters VALUES ('chapter-a', 'manga-1', '1', NULL, 20, NULL, NULL, 4503324749725696);
+INSERT INTO pages(chapter_id, page_number, image_url) VALUES ('chapter-a', 1, 'https://example.org/1.jpg');
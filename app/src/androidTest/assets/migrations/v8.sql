@@ -0,0 +1,13 @@
+-- Esquema v8: índices de las ventanas por clave; sin índice de texto completo
+CREATE TABLE read_mangas(id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, description TEXT, cover_url TEXT, cover_image TEXT, read_date TEXT, last_chapter TEXT, status TEXT, new_chapters INTEGER NOT NULL DEFAULT 0, updates_checked_at TEXT, cover_path TEXT);
+CREATE TABLE chapters(chapter_id TEXT PRIMARY KEY, manga_id TEXT, chapter_number TEXT, chapter_title TEXT, pages_count INTEGER, published_at TEXT, volume TEXT, sort_key INTEGER, FOREIGN KEY(manga_id) REFERENCES read_mangas(manga_id) ON DELETE CASCADE);
+CREATE TABLE pages(page_id INTEGER PRIMARY KEY AUTOINCREMENT, chapter_id TEXT, page_number INTEGER, image_url TEXT, image_data TEXT, file_path TEXT, content_hash TEXT, byte_size INTEGER, mime_type TEXT, FOREIGN KEY(chapter_id) REFERENCES chapters(chapter_id) ON DELETE CASCADE);
+CREATE INDEX idx_chapters_manga_sort ON chapters(manga_id, sort_key, chapter_id);
+CREATE UNIQUE INDEX idx_pages_chapter_page ON pages(chapter_id, page_number);
+CREATE INDEX idx_read_mangas_read_date ON read_mangas(read_date);
+INSERT INTO read_mangas(manga_id, title, description, cover_url, read_date, last_chapter, status) VALUES ('manga-1', 'Manga uno', 'Descripción', 'https://uploads.mangadex.org/covers/manga-1/cover.jpg', '2023-05-01 10:00:00', '3', 'reading');
+INSERT INTO read_mangas(manga_id, title, description, read_date, last_chapter, status) VALUES ('manga-2', 'Manga dos', 'Un dragón en la ciudad', '2023-04-01 10:00:00', '1', 'paused');
+-- Capítulo con título (entra en el índice) y otro sin él (no entra)
+INSERT INTO chapters VALUES ('chapter-a', 'manga-1', '1', 'El comienzo', 20, NULL, NULL, 4503324749725696);
+INSERT INTO chapters VALUES ('chapter-b', 'manga-1', '2', NULL, 20, NULL, NULL, 9006924377096192);
+INSERT INTO pages(chapter_id, page_number, image_url) VALUES ('chapter-a', 1, 'https://example.org/1.jpg');
@@ -0,0 +1,23 @@
+-- Esquema v9: búsqueda FTS4; sort_key con el volumen delante (los capítulos sin volumen iban al final)
+CREATE TABLE read_mangas(id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, description TEXT, cover_url TEXT, cover_image TEXT, read_date TEXT, last_chapter TEXT, status TEXT, new_chapters INTEGER NOT NULL DEFAULT 0, updates_checked_at TEXT, cover_path TEXT);
+CREATE TABLE chapters(chapter_id TEXT PRIMARY KEY, manga_id TEXT, chapter_number TEXT, chapter_title TEXT, pages_count INTEGER, published_at TEXT, volume TEXT, sort_key INTEGER, FOREIGN KEY(manga_id) REFERENCES read_mangas(manga_id) ON DELETE CASCADE);
+CREATE TABLE pages(page_id INTEGER PRIMARY KEY AUTOINCREMENT, chapter_id TEXT, page_number INTEGER, image_url TEXT, image_data TEXT, file_path TEXT, content_hash TEXT, byte_size INTEGER, mime_type TEXT, FOREIGN KEY(chapter_id) REFERENCES chapters(chapter_id) ON DELETE CASCADE);
+CREATE INDEX idx_chapters_manga_sort ON chapters(manga_id, sort_key, chapter_id);
+CREATE UNIQUE INDEX idx_pages_chapter_page ON pages(chapter_id, page_number);
+CREATE INDEX idx_read_mangas_read_date ON read_mangas(read_date);
+CREATE VIRTUAL TABLE manga_fts USING fts4(title, description, tokenize=simple, prefix="2,3");
+CREATE VIRTUAL TABLE chapter_fts USING fts4(chapter_title, tokenize=simple, prefix="2,3");
+CREATE TRIGGER manga_fts_before_insert BEFORE INSERT ON read_mangas BEGIN DELETE FROM manga_fts WHERE docid = (SELECT id FROM read_mangas WHERE manga_id = new.manga_id); END;
+CREATE TRIGGER manga_fts_after_insert AFTER INSERT ON read_mangas BEGIN INSERT INTO manga_fts(docid, title, description) VALUES (new.id, new.title, new.description); END;
+CREATE TRIGGER manga_fts_after_update AFTER UPDATE OF title, description ON read_mangas BEGIN UPDATE manga_fts SET title = new.title, description = new.description WHERE docid = old.id; END;
+CREATE TRIGGER manga_fts_after_delete AFTER DELETE ON read_mangas BEGIN DELETE FROM manga_fts WHERE docid = old.id; END;
+CREATE TRIGGER chapter_fts_before_insert BEFORE INSERT ON chapters BEGIN DELETE FROM chapter_fts WHERE docid = (SELECT rowid FROM chapters WHERE chapter_id = new.chapter_id); END;
+CREATE TRIGGER chapter_fts_after_insert AFTER INSERT ON chapters BEGIN INSERT INTO chapter_fts(docid, chapter_title) SELECT new.rowid, new.chapter_title WHERE new.chapter_title <> ''; END;
+CREATE TRIGGER chapter_fts_after_update AFTER UPDATE OF chapter_title ON chapters BEGIN DELETE FROM chapter_fts WHERE docid = old.rowid; INSERT INTO chapter_fts(docid, chapter_title) SELECT new.rowid, new.chapter_title WHERE new.chapter_title <> ''; END;
+CREATE TRIGGER chapter_fts_after_delete AFTER DELETE ON chapters BEGIN DELETE FROM chapter_fts WHERE docid = old.rowid; END;
+INSERT INTO read_mangas(manga_id, title, description, cover_url, read_date, last_chapter, status) VALUES ('manga-1', 'Manga uno', 'Descripción', 'https://uploads.mangadex.org/covers/manga-1/cover.jpg', '2023-05-01 10:00:00', '3', 'reading');
+-- 1 y 2 guardados antes de la v7 (sin volumen: clave con volumen máximo); 11 guardado después con volumen 2
+INSERT INTO chapters VALUES ('chapter-1', 'manga-1', '1', 'El comienzo', 20, NULL, NULL, 4503324749725696);
+INSERT INTO chapters VALUES ('chapter-2', 'manga-1', '2', NULL, 20, NULL, NULL, 4503324749987840);
+INSERT INTO chapters VALUES ('chapter-11', 'manga-1', '11', NULL, 20, NULL, '2', 549758697472);
+INSERT INTO pages(chapter_id, page_number, image_url) VALUES ('chapter-1', 1, 'https://example.org/1.jpg');
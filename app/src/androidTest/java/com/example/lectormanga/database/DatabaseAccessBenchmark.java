@@ -0,0 +1,186 @@
+package com.example.lectormanga.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Latencia por consulta con el acceso antiguo de MangaDAO (abrir, consultar y
+ * cerrar la base de datos en cada llamada, sin WAL) frente a la conexión única
+ * en modo WAL de DatabaseHelper.getInstance().
+ *
+ *   ./gradlew :app:connectedAndroidTest
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.example.lectormanga.database.DatabaseAccessBenchmark
+ *
+ * Cada variante usa su propio fichero con los mismos datos; la base de datos de la app no se toca.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseAccessBenchmark {
+
+    private static final String PER_CALL_DB = "benchmark_per_call.db";
+    private static final String SHARED_DB = "benchmark_shared.db";
+    private static final int MANGAS = 200;
+    private static final int CHAPTERS_PER_MANGA = 20;
+    private static final String TARGET_MANGA = "manga-100";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private DatabaseHelper perCallHelper;
+    private DatabaseHelper sharedHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(PER_CALL_DB);
+        context.deleteDatabase(SHARED_DB);
+
+        // Antes: sin WAL y con db.close() tras cada consulta
+        perCallHelper = new DatabaseHelper(context, PER_CALL_DB);
+        perCallHelper.setWriteAheadLoggingEnabled(false);
+        seed(perCallHelper.getWritableDatabase());
+        perCallHelper.close();
+
+        sharedHelper = new DatabaseHelper(context, SHARED_DB);
+        seed(sharedHelper.getWritableDatabase());
+    }
+
+    @After
+    public void tearDown() {
+        perCallHelper.close();
+        sharedHelper.close();
+        context.deleteDatabase(PER_CALL_DB);
+        context.deleteDatabase(SHARED_DB);
+    }
+
+    @Test
+    public void readInfo_reopeningPerCall() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            SQLiteDatabase db = perCallHelper.getReadableDatabase();
+            readInfo(db);
+            db.close();
+        }
+    }
+
+    @Test
+    public void readInfo_sharedConnection() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            readInfo(sharedHelper.getReadableDatabase());
+        }
+    }
+
+    @Test
+    public void chapterList_reopeningPerCall() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            SQLiteDatabase db = perCallHelper.getReadableDatabase();
+            chapterList(db);
+            db.close();
+        }
+    }
+
+    @Test
+    public void chapterList_sharedConnection() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            chapterList(sharedHelper.getReadableDatabase());
+        }
+    }
+
+    // Lecturas desde la UI mientras otro hilo guarda capítulos (caso del guardado offline)
+    @Test
+    public void readInfo_sharedConnectionDuringWrites() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            SQLiteDatabase db = sharedHelper.getWritableDatabase();
+            int n = 0;
+            while (running.get()) {
+                db.insertWithOnConflict(DatabaseHelper.TABLE_CHAPTERS, null,
+                        chapter("writer-" + (n++ % 500), TARGET_MANGA, n), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+        });
+        writer.start();
+        try {
+            BenchmarkState state = benchmarkRule.getState();
+            while (state.keepRunning()) {
+                readInfo(sharedHelper.getReadableDatabase());
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    // Misma consulta que MangaDAO.getMangaReadInfo
+    private static void readInfo(SQLiteDatabase db) {
+        Cursor cursor = db.query(DatabaseHelper.TABLE_READ_MANGAS,
+                new String[]{DatabaseHelper.COLUMN_LAST_CHAPTER, DatabaseHelper.COLUMN_STATUS,
+                        DatabaseHelper.COLUMN_READ_DATE, DatabaseHelper.COLUMN_NEW_CHAPTERS},
+                DatabaseHelper.COLUMN_MANGA_ID + " = ?", new String[]{TARGET_MANGA},
+                null, null, null);
+        cursor.moveToFirst();
+        cursor.close();
+    }
+
+    // Todos los capítulos de un manga de una vez
+    private static void chapterList(SQLiteDatabase db) {
+        Cursor cursor = db.query(DatabaseHelper.TABLE_CHAPTERS, null,
+                DatabaseHelper.CHAPTER_MANGA_ID + " = ?", new String[]{TARGET_MANGA},
+                null, null, DatabaseHelper.CHAPTER_NUMBER + " ASC");
+        while (cursor.moveToNext()) {
+            cursor.getString(0);
+        }
+        cursor.close();
+    }
+
+    private static void seed(SQLiteDatabase db) {
+        db.beginTransaction();
+        try {
+            for (int m = 0; m < MANGAS; m++) {
+                String mangaId = "manga-" + m;
+                ContentValues manga = new ContentValues();
+                manga.put(DatabaseHelper.COLUMN_MANGA_ID, mangaId);
+                manga.put(DatabaseHelper.COLUMN_TITLE, "Manga " + m);
+                manga.put(DatabaseHelper.COLUMN_DESCRIPTION, "Descripción del manga " + m);
+                manga.put(DatabaseHelper.COLUMN_READ_DATE, "2024-01-01 00:00:00");
+                manga.put(DatabaseHelper.COLUMN_LAST_CHAPTER, "1");
+                manga.put(DatabaseHelper.COLUMN_STATUS, "reading");
+                db.insert(DatabaseHelper.TABLE_READ_MANGAS, null, manga);
+
+                for (int c = 1; c <= CHAPTERS_PER_MANGA; c++) {
+                    db.insert(DatabaseHelper.TABLE_CHAPTERS, null, chapter(mangaId + "-ch" + c, mangaId, c));
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static ContentValues chapter(String chapterId, String mangaId, int number) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.CHAPTER_ID, chapterId);
+        values.put(DatabaseHelper.CHAPTER_MANGA_ID, mangaId);
+        values.put(DatabaseHelper.CHAPTER_NUMBER, String.valueOf(number));
+        values.put(DatabaseHelper.CHAPTER_TITLE, "Capítulo " + number);
+        values.put(DatabaseHelper.CHAPTER_PAGES_COUNT, 20);
+        return values;
+    }
+}
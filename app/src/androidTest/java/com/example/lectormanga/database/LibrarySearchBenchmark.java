@@ -0,0 +1,157 @@
+package com.example.lectormanga.database;
+
+import static org.junit.Assert.assertFalse;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Búsqueda de MangaDAO.searchLibrary sobre una biblioteca de 10.000 mangas (objetivo:
+ * pocos milisegundos por búsqueda) frente a recorrer la tabla con LIKE.
+ *
+ *   ./gradlew :app:connectedAndroidTest
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.example.lectormanga.database.LibrarySearchBenchmark
+ *
+ * Títulos y descripciones salen de un vocabulario de sílabas con semilla fija: los prefijos
+ * de dos letras casan con miles de documentos, el peor caso de la búsqueda mientras se escribe.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LibrarySearchBenchmark {
+
+    private static final String DB_NAME = "benchmark_search.db";
+    private static final int MANGAS = 10000;
+    private static final int CHAPTERS_PER_MANGA = 5;
+    private static final int DESCRIPTION_WORDS = 30;
+    private static final int LIMIT = 100;
+    private static final String[] SYLLABLES = {"ka", "ri", "to", "na", "mi", "shi", "ro", "ze", "ra", "ke",
+            "dra", "gon", "ba", "ru", "ho", "ku", "ya", "me", "sa", "lo", "ve", "an", "el", "ti", "us", "or"};
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    // Sembrar 10.000 mangas con sus índices lleva segundos: una vez para toda la clase
+    private static DatabaseHelper helper;
+
+    @BeforeClass
+    public static void setUpClass() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        seed(helper.getWritableDatabase());
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        helper.close();
+        InstrumentationRegistry.getInstrumentation().getTargetContext().deleteDatabase(DB_NAME);
+    }
+
+    // Prefijo corto: cientos de títulos y miles de descripciones casan
+    @Test
+    public void search_shortPrefix() {
+        benchmarkSearch("ka");
+    }
+
+    @Test
+    public void search_longerPrefix() {
+        benchmarkSearch("drago");
+    }
+
+    // Pocos títulos con las tres palabras: pasa por los tres niveles
+    @Test
+    public void search_severalWords() {
+        benchmarkSearch("ka ri to");
+    }
+
+    @Test
+    public void search_shortPrefixWithLike() {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            Cursor cursor = db.rawQuery("SELECT " + DatabaseHelper.COLUMN_ID + " FROM " + DatabaseHelper.TABLE_READ_MANGAS +
+                    " WHERE " + DatabaseHelper.COLUMN_TITLE + " LIKE ? OR " + DatabaseHelper.COLUMN_DESCRIPTION + " LIKE ?" +
+                    " ORDER BY " + DatabaseHelper.COLUMN_READ_DATE + " DESC LIMIT " + LIMIT,
+                    new String[]{"%ka%", "%ka%"});
+            while (cursor.moveToNext()) {
+                cursor.getLong(0);
+            }
+            cursor.close();
+        }
+    }
+
+    private void benchmarkSearch(String text) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        assertFalse(text, MangaDAO.searchLibrary(db, text, LIMIT).isEmpty());
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            MangaDAO.searchLibrary(db, text, LIMIT);
+        }
+    }
+
+    private static void seed(SQLiteDatabase db) {
+        Random random = new Random(1);
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 2 + random.nextInt(3); s > 0; s--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            vocabulary.add(word.toString());
+        }
+
+        db.beginTransaction();
+        try {
+            for (int m = 0; m < MANGAS; m++) {
+                String mangaId = "manga-" + m;
+                ContentValues manga = new ContentValues();
+                manga.put(DatabaseHelper.COLUMN_MANGA_ID, mangaId);
+                manga.put(DatabaseHelper.COLUMN_TITLE, words(vocabulary, random, 2 + random.nextInt(3)));
+                manga.put(DatabaseHelper.COLUMN_DESCRIPTION, words(vocabulary, random, DESCRIPTION_WORDS));
+                manga.put(DatabaseHelper.COLUMN_READ_DATE, String.format("2024-01-%02d 00:00:00", m % 28 + 1));
+                manga.put(DatabaseHelper.COLUMN_STATUS, "reading");
+                db.insert(DatabaseHelper.TABLE_READ_MANGAS, null, manga);
+
+                for (int c = 1; c <= CHAPTERS_PER_MANGA; c++) {
+                    ContentValues chapter = new ContentValues();
+                    chapter.put(DatabaseHelper.CHAPTER_ID, mangaId + "-ch" + c);
+                    chapter.put(DatabaseHelper.CHAPTER_MANGA_ID, mangaId);
+                    chapter.put(DatabaseHelper.CHAPTER_NUMBER, String.valueOf(c));
+                    // La mayoría de capítulos de MangaDex no tienen título
+                    if (random.nextInt(10) < 3) {
+                        chapter.put(DatabaseHelper.CHAPTER_TITLE, words(vocabulary, random, 3));
+                    }
+                    db.insert(DatabaseHelper.TABLE_CHAPTERS, null, chapter);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static String words(List<String> vocabulary, Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) text.append(' ');
+            text.append(vocabulary.get(random.nextInt(vocabulary.size())));
+        }
+        return text.toString();
+    }
+}
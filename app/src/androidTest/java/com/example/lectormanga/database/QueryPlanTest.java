@@ -0,0 +1,300 @@
+package com.example.lectormanga.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Las consultas por manga/capítulo de MangaDAO deben ir por índice, no recorrer la tabla.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    private static final String DB_NAME = "query_plan_test.db";
+
+    private Context context;
+    private DatabaseHelper helper;
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        db = helper.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void chapterWindows_comeOrderedFromIndex() {
+        for (String plan : new String[]{
+                explain(MangaDAO.SQL_CHAPTERS_FIRST, "manga", "50", "0"),
+                explain(MangaDAO.SQL_CHAPTERS_AFTER, "manga", "7", "7", "chapter", "50", "0")}) {
+            assertTrue(plan, plan.contains(DatabaseHelper.INDEX_CHAPTERS_MANGA_SORT));
+            assertFalse(plan, plan.contains("SCAN"));
+            assertFalse(plan, plan.contains("TEMP B-TREE"));
+        }
+    }
+
+    @Test
+    public void pagesByChapter_useIndexWithoutSorting() {
+        for (String sql : new String[]{MangaDAO.SQL_PAGE_URLS_BY_CHAPTER, MangaDAO.SQL_PAGE_IMAGES_BY_CHAPTER}) {
+            String plan = explain(sql, "chapter");
+            assertTrue(plan, plan.contains(DatabaseHelper.INDEX_PAGES_CHAPTER_PAGE));
+            assertFalse(plan, plan.contains("SCAN"));
+            assertFalse(plan, plan.contains("TEMP B-TREE"));
+        }
+    }
+
+    @Test
+    public void pageCount_searchesByChapterIndex() {
+        String plan = explain(MangaDAO.SQL_PAGE_COUNT_BY_CHAPTER, "chapter");
+        assertTrue(plan, plan.contains(DatabaseHelper.INDEX_PAGES_CHAPTER_PAGE));
+        assertFalse(plan, plan.contains("SCAN"));
+    }
+
+    // Un capítulo guardado a medias (páginas sin imagen) no cuenta como offline
+    @Test
+    public void pageCount_tellsPagesWithoutImageApart() {
+        db.execSQL("INSERT INTO chapters(chapter_id) VALUES ('chapter')");
+        db.execSQL("INSERT INTO pages(chapter_id, page_number, image_url, file_path) VALUES ('chapter', 1, 'a', 'ab/a.jpg')");
+        db.execSQL("INSERT INTO pages(chapter_id, page_number, image_url, image_data) VALUES ('chapter', 2, 'b', 'QUJD')");
+        db.execSQL("INSERT INTO pages(chapter_id, page_number, image_url) VALUES ('chapter', 3, 'c')");
+
+        Cursor cursor = db.rawQuery(MangaDAO.SQL_PAGE_COUNT_BY_CHAPTER, new String[]{"chapter"});
+        assertTrue(cursor.moveToFirst());
+        assertEquals(3, cursor.getInt(0));
+        assertEquals(2, cursor.getInt(1));
+        cursor.close();
+    }
+
+    @Test
+    public void libraryWindows_walkReadDateIndexWithoutSorting() {
+        for (String plan : new String[]{
+                explain(MangaDAO.SQL_LIBRARY_FIRST, "50", "0"),
+                explain(MangaDAO.SQL_LIBRARY_AFTER, "2024-01-01 00:00:00", "2024-01-01 00:00:00", "10", "50", "0")}) {
+            assertTrue(plan, plan.contains(DatabaseHelper.INDEX_READ_MANGAS_READ_DATE));
+            assertTrue(plan, plan.contains(DatabaseHelper.INDEX_CHAPTERS_MANGA_SORT));
+            assertTrue(plan, plan.contains(DatabaseHelper.INDEX_PAGES_CHAPTER_PAGE));
+            assertFalse(plan, plan.contains("TEMP B-TREE"));
+        }
+    }
+
+    @Test
+    public void libraryWindows_countChaptersAndPagesPerManga() {
+        db.execSQL("INSERT INTO read_mangas(manga_id, title, read_date) VALUES ('a', 'A', '2024-01-02 00:00:00')");
+        db.execSQL("INSERT INTO read_mangas(manga_id, title, read_date) VALUES ('b', 'B', '2024-01-01 00:00:00')");
+        db.execSQL("INSERT INTO chapters(chapter_id, manga_id) VALUES ('a1', 'a'), ('a2', 'a')");
+        db.execSQL("INSERT INTO pages(chapter_id, page_number) VALUES ('a1', 1), ('a1', 2), ('a2', 1)");
+
+        Cursor cursor = db.rawQuery(MangaDAO.SQL_LIBRARY_FIRST, new String[]{"1", "0"});
+        assertEquals(1, cursor.getCount());
+        cursor.moveToFirst();
+        assertEquals("a", cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MANGA_ID)));
+        assertEquals(2, cursor.getInt(cursor.getColumnIndexOrThrow("chapter_count")));
+        assertEquals(3, cursor.getInt(cursor.getColumnIndexOrThrow("page_count")));
+        String readDate = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_READ_DATE));
+        String id = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID));
+        cursor.close();
+
+        cursor = db.rawQuery(MangaDAO.SQL_LIBRARY_AFTER, new String[]{readDate, readDate, id, "50", "0"});
+        assertEquals(1, cursor.getCount());
+        cursor.moveToFirst();
+        assertEquals("b", cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MANGA_ID)));
+        assertEquals(0, cursor.getInt(cursor.getColumnIndexOrThrow("chapter_count")));
+        assertEquals(0, cursor.getInt(cursor.getColumnIndexOrThrow("page_count")));
+        cursor.close();
+    }
+
+    // Misma fecha de lectura y mismo sort_key: el desempate por id/chapter_id no pierde ni repite filas
+    @Test
+    public void windows_walkTiedKeysExactlyOnce() {
+        db.execSQL("INSERT INTO read_mangas(manga_id, read_date) VALUES ('a', 'x'), ('b', 'x'), ('c', 'x')");
+        db.execSQL("INSERT INTO chapters(chapter_id, manga_id, sort_key) VALUES ('c3', 'a', 5), ('c1', 'a', 5), ('c2', 'a', 5)");
+
+        StringBuilder library = new StringBuilder();
+        Cursor cursor = db.rawQuery(MangaDAO.SQL_LIBRARY_FIRST, new String[]{"2", "0"});
+        String lastId = null;
+        while (cursor.moveToNext()) {
+            library.append(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MANGA_ID)));
+            lastId = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID));
+        }
+        cursor.close();
+        cursor = db.rawQuery(MangaDAO.SQL_LIBRARY_AFTER, new String[]{"x", "x", lastId, "2", "0"});
+        while (cursor.moveToNext()) {
+            library.append(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MANGA_ID)));
+        }
+        cursor.close();
+        assertEquals("cba", library.toString());
+
+        StringBuilder chapters = new StringBuilder();
+        cursor = db.rawQuery(MangaDAO.SQL_CHAPTERS_AFTER, new String[]{"a", "5", "5", "c1", "50", "0"});
+        while (cursor.moveToNext()) {
+            chapters.append(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_ID)));
+        }
+        cursor.close();
+        assertEquals("c2c3", chapters.toString());
+    }
+
+    @Test
+    public void libraryStats_groupByStatusAndCountSharedFilesOnce() {
+        db.execSQL("INSERT INTO read_mangas(manga_id, status) VALUES ('a', 'reading'), ('b', 'reading'), ('c', 'paused')");
+        db.execSQL("INSERT INTO chapters(chapter_id, manga_id) VALUES ('a1', 'a'), ('a2', 'a'), ('c1', 'c')");
+        db.execSQL("INSERT INTO pages(chapter_id, page_number, content_hash, byte_size) VALUES " +
+                "('a1', 1, 'h1', 100), ('a1', 2, 'h2', 50), ('a2', 1, 'h1', 100), ('c1', 1, NULL, NULL)");
+
+        Cursor cursor = db.rawQuery(MangaDAO.SQL_LIBRARY_STATS, null);
+        assertEquals(2, cursor.getCount());
+        while (cursor.moveToNext()) {
+            String status = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_STATUS));
+            boolean reading = "reading".equals(status);
+            assertEquals(reading ? 2 : 1, cursor.getInt(cursor.getColumnIndexOrThrow("manga_count")));
+            assertEquals(reading ? 2 : 1, cursor.getInt(cursor.getColumnIndexOrThrow("chapter_count")));
+            assertEquals(reading ? 3 : 1, cursor.getInt(cursor.getColumnIndexOrThrow("page_count")));
+            // h1 está en dos páginas pero es un solo fichero
+            assertEquals(150, cursor.getLong(cursor.getColumnIndexOrThrow("bytes_on_disk")));
+        }
+        cursor.close();
+
+        String plan = explain(MangaDAO.SQL_LIBRARY_STATS);
+        assertTrue(plan, plan.contains(DatabaseHelper.INDEX_CHAPTERS_MANGA_SORT));
+        assertTrue(plan, plan.contains(DatabaseHelper.INDEX_PAGES_CHAPTER_PAGE));
+    }
+
+    @Test
+    public void pages_areUniquePerChapterAndNumber() {
+        ContentValues chapter = new ContentValues();
+        chapter.put(DatabaseHelper.CHAPTER_ID, "chapter");
+        db.insert(DatabaseHelper.TABLE_CHAPTERS, null, chapter);
+
+        for (String url : new String[]{"https://example.org/a.jpg", "https://example.org/b.jpg"}) {
+            ContentValues page = new ContentValues();
+            page.put(DatabaseHelper.PAGE_CHAPTER_ID, "chapter");
+            page.put(DatabaseHelper.PAGE_NUMBER, 1);
+            page.put(DatabaseHelper.PAGE_IMAGE_URL, url);
+            db.insertWithOnConflict(DatabaseHelper.TABLE_PAGES, null, page, SQLiteDatabase.CONFLICT_REPLACE);
+        }
+
+        Cursor cursor = db.rawQuery(MangaDAO.SQL_PAGE_URLS_BY_CHAPTER, new String[]{"chapter"});
+        assertEquals(1, cursor.getCount());
+        cursor.moveToFirst();
+        assertEquals("https://example.org/b.jpg", cursor.getString(0));
+        cursor.close();
+    }
+
+    @Test
+    public void search_triggersKeepIndexInSync() {
+        db.execSQL("INSERT INTO read_mangas(manga_id, title, description) VALUES ('a', 'Dragon Ball', 'Goku')");
+        db.execSQL("INSERT INTO chapters(chapter_id, manga_id, chapter_title) VALUES ('a1', 'a', 'El torneo')");
+        assertEquals("a", search("drag"));
+        assertEquals("a", search("torneo"));
+
+        // REPLACE no dispara los triggers de borrado: el BEFORE INSERT quita el documento
+        // anterior, y la cascada a chapters sí borra el del capítulo
+        ContentValues manga = new ContentValues();
+        manga.put(DatabaseHelper.COLUMN_MANGA_ID, "a");
+        manga.put(DatabaseHelper.COLUMN_TITLE, "Naruto");
+        db.insertWithOnConflict(DatabaseHelper.TABLE_READ_MANGAS, null, manga, SQLiteDatabase.CONFLICT_REPLACE);
+        assertEquals("", search("drag"));
+        assertEquals("a", search("naru"));
+        assertEquals(1, count("SELECT COUNT(*) FROM manga_fts"));
+        assertEquals(0, count("SELECT COUNT(*) FROM chapter_fts"));
+
+        db.execSQL("UPDATE read_mangas SET title = 'Bleach' WHERE manga_id = 'a'");
+        assertEquals("", search("naru"));
+        assertEquals("a", search("blea"));
+
+        db.execSQL("INSERT INTO chapters(chapter_id, manga_id, chapter_title) VALUES ('a2', 'a', NULL)");
+        db.execSQL("UPDATE chapters SET chapter_title = 'La sociedad de almas' WHERE chapter_id = 'a2'");
+        assertEquals("a", search("socied"));
+
+        db.execSQL("DELETE FROM read_mangas WHERE manga_id = 'a'");
+        assertEquals(0, count("SELECT COUNT(*) FROM manga_fts"));
+        assertEquals(0, count("SELECT COUNT(*) FROM chapter_fts"));
+    }
+
+    // Título (más corto primero), luego título o descripción y luego capítulos (más
+    // recientes primero); cada manga una sola vez aunque case en varios niveles
+    @Test
+    public void search_ranksTitlesThenDescriptionsThenChapters() {
+        db.execSQL("INSERT INTO read_mangas(manga_id, title, description, read_date) VALUES " +
+                "('long', 'Dragon Quest Dai no Daibouken', NULL, '2024-03-01 00:00:00'), " +
+                "('short', 'Dragon Ball', 'Un dragon concede deseos', '2024-01-01 00:00:00'), " +
+                "('desc', 'Kobayashi', 'Su criada es un dragon', '2024-01-01 00:00:00'), " +
+                "('chap', 'One Piece', NULL, '2024-02-01 00:00:00'), " +
+                "('none', 'Berserk', 'Espadas', '2024-04-01 00:00:00')");
+        db.execSQL("INSERT INTO chapters(chapter_id, manga_id, chapter_title) VALUES " +
+                "('c1', 'chap', 'El dragon celestial'), ('s1', 'short', 'Dragon contra dragon')");
+
+        assertEquals("short long desc chap", search("dragon"));
+        assertEquals("short long desc chap", search("DRAG"));
+        assertEquals("short", search("dra bal"));
+        assertEquals("chap", search("celest"));
+        assertEquals("", search("zzz"));
+        assertEquals("", search(" * "));
+        assertEquals(2, MangaDAO.searchLibrary(db, "dragon", 2).size());
+    }
+
+    @Test
+    public void search_levelsPickHitsBeforeCountingChapters() {
+        String titles = explain(MangaDAO.SQL_SEARCH_TITLES, "title:drag*", "50");
+        assertTrue(titles, titles.contains("VIRTUAL TABLE"));
+
+        // Las descripciones recorren el índice de fecha en orden y paran en el LIMIT
+        String descriptions = explain(MangaDAO.SQL_SEARCH_DESCRIPTIONS, "drag*", "50");
+        assertTrue(descriptions, descriptions.contains(DatabaseHelper.INDEX_READ_MANGAS_READ_DATE));
+
+        String chapters = explain(MangaDAO.SQL_SEARCH_CHAPTERS, "chapter_title:drag*", "50");
+        assertTrue(chapters, chapters.contains("VIRTUAL TABLE"));
+        // Los recuentos de capítulos y páginas, por índice, solo para las filas elegidas
+        for (String plan : new String[]{titles, descriptions, chapters}) {
+            assertTrue(plan, plan.contains(DatabaseHelper.INDEX_CHAPTERS_MANGA_SORT));
+        }
+    }
+
+    // manga_id de los resultados en orden, separados por espacios
+    private String search(String text) {
+        StringBuilder ids = new StringBuilder();
+        for (MangaDAO.LibraryEntry entry : MangaDAO.searchLibrary(db, text, 50)) {
+            if (ids.length() > 0) ids.append(' ');
+            ids.append(entry.manga.getId());
+        }
+        return ids.toString();
+    }
+
+    private int count(String sql) {
+        Cursor cursor = db.rawQuery(sql, null);
+        int value = cursor.moveToFirst() ? cursor.getInt(0) : -1;
+        cursor.close();
+        return value;
+    }
+
+    private String explain(String sql, String... args) {
+        StringBuilder plan = new StringBuilder();
+        Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        int detail = cursor.getColumnIndexOrThrow("detail");
+        while (cursor.moveToNext()) {
+            plan.append(cursor.getString(detail)).append('\n');
+        }
+        cursor.close();
+        return plan.toString();
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.lectormanga.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cada versión histórica (assets/migrations/vN.sql) se migra hasta la actual:
+ * el esquema debe quedar igual que en una instalación nueva y los datos intactos.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SchemaMigrationTest {
+
+    private static final String FRESH_DB = "migration_fresh.db";
+    private static final String MIGRATED_DB = "migration_fixture.db";
+    private static final String[] TABLES = {
+            DatabaseHelper.TABLE_READ_MANGAS, DatabaseHelper.TABLE_CHAPTERS, DatabaseHelper.TABLE_PAGES,
+            DatabaseHelper.TABLE_MANGA_FTS, DatabaseHelper.TABLE_CHAPTER_FTS};
+
+    private Context context;
+    private final List<DatabaseHelper> helpers = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(FRESH_DB);
+        context.deleteDatabase(MIGRATED_DB);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        for (DatabaseHelper helper : helpers) {
+            helper.awaitLegacyImages();
+            helper.close();
+        }
+        context.deleteDatabase(FRESH_DB);
+        context.deleteDatabase(MIGRATED_DB);
+    }
+
+    @Test
+    public void fromV2_createsMissingTablesAndKeepsLibrary() throws IOException {
+        SQLiteDatabase db = migrateFixture(2);
+        assertSchemaMatchesFresh(db);
+        assertLibraryKept(db);
+    }
+
+    @Test
+    public void fromV3_keepsChaptersAndDropsDuplicatePages() throws IOException {
+        SQLiteDatabase db = migrateFixture(3);
+        assertSchemaMatchesFresh(db);
+        assertLibraryKept(db);
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM chapters WHERE manga_id = 'manga-1'"));
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM pages WHERE chapter_id = 'chapter-1'"));
+        assertEquals("https://example.org/2-bis.jpg",
+                text(db, "SELECT image_url FROM pages WHERE chapter_id = 'chapter-1' AND page_number = 2"));
+    }
+
+    @Test
+    public void fromV4_movesBase64ImagesToPageStore() throws Exception {
+        SQLiteDatabase db = migrateFixture(4);
+        // onUpgrade solo añade columnas; las imágenes se mueven en segundo plano tras abrir
+        helpers.get(helpers.size() - 1).awaitLegacyImages();
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM sqlite_master WHERE name = 'legacy_images_pending'"));
+        assertSchemaMatchesFresh(db);
+        assertLibraryKept(db);
+        assertEquals(2, count(db, "SELECT new_chapters FROM read_mangas WHERE manga_id = 'manga-1'"));
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM pages WHERE image_data IS NOT NULL"));
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM pages WHERE mime_type = 'image/png'"));
+        assertNull(text(db, "SELECT cover_image FROM read_mangas"));
+
+        PageStore store = new PageStore(context);
+        assertNotNull(store.resolve(text(db, "SELECT file_path FROM pages WHERE page_number = 1")));
+        assertNotNull(store.resolve(text(db, "SELECT cover_path FROM read_mangas")));
+    }
+
+    @Test
+    public void fromV5_keepsStoredPagesAndDropsDuplicates() throws IOException {
+        SQLiteDatabase db = migrateFixture(5);
+        assertSchemaMatchesFresh(db);
+        assertLibraryKept(db);
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM pages WHERE chapter_id = 'chapter-1'"));
+        assertEquals("ab/abc3",
+                text(db, "SELECT file_path FROM pages WHERE chapter_id = 'chapter-1' AND page_number = 2"));
+    }
+
+    @Test
+    public void fromV6_fillsChapterSortKeys() throws IOException {
+        SQLiteDatabase db = migrateFixture(6);
+        assertSchemaMatchesFresh(db);
+        assertLibraryKept(db);
+
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM chapters WHERE sort_key IS NULL"));
+        Cursor cursor = db.rawQuery(MangaDAO.SQL_CHAPTERS_FIRST, new String[]{"manga-1", "50", "0"});
+        StringBuilder order = new StringBuilder();
+        while (cursor.moveToNext()) {
+            order.append(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_NUMBER))).append(' ');
+        }
+        cursor.close();
+        assertEquals("1 2 10 10.5 10.5a ", order.toString());
+    }
+
+    @Test
+    public void fromV7_indexesWindowKeysAndDatesUndatedMangas() throws IOException {
+        SQLiteDatabase db = migrateFixture(7);
+        assertSchemaMatchesFresh(db);
+        assertLibraryKept(db);
+
+        assertEquals("", text(db, "SELECT read_date FROM read_mangas WHERE manga_id = 'manga-2'"));
+        Cursor cursor = db.rawQuery(MangaDAO.SQL_LIBRARY_FIRST, new String[]{"50", "0"});
+        assertEquals(2, cursor.getCount());
+        cursor.moveToLast();
+        assertEquals("manga-2", cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MANGA_ID)));
+        cursor.close();
+
+        // Mismo sort_key: desempata chapter_id, así que la segunda fila es chapter-b
+        cursor = db.rawQuery(MangaDAO.SQL_CHAPTERS_FIRST, new String[]{"manga-1", "1", "1"});
+        cursor.moveToFirst();
+        assertEquals("chapter-b", cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_ID)));
+        cursor.close();
+    }
+
+    @Test
+    public void fromV8_indexesExistingLibraryForSearch() throws IOException {
+        SQLiteDatabase db = migrateFixture(8);
+        assertSchemaMatchesFresh(db);
+        assertLibraryKept(db);
+
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM manga_fts"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM chapter_fts"));
+        assertEquals("manga-2", searchFirst(db, MangaDAO.SQL_SEARCH_TITLES, "title:do*"));
+        assertEquals("manga-2", searchFirst(db, MangaDAO.SQL_SEARCH_DESCRIPTIONS, "ciudad*"));
+        assertEquals("manga-1", searchFirst(db, MangaDAO.SQL_SEARCH_CHAPTERS, "chapter_title:comien*"));
+
+        // Los triggers siguen al día tras la migración
+        db.execSQL("UPDATE read_mangas SET title = 'Otro nombre' WHERE manga_id = 'manga-2'");
+        assertNull(searchFirst(db, MangaDAO.SQL_SEARCH_TITLES, "title:do*"));
+        assertEquals("manga-2", searchFirst(db, MangaDAO.SQL_SEARCH_TITLES, "title:nombre*"));
+    }
+
+    @Test
+    public void fromV9_ordersChaptersWithoutVolumeByNumber() throws IOException {
+        SQLiteDatabase db = migrateFixture(9);
+        assertSchemaMatchesFresh(db);
+        assertLibraryKept(db);
+
+        Cursor cursor = db.rawQuery(MangaDAO.SQL_CHAPTERS_FIRST, new String[]{"manga-1", "50", "0"});
+        StringBuilder order = new StringBuilder();
+        while (cursor.moveToNext()) {
+            order.append(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_NUMBER))).append(' ');
+        }
+        cursor.close();
+        assertEquals("1 2 11 ", order.toString());
+        assertEquals("manga-1", searchFirst(db, MangaDAO.SQL_SEARCH_CHAPTERS, "chapter_title:comien*"));
+    }
+
+    // Crea la base de datos del fixture con su versión y la abre con DatabaseHelper
+    private SQLiteDatabase migrateFixture(int version) throws IOException {
+        SQLiteDatabase fixture = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(MIGRATED_DB), null);
+        for (String statement : readStatements("migrations/v" + version + ".sql")) {
+            fixture.execSQL(statement);
+        }
+        fixture.setVersion(version);
+        fixture.close();
+
+        DatabaseHelper helper = new DatabaseHelper(context, MIGRATED_DB);
+        helpers.add(helper);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        assertEquals(DatabaseHelper.DATABASE_VERSION, db.getVersion());
+        return db;
+    }
+
+    private void assertSchemaMatchesFresh(SQLiteDatabase migrated) {
+        DatabaseHelper freshHelper = new DatabaseHelper(context, FRESH_DB);
+        helpers.add(freshHelper);
+        SQLiteDatabase fresh = freshHelper.getWritableDatabase();
+        for (String table : TABLES) {
+            assertEquals(table, describeTable(fresh, table), describeTable(migrated, table));
+        }
+        assertEquals("triggers", triggerNames(fresh), triggerNames(migrated));
+    }
+
+    private static Set<String> triggerNames(SQLiteDatabase db) {
+        Set<String> names = new TreeSet<>();
+        Cursor cursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type = 'trigger'", null);
+        while (cursor.moveToNext()) {
+            names.add(cursor.getString(0));
+        }
+        cursor.close();
+        return names;
+    }
+
+    // manga_id de la primera fila de un nivel de la búsqueda (null si no hay ninguna)
+    private static String searchFirst(SQLiteDatabase db, String sql, String match) {
+        Cursor cursor = db.rawQuery(sql, new String[]{match, "50"});
+        String mangaId = cursor.moveToFirst()
+                ? cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MANGA_ID)) : null;
+        cursor.close();
+        return mangaId;
+    }
+
+    private static void assertLibraryKept(SQLiteDatabase db) {
+        assertEquals("Manga uno", text(db, "SELECT title FROM read_mangas WHERE manga_id = 'manga-1'"));
+        assertEquals("3", text(db, "SELECT last_chapter FROM read_mangas WHERE manga_id = 'manga-1'"));
+    }
+
+    // Columnas (en cualquier orden: ALTER las añade al final) e índices de una tabla
+    private static Set<String> describeTable(SQLiteDatabase db, String table) {
+        Set<String> description = new TreeSet<>();
+        Cursor columns = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        while (columns.moveToNext()) {
+            description.add("column " + columns.getString(columns.getColumnIndexOrThrow("name")) + " " +
+                    columns.getString(columns.getColumnIndexOrThrow("type")) +
+                    " notnull=" + columns.getInt(columns.getColumnIndexOrThrow("notnull")) +
+                    " default=" + columns.getString(columns.getColumnIndexOrThrow("dflt_value")) +
+                    " pk=" + columns.getInt(columns.getColumnIndexOrThrow("pk")));
+        }
+        columns.close();
+
+        Cursor indexes = db.rawQuery("PRAGMA index_list(" + table + ")", null);
+        while (indexes.moveToNext()) {
+            String name = indexes.getString(indexes.getColumnIndexOrThrow("name"));
+            StringBuilder index = new StringBuilder("index unique=")
+                    .append(indexes.getInt(indexes.getColumnIndexOrThrow("unique")));
+            // Los índices automáticos (UNIQUE en la columna) se comparan por columnas
+            if (!name.startsWith("sqlite_autoindex_")) {
+                index.append(' ').append(name);
+            }
+            Cursor info = db.rawQuery("PRAGMA index_info(" + name + ")", null);
+            while (info.moveToNext()) {
+                index.append(' ').append(info.getString(info.getColumnIndexOrThrow("name")));
+            }
+            info.close();
+            description.add(index.toString());
+        }
+        indexes.close();
+        return description;
+    }
+
+    private static int count(SQLiteDatabase db, String sql) {
+        Cursor cursor = db.rawQuery(sql, null);
+        int value = cursor.moveToFirst() ? cursor.getInt(0) : -1;
+        cursor.close();
+        return value;
+    }
+
+    private static String text(SQLiteDatabase db, String sql) {
+        Cursor cursor = db.rawQuery(sql, null);
+        String value = cursor.moveToFirst() ? cursor.getString(0) : null;
+        cursor.close();
+        return value;
+    }
+
+    // Sentencias del fixture, una por ';' final de línea; los comentarios "--" se ignoran
+    private static List<String> readStatements(String asset) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream in = InstrumentationRegistry.getInstrumentation().getContext().getAssets().open(asset)) {
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+        }
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : new String(buffer.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+            current.append(trimmed).append(' ');
+            if (trimmed.endsWith(";")) {
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+        }
+        return statements;
+    }
+}
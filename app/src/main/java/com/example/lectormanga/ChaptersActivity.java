@@ -12,8 +12,10 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.lectormanga.adapter.ChapterAdapter;
+import com.example.lectormanga.adapter.WindowedList;
 import com.example.lectormanga.api.MangaDexApi;
 import com.example.lectormanga.database.MangaDAO;
+import com.example.lectormanga.image.ImageOptions;
 import com.example.lectormanga.model.Chapter;
 import com.example.lectormanga.model.Manga;
 
@@ -22,9 +24,14 @@ import java.util.List;
 
 public class ChaptersActivity extends AppCompatActivity implements ChapterAdapter.OnChapterClickListener {
 
+    // Capítulos guardados por ventanas de 100; se conservan dos a cada lado de la visible
+    private static final int OFFLINE_WINDOW_SIZE = 100;
+    private static final int OFFLINE_KEPT_WINDOWS = 2;
+
     private RecyclerView recyclerViewChapters;
     private ChapterAdapter chapterAdapter;
     private List<Chapter> chapterList;
+    private WindowedList<Chapter> offlineChapters;
     private ImageView mangaCover;
     private TextView mangaTitle, mangaDescription, statusText;
     private Manga selectedManga;
@@ -37,7 +44,7 @@ public class ChaptersActivity extends AppCompatActivity implements ChapterAdapte
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_chapters);
 
-        mangaDexApi = new MangaDexApi();
+        mangaDexApi = MangaDexApi.getInstance(this);
         mangaDAO = new MangaDAO(this);
 
         initViews();
@@ -79,8 +86,7 @@ public class ChaptersActivity extends AppCompatActivity implements ChapterAdapte
             if (selectedManga.getCoverUrl() != null && !selectedManga.getCoverUrl().isEmpty()) {
                 Glide.with(this)
                         .load(selectedManga.getCoverUrl())
-                        .placeholder(R.drawable.placeholder_manga)
-                        .error(R.drawable.placeholder_manga)
+                        .apply(ImageOptions.cover())
                         .into(mangaCover);
             } else {
                 mangaCover.setImageResource(R.drawable.placeholder_manga);
@@ -102,6 +108,10 @@ public class ChaptersActivity extends AppCompatActivity implements ChapterAdapte
             return;
         }
 
+        // Los capítulos nuevos avisados en la biblioteca ya se han visto
+        String mangaId = selectedManga.getId();
+        new Thread(() -> mangaDAO.clearNewChapters(mangaId)).start();
+
         if (fromOffline) {
             loadOfflineChapters();
         } else {
@@ -112,36 +122,59 @@ public class ChaptersActivity extends AppCompatActivity implements ChapterAdapte
     private void loadOfflineChapters() {
         statusText.setText("💾 Cargando offline...");
 
-        new Thread(() -> {
-            List<Chapter> offlineChapters = mangaDAO.getChaptersByMangaId(selectedManga.getId());
+        String mangaId = selectedManga.getId();
+        offlineChapters = new WindowedList<>(new WindowedList.Source<Chapter>() {
+            @Override
+            public int count() {
+                return mangaDAO.getChapterCount(mangaId);
+            }
 
-            runOnUiThread(() -> {
-                if (offlineChapters.isEmpty()) {
+            @Override
+            public List<Chapter> load(Chapter after, int skip, int limit) {
+                return mangaDAO.getChapterWindow(mangaId, after, skip, limit);
+            }
+        }, OFFLINE_WINDOW_SIZE, OFFLINE_KEPT_WINDOWS);
+        offlineChapters.setListener(new WindowedList.Listener() {
+            @Override
+            public void onReset(int size) {
+                chapterAdapter.onReset(size);
+                if (size == 0) {
                     statusText.setText("❌ No hay capítulos offline");
                 } else {
-                    chapterList.clear();
-                    chapterList.addAll(offlineChapters);
-                    chapterAdapter.notifyDataSetChanged();
-                    statusText.setText("✅ " + offlineChapters.size() + " capítulos (OFFLINE)");
+                    statusText.setText("✅ " + size + " capítulos (OFFLINE)");
                 }
-            });
-        }).start();
+            }
+
+            @Override
+            public void onRangeLoaded(int start, int count) {
+                chapterAdapter.onRangeLoaded(start, count);
+            }
+        });
+        chapterAdapter.setWindowedChapters(offlineChapters);
+        offlineChapters.refresh();
     }
 
     private void loadOnlineChapters() {
         statusText.setText("🔄 Cargando capítulos...");
+        chapterList.clear();
+        chapterAdapter.notifyDataSetChanged();
 
-        mangaDexApi.getChapters(selectedManga.getId(), 100, new MangaDexApi.ChapterCallback() {
+        mangaDexApi.getChapterFeed(selectedManga.getId(), new MangaDexApi.ChapterFeedCallback() {
             @Override
-            public void onSuccess(List<Chapter> chapters) {
+            public void onPage(List<Chapter> chapters, int loaded, int total) {
                 runOnUiThread(() -> {
-                    chapterList.clear();
-                    chapterList.addAll(chapters);
-                    chapterAdapter.notifyDataSetChanged();
-                    if (chapters.isEmpty()) {
+                    chapterAdapter.appendChapters(chapters);
+                    statusText.setText("🔄 " + loaded + " de " + total + " capítulos...");
+                });
+            }
+
+            @Override
+            public void onComplete(int total) {
+                runOnUiThread(() -> {
+                    if (chapterList.isEmpty()) {
                         statusText.setText("❌ No se encontraron capítulos");
                     } else {
-                        statusText.setText("✅ " + chapters.size() + " capítulos");
+                        statusText.setText("✅ " + chapterList.size() + " capítulos");
                     }
                 });
             }
@@ -153,7 +186,7 @@ public class ChaptersActivity extends AppCompatActivity implements ChapterAdapte
                     Toast.makeText(ChaptersActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
                 });
             }
-        });
+        }).bindTo(this);
     }
 
     @Override
@@ -162,6 +195,7 @@ public class ChaptersActivity extends AppCompatActivity implements ChapterAdapte
         intent.putExtra("chapter_id", chapter.getId());
         intent.putExtra("chapter_title", chapter.getTitle());
         intent.putExtra("chapter_number", chapter.getChapterNumber());
+        intent.putExtra("chapter_volume", chapter.getVolume());
         intent.putExtra("manga_id", selectedManga.getId());
         intent.putExtra("manga_title", selectedManga.getTitle());
         intent.putExtra("manga_description", selectedManga.getDescription());
@@ -172,10 +206,8 @@ public class ChaptersActivity extends AppCompatActivity implements ChapterAdapte
 
     @Override
     protected void onDestroy() {
+        if (offlineChapters != null) offlineChapters.close();
         super.onDestroy();
-        if (mangaDexApi != null) {
-            mangaDexApi.cleanup();
-        }
     }
 
     @Override
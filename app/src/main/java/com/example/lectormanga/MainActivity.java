@@ -2,22 +2,30 @@ package com.example.lectormanga;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.lectormanga.adapter.MangaAdapter;
+import com.example.lectormanga.api.ApiRequest;
 import com.example.lectormanga.api.MangaDexApi;
 import com.example.lectormanga.model.Manga;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -29,6 +37,23 @@ public class MainActivity extends AppCompatActivity {
     private TextView statusText;
 
     private MangaDexApi mangaDexApi;
+    private ApiRequest mangaRequest;
+
+    // Búsqueda mientras se escribe: se espera a que el usuario deje de teclear
+    private static final long SEARCH_DEBOUNCE_MS = 350;
+    private static final int MIN_QUERY_LENGTH = 2;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+
+    // Scroll infinito: la siguiente página se pide cuando quedan PREFETCH_THRESHOLD filas por ver
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_THRESHOLD = 6;
+    private String currentQuery; // null = populares
+    private int nextOffset = 0;
+    private int totalResults = 0;
+    private boolean loadingPage = false;
+    private int listGeneration = 0;
+    private final Set<String> loadedIds = new HashSet<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -36,7 +61,7 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
 
 
-        mangaDexApi = new MangaDexApi();
+        mangaDexApi = MangaDexApi.getInstance(this);
 
         initViews();
         setupRecyclerView();
@@ -59,6 +84,15 @@ public class MainActivity extends AppCompatActivity {
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(mangaAdapter);
+
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy > 0) {
+                    loadNextPageIfNeeded();
+                }
+            }
+        });
     }
 
     private void setupButtons() {
@@ -67,6 +101,7 @@ public class MainActivity extends AppCompatActivity {
             public void onClick(View v) {
                 String query = searchInput.getText().toString().trim();
                 if (!query.isEmpty()) {
+                    cancelPendingSearch();
                     searchManga(query);
                 } else {
                     Toast.makeText(MainActivity.this, "Ingresa un término de búsqueda", Toast.LENGTH_SHORT).show();
@@ -74,6 +109,21 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                scheduleSearch(s.toString().trim());
+            }
+        });
+
         readMangasButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -83,66 +133,145 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    // Cada tecla descarta la búsqueda en vuelo: su resultado ya no corresponde al texto
+    private void scheduleSearch(String query) {
+        cancelPendingSearch();
+        cancelMangaRequest();
+        if (query.isEmpty()) {
+            pendingSearch = this::loadPopularMangas;
+        } else if (query.length() >= MIN_QUERY_LENGTH) {
+            pendingSearch = () -> searchManga(query);
+        } else {
+            return;
+        }
+        searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+    }
+
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            searchHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+    }
+
     private void loadPopularMangas() {
         statusText.setText("🔄 Cargando mangas...");
+        startList(null);
+    }
 
-        mangaDexApi.getPopularMangas(20, new MangaDexApi.MangaCallback() {
+    private void searchManga(String query) {
+        statusText.setText("🔍 Buscando: " + query);
+        startList(query);
+    }
+
+    // Empieza una lista nueva (populares o búsqueda) desde el offset 0
+    private void startList(String query) {
+        cancelMangaRequest();
+        currentQuery = query;
+        nextOffset = 0;
+        totalResults = 0;
+        loadedIds.clear();
+        listGeneration++;
+        loadPage();
+    }
+
+    private void loadNextPageIfNeeded() {
+        if (loadingPage || nextOffset == 0 || !MangaDexApi.hasMoreMangas(nextOffset, totalResults, PAGE_SIZE)) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager == null) return;
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible >= mangaAdapter.getItemCount() - PREFETCH_THRESHOLD) {
+            loadPage();
+        }
+    }
+
+    private void loadPage() {
+        loadingPage = true;
+        int generation = listGeneration;
+        int offset = nextOffset;
+        String query = currentQuery;
+
+        MangaDexApi.MangaPageCallback callback = new MangaDexApi.MangaPageCallback() {
             @Override
-            public void onSuccess(List<Manga> mangas) {
+            public void onSuccess(List<Manga> mangas, int pageOffset, int total) {
                 runOnUiThread(() -> {
-                    mangaList.clear();
-                    mangaList.addAll(mangas);
-                    mangaAdapter.notifyDataSetChanged();
-
-                    statusText.setText("✅ " + mangas.size() + " mangas cargados");
-                    Toast.makeText(MainActivity.this, "Mangas cargados", Toast.LENGTH_SHORT).show();
+                    // Respuesta de una lista que ya se ha sustituido
+                    if (generation != listGeneration) return;
+                    loadingPage = false;
+                    onPageLoaded(query, mangas, pageOffset, total);
                 });
             }
 
             @Override
             public void onFailure(Exception e) {
                 runOnUiThread(() -> {
-                    statusText.setText("❌ Error al cargar");
-                    Toast.makeText(MainActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    if (generation != listGeneration) return;
+                    loadingPage = false;
+                    if (offset == 0) {
+                        statusText.setText(query == null ? "❌ Error al cargar" : "❌ Error");
+                        Toast.makeText(MainActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    } else {
+                        // Se reintenta al seguir haciendo scroll
+                        Toast.makeText(MainActivity.this, "Error al cargar más: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
                 });
             }
-        });
+        };
+
+        mangaRequest = (query == null
+                ? mangaDexApi.getPopularMangas(PAGE_SIZE, offset, callback)
+                : mangaDexApi.searchMangas(query, PAGE_SIZE, offset, callback)).bindTo(this);
     }
 
-    private void searchManga(String query) {
-        statusText.setText("🔍 Buscando: " + query);
+    private void onPageLoaded(String query, List<Manga> mangas, int pageOffset, int total) {
+        // Una página vacía marca el final aunque el total diga otra cosa
+        nextOffset = pageOffset + mangas.size();
+        totalResults = mangas.isEmpty() ? nextOffset : total;
 
-        mangaDexApi.searchMangas(query, 20, new MangaDexApi.MangaCallback() {
-            @Override
-            public void onSuccess(List<Manga> mangas) {
-                runOnUiThread(() -> {
-                    mangaList.clear();
-                    mangaList.addAll(mangas);
-                    mangaAdapter.notifyDataSetChanged();
-
-                    if (mangas.isEmpty()) {
-                        statusText.setText("❌ Sin resultados");
-                    } else {
-                        statusText.setText("✅ " + mangas.size() + " resultados");
-                    }
-                });
+        // Con orden por popularidad las páginas pueden solaparse si la lista cambia entre peticiones
+        List<Manga> fresh = new ArrayList<>(mangas.size());
+        for (Manga manga : mangas) {
+            if (loadedIds.add(manga.getId())) {
+                fresh.add(manga);
             }
+        }
 
-            @Override
-            public void onFailure(Exception e) {
-                runOnUiThread(() -> {
-                    statusText.setText("❌ Error");
-                    Toast.makeText(MainActivity.this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                });
+        if (pageOffset == 0) {
+            mangaAdapter.replaceMangas(fresh);
+            recyclerView.scrollToPosition(0);
+            if (query == null) {
+                statusText.setText("✅ " + mangaList.size() + " mangas cargados");
+                Toast.makeText(MainActivity.this, "Mangas cargados", Toast.LENGTH_SHORT).show();
+            } else if (fresh.isEmpty()) {
+                statusText.setText("❌ Sin resultados");
+            } else {
+                statusText.setText("✅ " + totalResults + " resultados");
             }
-        });
+        } else {
+            mangaAdapter.appendMangas(fresh);
+            if (query == null) {
+                statusText.setText("✅ " + mangaList.size() + " mangas cargados");
+            }
+        }
+
+        // Si la página no llena la pantalla no habrá scroll que pida la siguiente
+        recyclerView.post(this::loadNextPageIfNeeded);
+    }
+
+    // Solo interesa la última carga: la anterior se aborta
+    private void cancelMangaRequest() {
+        if (mangaRequest != null) {
+            mangaRequest.cancel();
+            mangaRequest = null;
+        }
+        loadingPage = false;
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (mangaDexApi != null) {
-            mangaDexApi.cleanup();
-        }
+        cancelPendingSearch();
     }
 }
\ No newline at end of file
@@ -1,6 +1,14 @@
 package com.example.lectormanga;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.text.format.Formatter;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -9,19 +17,40 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.lectormanga.adapter.ReadMangaAdapter;
+import com.example.lectormanga.adapter.WindowedList;
+import com.example.lectormanga.api.ApiRequest;
+import com.example.lectormanga.api.LibraryUpdateChecker;
+import com.example.lectormanga.api.MangaDexApi;
 import com.example.lectormanga.database.MangaDAO;
-import com.example.lectormanga.model.Manga;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class ReadMangasActivity extends AppCompatActivity {
 
+    // Ventanas de 50 mangas; se conservan dos a cada lado de la visible
+    private static final int LIBRARY_WINDOW_SIZE = 50;
+    private static final int LIBRARY_KEPT_WINDOWS = 2;
+
+    // Búsqueda local mientras se escribe: la consulta FTS tarda milisegundos, así que la
+    // espera es corta. Solo se muestran los mejores resultados, sin ventanas
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    // Como en MainActivity: una sola letra casa con media biblioteca
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int SEARCH_LIMIT = 100;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+    private String searchQuery = "";
+    private int searchGeneration = 0;
+
     private RecyclerView recyclerView;
     private ReadMangaAdapter readMangaAdapter;
-    private List<Manga> readMangasList;
+    private WindowedList<MangaDAO.LibraryEntry> readMangasList;
     private TextView statusText, statsText;
+    private EditText searchInput;
+    private Button btnCheckUpdates;
     private MangaDAO mangaDAO;
+    private ApiRequest updateRequest;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -34,51 +63,182 @@ public class ReadMangasActivity extends AppCompatActivity {
         // Inicializar vistas
         initViews();
 
-        // Configurar RecyclerView
+        // Configurar RecyclerView (los mangas se cargan en onResume)
         setupRecyclerView();
-
-        // Cargar mangas leídos
-        loadReadMangas();
     }
 
     private void initViews() {
         recyclerView = findViewById(R.id.recyclerView);
         statusText = findViewById(R.id.statusText);
         statsText = findViewById(R.id.statsText);
+        btnCheckUpdates = findViewById(R.id.btnCheckUpdates);
+        btnCheckUpdates.setOnClickListener(v -> checkForUpdates());
+
+        searchInput = findViewById(R.id.searchInput);
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                scheduleSearch(s.toString().trim());
+            }
+        });
     }
 
     private void setupRecyclerView() {
-        readMangasList = new ArrayList<>();
-        readMangaAdapter = new ReadMangaAdapter(readMangasList, this, mangaDAO);
+        readMangasList = new WindowedList<>(new WindowedList.Source<MangaDAO.LibraryEntry>() {
+            @Override
+            public int count() {
+                return mangaDAO.getLibraryCount();
+            }
+
+            @Override
+            public List<MangaDAO.LibraryEntry> load(MangaDAO.LibraryEntry after, int skip, int limit) {
+                return mangaDAO.getLibraryWindow(after, skip, limit);
+            }
+        }, LIBRARY_WINDOW_SIZE, LIBRARY_KEPT_WINDOWS);
+        readMangaAdapter = new ReadMangaAdapter(readMangasList, this);
+        readMangasList.setListener(readMangaAdapter);
 
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(readMangaAdapter);
     }
 
+    // Las consultas van en segundo plano: la lista relee su primera ventana (el resto se
+    // pide al desplazarse) y las estadísticas salen de caché si nada se ha guardado
     private void loadReadMangas() {
-        mangaDAO.debugDatabase();
-        List<Manga> readMangas = mangaDAO.getAllReadMangas();
+        readMangasList.refresh();
+        if (!searchQuery.isEmpty()) searchLibrary();
+        new Thread(() -> {
+            MangaDAO.LibraryStats stats = mangaDAO.getLibraryStats();
+            runOnUiThread(() -> {
+                if (!isFinishing()) showReadMangas(stats);
+            });
+        }).start();
+    }
 
-        if (readMangas.isEmpty()) {
+    private void showReadMangas(MangaDAO.LibraryStats stats) {
+        if (stats.totalMangas == 0) {
             statusText.setText("No has guardado ningún manga aún\n\nCuando leas un manga, aparecerá aquí para acceso offline");
             statsText.setText("📊 0 mangas guardados");
             Toast.makeText(this, "Guarda mangas desde el lector para verlos aquí", Toast.LENGTH_LONG).show();
         } else {
-            readMangasList.clear();
-            readMangasList.addAll(readMangas);
-            readMangaAdapter.notifyDataSetChanged();
+            // Mostrar estadísticas (durante una búsqueda la línea de estado es suya)
+            if (searchQuery.isEmpty()) statusText.setText("📚 " + stats.totalMangas + " mangas guardados offline");
+            statsText.setText("📊 Leyendo: " + stats.getCountByStatus("reading") +
+                    " • Completados: " + stats.getCountByStatus("completed") +
+                    " • Pausados: " + stats.getCountByStatus("paused") +
+                    "\n💾 " + stats.totalChapters + " capítulos • " + stats.totalPages + " páginas • " +
+                    Formatter.formatShortFileSize(this, stats.bytesOnDisk));
 
-            // Mostrar estadísticas
-            int reading = mangaDAO.getCountByStatus("reading");
-            int completed = mangaDAO.getCountByStatus("completed");
-            int paused = mangaDAO.getCountByStatus("paused");
+            Toast.makeText(this, "Cargados " + stats.totalMangas + " mangas desde SQLite", Toast.LENGTH_SHORT).show();
+        }
+    }
 
-            statusText.setText("📚 " + readMangas.size() + " mangas guardados offline");
-            statsText.setText("📊 Leyendo: " + reading + " • Completados: " + completed + " • Pausados: " + paused);
+    // ========== BÚSQUEDA ==========
+    private void scheduleSearch(String query) {
+        if (pendingSearch != null) searchHandler.removeCallbacks(pendingSearch);
+        // Demasiado corta: como el texto vacío, vuelve a la biblioteca en vez de dejar
+        // en pantalla los resultados (y el estado) de la consulta anterior
+        searchQuery = query.length() < MIN_QUERY_LENGTH ? "" : query;
+        pendingSearch = this::searchLibrary;
+        searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
+    }
 
-            Toast.makeText(this, "Cargados " + readMangas.size() + " mangas desde SQLite", Toast.LENGTH_SHORT).show();
+    // Texto vacío: vuelve a la biblioteca completa. Si el usuario sigue escribiendo, el
+    // resultado de una búsqueda anterior llega con otra generación y se descarta
+    private void searchLibrary() {
+        pendingSearch = null;
+        int generation = ++searchGeneration;
+        String query = searchQuery;
+        if (query.isEmpty()) {
+            readMangaAdapter.setSearchResults(null);
+            statusText.setText("📚 " + readMangasList.size() + " mangas guardados offline");
+            return;
         }
+        new Thread(() -> {
+            long start = System.nanoTime();
+            List<MangaDAO.LibraryEntry> results = mangaDAO.searchLibrary(query, SEARCH_LIMIT);
+            Log.d("ReadMangasActivity", "Búsqueda '" + query + "': " + results.size() + " resultados en " +
+                    (System.nanoTime() - start) / 1000 + " µs");
+            runOnUiThread(() -> {
+                if (isFinishing() || generation != searchGeneration) return;
+                readMangaAdapter.setSearchResults(results);
+                statusText.setText(results.isEmpty()
+                        ? "🔍 Ningún manga guardado coincide con \"" + query + "\""
+                        : "🔍 " + results.size() + " resultados para \"" + query + "\"");
+            });
+        }).start();
+    }
+
+    // ========== NOVEDADES ==========
+    // Toda la biblioteca en unas pocas consultas por lotes; el resultado se guarda en SQLite
+    private void checkForUpdates() {
+        if (updateRequest != null && !updateRequest.isCanceled()) return;
+
+        btnCheckUpdates.setEnabled(false);
+        statusText.setText("🔔 Buscando capítulos nuevos...");
+
+        new Thread(() -> {
+            Map<String, String> targets = mangaDAO.getUpdateCheckTargets();
+            runOnUiThread(() -> {
+                if (targets.isEmpty()) {
+                    btnCheckUpdates.setEnabled(true);
+                    statusText.setText("No hay mangas guardados que comprobar");
+                    return;
+                }
+                updateRequest = MangaDexApi.getInstance(this).checkLibraryUpdates(targets, new LibraryUpdateChecker.Callback() {
+                    @Override
+                    public void onProgress(int completedBatches, int totalBatches) {
+                        runOnUiThread(() -> statusText.setText(
+                                "🔔 Buscando capítulos nuevos... " + completedBatches + "/" + totalBatches));
+                    }
+
+                    @Override
+                    public void onComplete(LibraryUpdateChecker.Result result) {
+                        Log.d("ReadMangasActivity", "Novedades: " + result);
+                        mangaDAO.applyUpdateCheck(result.newChapters, result.checkedAt);
+
+                        int withNews = 0;
+                        int totalNew = 0;
+                        for (int count : result.newChapters.values()) {
+                            if (count > 0) withNews++;
+                            totalNew += count;
+                        }
+                        int finalWithNews = withNews;
+                        int finalTotalNew = totalNew;
+                        runOnUiThread(() -> {
+                            updateRequest = null;
+                            btnCheckUpdates.setEnabled(true);
+                            loadReadMangas();
+                            String message = finalTotalNew == 0
+                                    ? "✅ Todo al día"
+                                    : "🆕 " + finalTotalNew + " capítulos nuevos en " + finalWithNews + " mangas";
+                            if (result.failedBatches > 0) {
+                                message += " (algunos mangas no se pudieron comprobar)";
+                            }
+                            Toast.makeText(ReadMangasActivity.this, message, Toast.LENGTH_LONG).show();
+                        });
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        runOnUiThread(() -> {
+                            updateRequest = null;
+                            btnCheckUpdates.setEnabled(true);
+                            statusText.setText("❌ Error al buscar novedades: " + e.getMessage());
+                        });
+                    }
+                }).bindTo(this);
+            });
+        }).start();
     }
 
     @Override
@@ -87,6 +247,13 @@ public class ReadMangasActivity extends AppCompatActivity {
         loadReadMangas();
     }
 
+    @Override
+    protected void onDestroy() {
+        if (pendingSearch != null) searchHandler.removeCallbacks(pendingSearch);
+        readMangasList.close();
+        super.onDestroy();
+    }
+
     @Override
     public void onBackPressed() {
         super.onBackPressed();
@@ -1,8 +1,12 @@
 package com.example.lectormanga;
 
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.util.Log;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ProgressBar;
@@ -17,24 +21,32 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.lectormanga.adapter.PageAdapter;
 import com.example.lectormanga.api.MangaDexApi;
+import com.example.lectormanga.api.MangaDexParser;
+import com.example.lectormanga.api.PageQuality;
+import com.example.lectormanga.api.PageQualityPolicy;
 import com.example.lectormanga.database.MangaDAO;
 import com.example.lectormanga.model.Chapter;
 import com.example.lectormanga.model.Manga;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnPageLoadListener {
 
+    private static final String PREFS_NAME = "reader_prefs";
+    private static final String PREF_QUALITY_MODE = "page_quality_mode";
+
     private RecyclerView recyclerViewPages;
     private PageAdapter pageAdapter;
     private List<String> pageUrls;
 
-    private TextView chapterTitle, pageIndicator, currentPageText, statusText;
+    private TextView chapterTitle, pageIndicator, currentPageText, statusText, qualityToggle;
     private Button btnPrevious, btnNext;
     private ProgressBar progressBar;
 
-    private String chapterId, chapterTitleText, chapterNumber, mangaTitle;
+    private String chapterId, chapterTitleText, chapterNumber, chapterVolume, mangaTitle;
     private int currentPage = 0;
     private int totalPages = 0;
     private int loadedPages = 0;
@@ -43,14 +55,20 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
     private MangaDAO mangaDAO;
     private boolean fromOffline = false;
 
+    // Calidad del capítulo online y páginas que ya se subieron a "data" al hacer zoom
+    private MangaDexParser.AtHomeChapter atHomeChapter;
+    private PageQuality chapterQuality;
+    private final Set<Integer> upgradedPages = new HashSet<>();
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_reader);
 
         // Inicializar API y DAO
-        mangaDxApi = new MangaDexApi();
+        mangaDxApi = MangaDexApi.getInstance(this);
         mangaDAO = new MangaDAO(this);
+        restoreQualityMode();
 
         // Inicializar vistas
         initViews();
@@ -81,6 +99,7 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
         btnPrevious = findViewById(R.id.btnPrevious);
         btnNext = findViewById(R.id.btnNext);
         progressBar = findViewById(R.id.progressBar);
+        qualityToggle = findViewById(R.id.qualityToggle);
     }
 
     private void getIntentData() {
@@ -89,6 +108,7 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
             chapterId = intent.getStringExtra("chapter_id");
             chapterTitleText = intent.getStringExtra("chapter_title");
             chapterNumber = intent.getStringExtra("chapter_number");
+            chapterVolume = intent.getStringExtra("chapter_volume");
             mangaTitle = intent.getStringExtra("manga_title");
             fromOffline = intent.getBooleanExtra("from_offline", false);
         }
@@ -117,6 +137,8 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
         PagerSnapHelper snapHelper = new PagerSnapHelper();
         snapHelper.attachToRecyclerView(recyclerViewPages);
 
+        setupZoomUpgrade();
+
         recyclerViewPages.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
             public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
@@ -146,6 +168,13 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
                 Toast.makeText(ReaderActivity.this, "✅ ¡Capítulo terminado!", Toast.LENGTH_SHORT).show();
             }
         });
+
+        if (fromOffline) {
+            qualityToggle.setVisibility(View.GONE);
+        } else {
+            qualityToggle.setOnClickListener(v -> cycleQualityMode());
+            updateQualityLabel();
+        }
     }
 
     // ========== CARGA ONLINE ==========
@@ -160,10 +189,17 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
         statusText.setText("🔄 Cargando páginas desde MangaDex...");
         progressBar.setVisibility(View.VISIBLE);
 
-        mangaDxApi.getChapterPages(chapterId, new MangaDexApi.PageCallback() {
+        mangaDxApi.getChapterImages(chapterId, new MangaDexApi.AtHomeCallback() {
             @Override
-            public void onSuccess(List<String> urls) {
+            public void onSuccess(MangaDexParser.AtHomeChapter chapter) {
                 runOnUiThread(() -> {
+                    // La calidad se decide una vez por capítulo
+                    atHomeChapter = chapter;
+                    chapterQuality = chapter.resolve(mangaDxApi.getPageQualityPolicy().chooseForChapter());
+                    upgradedPages.clear();
+                    updateQualityLabel();
+                    List<String> urls = chapter.urls(chapterQuality);
+
                     if (urls.isEmpty()) {
                         statusText.setText("❌ No se encontraron páginas");
                         progressBar.setVisibility(View.GONE);
@@ -184,8 +220,9 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
                     progressBar.setVisibility(View.GONE);
                     Toast.makeText(ReaderActivity.this, "✅ " + totalPages + " páginas listas para leer", Toast.LENGTH_SHORT).show();
 
-                    // ✅ GUARDADO COMPLETO OFFLINE
-                    saveCompleteMangaOffline(urls);
+                    // ✅ GUARDADO COMPLETO OFFLINE: siempre en data-saver (si existe); la calidad
+                    // de pantalla depende del enlace, lo que ocupa en disco no
+                    saveCompleteMangaOffline(chapter.urls(PageQuality.DATA_SAVER));
 
                     statusText.postDelayed(() -> {
                         if (statusText != null) {
@@ -203,7 +240,115 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
                     Toast.makeText(ReaderActivity.this, "Error de conexión: " + e.getMessage(), Toast.LENGTH_LONG).show();
                 });
             }
+        }).bindTo(this);
+    }
+
+    // ========== CALIDAD DE PÁGINAS ==========
+    private void restoreQualityMode() {
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        String saved = prefs.getString(PREF_QUALITY_MODE, PageQualityPolicy.Mode.AUTO.name());
+        PageQualityPolicy.Mode mode;
+        try {
+            mode = PageQualityPolicy.Mode.valueOf(saved);
+        } catch (IllegalArgumentException e) {
+            mode = PageQualityPolicy.Mode.AUTO;
+        }
+        mangaDxApi.getPageQualityPolicy().setMode(mode);
+    }
+
+    // Auto -> Alta -> Ahorro -> Auto; se aplica también al capítulo abierto
+    private void cycleQualityMode() {
+        PageQualityPolicy policy = mangaDxApi.getPageQualityPolicy();
+        PageQualityPolicy.Mode next;
+        switch (policy.getMode()) {
+            case AUTO:
+                next = PageQualityPolicy.Mode.ALWAYS_DATA;
+                break;
+            case ALWAYS_DATA:
+                next = PageQualityPolicy.Mode.ALWAYS_DATA_SAVER;
+                break;
+            default:
+                next = PageQualityPolicy.Mode.AUTO;
+                break;
+        }
+        policy.setMode(next);
+        getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit()
+                .putString(PREF_QUALITY_MODE, next.name())
+                .apply();
+
+        if (atHomeChapter != null) {
+            PageQuality quality = atHomeChapter.resolve(policy.chooseForChapter());
+            if (quality != chapterQuality) {
+                chapterQuality = quality;
+                upgradedPages.clear();
+                pageUrls.clear();
+                pageUrls.addAll(atHomeChapter.urls(quality));
+                pageAdapter.notifyDataSetChanged();
+            }
+        }
+        updateQualityLabel();
+    }
+
+    private void updateQualityLabel() {
+        String label;
+        switch (mangaDxApi.getPageQualityPolicy().getMode()) {
+            case ALWAYS_DATA:
+                label = "⚙️ Calidad: Alta";
+                break;
+            case ALWAYS_DATA_SAVER:
+                label = "⚙️ Calidad: Ahorro de datos";
+                break;
+            default:
+                label = chapterQuality == null ? "⚙️ Calidad: Auto" :
+                        "⚙️ Calidad: Auto (" + (chapterQuality == PageQuality.DATA ? "alta" : "ahorro") + ")";
+                break;
+        }
+        qualityToggle.setText(label);
+    }
+
+    // Doble toque o pellizco sobre una página en data-saver: se recarga esa página en "data".
+    // El listener solo observa los toques; el scroll del RecyclerView sigue igual.
+    private void setupZoomUpgrade() {
+        GestureDetector doubleTapDetector = new GestureDetector(this, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                upgradePageAt(e.getX(), e.getY());
+                return true;
+            }
+        });
+        ScaleGestureDetector scaleDetector = new ScaleGestureDetector(this, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScaleBegin(ScaleGestureDetector detector) {
+                upgradePageAt(detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
         });
+
+        recyclerViewPages.addOnItemTouchListener(new RecyclerView.SimpleOnItemTouchListener() {
+            @Override
+            public boolean onInterceptTouchEvent(@NonNull RecyclerView rv, @NonNull MotionEvent e) {
+                doubleTapDetector.onTouchEvent(e);
+                scaleDetector.onTouchEvent(e);
+                return false;
+            }
+        });
+    }
+
+    private void upgradePageAt(float x, float y) {
+        View child = recyclerViewPages.findChildViewUnder(x, y);
+        if (child == null) return;
+        int position = recyclerViewPages.getChildAdapterPosition(child);
+        if (position == RecyclerView.NO_POSITION) return;
+
+        if (atHomeChapter == null || !atHomeChapter.hasData() || chapterQuality != PageQuality.DATA_SAVER) return;
+        if (!upgradedPages.add(position)) return;
+
+        String fullUrl = atHomeChapter.url(PageQuality.DATA, position);
+        if (fullUrl == null || position >= pageUrls.size()) return;
+
+        pageUrls.set(position, fullUrl);
+        pageAdapter.notifyItemChanged(position);
+        Toast.makeText(this, "🔍 Página " + (position + 1) + " en alta calidad", Toast.LENGTH_SHORT).show();
     }
 
     // ========== CARGA OFFLINE ==========
@@ -286,28 +431,39 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
                 Chapter chapter = new Chapter();
                 chapter.setId(chapterId);
                 chapter.setChapterNumber(chapterNumber);
+                chapter.setVolume(chapterVolume);
                 chapter.setTitle(chapterTitleText);
                 chapter.setPages(String.valueOf(pageUrls.size()));
 
-                long chapterResult = mangaDAO.addChapter(chapter, mangaId);
-                Log.d("ReaderActivity", "Capítulo guardado: " + chapterResult);
-
-                // 4. Guardar todas las páginas con imágenes
-                for (int i = 0; i < pageUrls.size(); i++) {
-                    long pageResult = mangaDAO.addPageWithImage(chapterId, i + 1, pageUrls.get(i));
-                    Log.d("ReaderActivity", "Página " + (i + 1) + " guardada: " + pageResult);
+                // 4. Guardar capítulo y páginas en una sola transacción
+                int savedImages = mangaDAO.saveChapterWithPages(chapter, mangaId, pageUrls,
+                        (page, total) -> runOnUiThread(() -> {
+                            statusText.setVisibility(View.VISIBLE);
+                            statusText.setText("💾 Guardando capítulo " + chapterNumber + " - página " + page + "/" + total);
+                        }));
+                Log.d("ReaderActivity", "Capítulo guardado: " + savedImages + "/" + pageUrls.size() + " imágenes");
 
-                    int finalI = i;
+                // 5. Si faltó alguna imagen no se guardó nada: avisar para reintentar
+                if (savedImages < pageUrls.size()) {
                     runOnUiThread(() -> {
-                        statusText.setVisibility(View.VISIBLE);
-                        statusText.setText("💾 Guardando capítulo " + chapterNumber + " - página " + (finalI + 1) + "/" + pageUrls.size());
+                        statusText.setText("⚠️ Capítulo " + chapterNumber + " sin guardar: " +
+                                savedImages + "/" + pageUrls.size() + " páginas descargadas");
+                        Toast.makeText(ReaderActivity.this,
+                                "⚠️ No se pudieron descargar todas las páginas. Vuelve a intentarlo",
+                                Toast.LENGTH_LONG).show();
+
+                        statusText.postDelayed(() -> {
+                            if (statusText != null) {
+                                statusText.setVisibility(View.GONE);
+                            }
+                        }, 3000);
                     });
+                    return;
                 }
 
-                // 5. Notificar éxito
-                String finalMangaId = mangaId;
+                // 6. Notificar éxito
+                int totalChapters = mangaDAO.getChapterCount(mangaId);
                 runOnUiThread(() -> {
-                    int totalChapters = mangaDAO.getChaptersByMangaId(finalMangaId).size();
                     statusText.setText("✅ Capítulo " + chapterNumber + " guardado offline");
                     Toast.makeText(ReaderActivity.this,
                             "📚 Capítulo " + chapterNumber + " guardado (" + totalChapters + " capítulos offline)",
@@ -367,14 +523,6 @@ public class ReaderActivity extends AppCompatActivity implements PageAdapter.OnP
         });
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (mangaDxApi != null) {
-            mangaDxApi.cleanup();
-        }
-    }
-
     @Override
     public void onBackPressed() {
         super.onBackPressed();
@@ -12,12 +12,17 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.lectormanga.R;
 import com.example.lectormanga.model.Chapter;
+import com.example.lectormanga.model.ChapterSortKey;
 
+import java.util.Collections;
 import java.util.List;
 
-public class ChapterAdapter extends RecyclerView.Adapter<ChapterAdapter.ChapterViewHolder> {
+public class ChapterAdapter extends RecyclerView.Adapter<ChapterAdapter.ChapterViewHolder>
+        implements WindowedList.Listener {
 
     private List<Chapter> chapterList;
+    // Capítulos guardados: se leen por ventanas en lugar de cargar chapterList entera
+    private WindowedList<Chapter> windowedChapters;
     private Context context;
 
     // Interface para manejar clicks (para próximos pasos)
@@ -50,13 +55,34 @@ public class ChapterAdapter extends RecyclerView.Adapter<ChapterAdapter.ChapterV
 
     @Override
     public void onBindViewHolder(@NonNull ChapterViewHolder holder, int position) {
-        Chapter chapter = chapterList.get(position);
-        holder.bind(chapter, context, listener);
+        Chapter chapter = windowedChapters != null ? windowedChapters.get(position) : chapterList.get(position);
+        if (chapter != null) {
+            holder.bind(chapter, context, listener);
+        } else {
+            holder.bindPlaceholder();
+        }
     }
 
     @Override
     public int getItemCount() {
-        return chapterList.size();
+        return windowedChapters != null ? windowedChapters.size() : chapterList.size();
+    }
+
+    // Pasa a mostrar una lista por ventanas (modo offline). Quien la crea registra el
+    // adaptador (o algo que le reenvíe los avisos) como su Listener
+    public void setWindowedChapters(WindowedList<Chapter> chapters) {
+        windowedChapters = chapters;
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public void onReset(int size) {
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public void onRangeLoaded(int start, int count) {
+        notifyItemRangeChanged(start, count);
     }
 
     // ViewHolder
@@ -102,6 +128,42 @@ public class ChapterAdapter extends RecyclerView.Adapter<ChapterAdapter.ChapterV
                 }
             });
         }
+
+        // Fila cuya ventana aún se está leyendo
+        public void bindPlaceholder() {
+            chapterNumber.setText("#");
+            chapterTitle.setText("Cargando...");
+            chapterPages.setText("");
+            itemView.setOnClickListener(null);
+        }
+    }
+
+    // Añade una página de capítulos al final sin volver a pintar las filas existentes
+    // Cada página del feed llega ya ordenada por ChapterSortKey. Lo normal es que vaya
+    // detrás de lo cargado (un solo aviso por rango); si el servidor mezcla el orden
+    // (p. ej. capítulos sin volumen), cada capítulo se inserta en su sitio
+    public void appendChapters(List<Chapter> newChapters) {
+        if (newChapters.isEmpty()) return;
+        int start = chapterList.size();
+        if (start == 0 || ChapterSortKey.ORDER.compare(chapterList.get(start - 1), newChapters.get(0)) <= 0) {
+            chapterList.addAll(newChapters);
+            notifyItemRangeInserted(start, newChapters.size());
+            return;
+        }
+        for (Chapter chapter : newChapters) {
+            int position = Collections.binarySearch(chapterList, chapter, ChapterSortKey.ORDER);
+            if (position < 0) {
+                position = -position - 1;
+            } else {
+                // Misma clave: detrás de los iguales, conservando el orden de llegada
+                while (position < chapterList.size() &&
+                        ChapterSortKey.ORDER.compare(chapterList.get(position), chapter) == 0) {
+                    position++;
+                }
+            }
+            chapterList.add(position, chapter);
+            notifyItemInserted(position);
+        }
     }
 
     // Método para actualizar la lista
@@ -15,6 +15,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.example.lectormanga.ChaptersActivity;
 import com.example.lectormanga.R;
+import com.example.lectormanga.image.ImageOptions;
 import com.example.lectormanga.model.Manga;
 
 import java.util.List;
@@ -74,8 +75,7 @@ public class MangaAdapter extends RecyclerView.Adapter<MangaAdapter.MangaViewHol
             if (manga.getCoverUrl() != null && !manga.getCoverUrl().isEmpty()) {
                 Glide.with(context)
                         .load(manga.getCoverUrl())
-                        .placeholder(R.drawable.placeholder_manga)
-                        .error(R.drawable.placeholder_manga)
+                        .apply(ImageOptions.cover())
                         .into(mangaCover);
             } else {
                 // Si no hay URL, usar placeholder
@@ -107,4 +107,21 @@ public class MangaAdapter extends RecyclerView.Adapter<MangaAdapter.MangaViewHol
         this.mangaList.addAll(newMangaList);
         notifyDataSetChanged();
     }
+
+    // Nueva búsqueda: se sustituye la lista con avisos por rango
+    public void replaceMangas(List<Manga> mangas) {
+        int oldSize = mangaList.size();
+        mangaList.clear();
+        notifyItemRangeRemoved(0, oldSize);
+        mangaList.addAll(mangas);
+        notifyItemRangeInserted(0, mangas.size());
+    }
+
+    // Scroll infinito: solo se enlazan las filas nuevas
+    public void appendMangas(List<Manga> mangas) {
+        if (mangas.isEmpty()) return;
+        int start = mangaList.size();
+        mangaList.addAll(mangas);
+        notifyItemRangeInserted(start, mangas.size());
+    }
 }
\ No newline at end of file
@@ -12,9 +12,9 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
 import com.example.lectormanga.R;
+import com.example.lectormanga.image.ImageOptions;
 
 import java.util.List;
 
@@ -79,10 +79,8 @@ public class PageAdapter extends RecyclerView.Adapter<PageAdapter.PageViewHolder
             if (pageUrl != null && !pageUrl.isEmpty()) {
                 Glide.with(context)
                         .load(pageUrl)
-                        .diskCacheStrategy(DiskCacheStrategy.ALL)
+                        .apply(ImageOptions.page(pageUrl))
                         .transition(DrawableTransitionOptions.withCrossFade())
-                        .placeholder(R.drawable.placeholder_manga)
-                        .error(R.drawable.placeholder_manga)
                         .listener(new com.bumptech.glide.request.RequestListener<android.graphics.drawable.Drawable>() {
                             @Override
                             public boolean onLoadFailed(@androidx.annotation.Nullable com.bumptech.glide.load.engine.GlideException e, Object model, com.bumptech.glide.request.target.Target<android.graphics.drawable.Drawable> target, boolean isFirstResource) {
@@ -16,20 +16,30 @@ import com.bumptech.glide.Glide;
 import com.example.lectormanga.ChaptersActivity;
 import com.example.lectormanga.R;
 import com.example.lectormanga.database.MangaDAO;
+import com.example.lectormanga.image.ImageOptions;
 import com.example.lectormanga.model.Manga;
 
 import java.util.List;
 
-public class ReadMangaAdapter extends RecyclerView.Adapter<ReadMangaAdapter.ReadMangaViewHolder> {
+public class ReadMangaAdapter extends RecyclerView.Adapter<ReadMangaAdapter.ReadMangaViewHolder>
+        implements WindowedList.Listener {
 
-    private List<Manga> mangaList;
+    // Filas ya calculadas por MangaDAO.getLibraryWindow, cargadas por ventanas al desplazarse:
+    // onBind no toca la base de datos. La Activity registra el adaptador como su Listener
+    private WindowedList<MangaDAO.LibraryEntry> mangaList;
+    // Resultados de MangaDAO.searchLibrary; mientras no es null sustituyen a la biblioteca
+    private List<MangaDAO.LibraryEntry> searchResults;
     private Context context;
-    private MangaDAO mangaDAO;
 
-    public ReadMangaAdapter(List<Manga> mangaList, Context context, MangaDAO mangaDAO) {
+    public ReadMangaAdapter(WindowedList<MangaDAO.LibraryEntry> mangaList, Context context) {
         this.mangaList = mangaList;
         this.context = context;
-        this.mangaDAO = mangaDAO;
+    }
+
+    // null vuelve a la biblioteca completa
+    public void setSearchResults(List<MangaDAO.LibraryEntry> searchResults) {
+        this.searchResults = searchResults;
+        notifyDataSetChanged();
     }
 
     @NonNull
@@ -42,13 +52,17 @@ public class ReadMangaAdapter extends RecyclerView.Adapter<ReadMangaAdapter.Read
 
     @Override
     public void onBindViewHolder(@NonNull ReadMangaViewHolder holder, int position) {
-        Manga manga = mangaList.get(position);
-        holder.bind(manga, context, mangaDAO);
+        MangaDAO.LibraryEntry entry = searchResults != null ? searchResults.get(position) : mangaList.get(position);
+        if (entry != null) {
+            holder.bind(entry, context);
+        } else {
+            holder.bindPlaceholder(context);
+        }
     }
 
     @Override
     public int getItemCount() {
-        return mangaList.size();
+        return searchResults != null ? searchResults.size() : mangaList.size();
     }
 
     static class ReadMangaViewHolder extends RecyclerView.ViewHolder {
@@ -64,28 +78,27 @@ public class ReadMangaAdapter extends RecyclerView.Adapter<ReadMangaAdapter.Read
             lastChapterInfo = itemView.findViewById(R.id.lastChapterInfo);
         }
 
-        public void bind(Manga manga, Context context, MangaDAO mangaDAO) {
+        public void bind(MangaDAO.LibraryEntry entry, Context context) {
+            Manga manga = entry.manga;
+            MangaDAO.ReadMangaInfo readInfo = entry.readInfo;
+            int chaptersCount = entry.chapterCount;
+
             mangaTitle.setText(manga.getTitle());
             mangaDescription.setText(manga.getDescription());
 
-            // ✅ Obtener información adicional de la base de datos
-            MangaDAO.ReadMangaInfo readInfo = mangaDAO.getMangaReadInfo(manga.getId());
-            int chaptersCount = mangaDAO.getChaptersByMangaId(manga.getId()).size();
-
-            if (readInfo != null) {
-                statusInfo.setText("Estado: " + getStatusText(readInfo.status));
-                lastChapterInfo.setText("Último capítulo: " + readInfo.lastChapter +
-                        " • " + chaptersCount + " capítulos guardados");
-            } else {
-                lastChapterInfo.setText(chaptersCount + " capítulos guardados offline");
+            statusInfo.setText("Estado: " + getStatusText(readInfo.status));
+            String chapterInfo = "Último capítulo: " + readInfo.lastChapter +
+                    " • " + chaptersCount + " capítulos guardados (" + entry.pageCount + " páginas)";
+            if (readInfo.newChapters > 0) {
+                chapterInfo += " • 🆕 " + readInfo.newChapters + " nuevos";
             }
+            lastChapterInfo.setText(chapterInfo);
 
             // Cargar imagen
             if (manga.getCoverUrl() != null && !manga.getCoverUrl().isEmpty()) {
                 Glide.with(context)
                         .load(manga.getCoverUrl())
-                        .placeholder(R.drawable.placeholder_manga)
-                        .error(R.drawable.placeholder_manga)
+                        .apply(ImageOptions.cover())
                         .into(mangaCover);
             } else {
                 mangaCover.setImageResource(R.drawable.placeholder_manga);
@@ -107,7 +120,19 @@ public class ReadMangaAdapter extends RecyclerView.Adapter<ReadMangaAdapter.Read
             });
         }
 
+        // Fila cuya ventana aún se está leyendo
+        public void bindPlaceholder(Context context) {
+            mangaTitle.setText("Cargando...");
+            mangaDescription.setText("");
+            statusInfo.setText("");
+            lastChapterInfo.setText("");
+            Glide.with(context).clear(mangaCover);
+            mangaCover.setImageResource(R.drawable.placeholder_manga);
+            itemView.setOnClickListener(null);
+        }
+
         private String getStatusText(String status) {
+            if (status == null) return "❓";
             switch (status) {
                 case "reading": return "📖 Leyendo";
                 case "completed": return "✅ Completado";
@@ -117,9 +142,13 @@ public class ReadMangaAdapter extends RecyclerView.Adapter<ReadMangaAdapter.Read
         }
     }
 
-    public void updateMangaList(List<Manga> newMangaList) {
-        this.mangaList.clear();
-        this.mangaList.addAll(newMangaList);
-        notifyDataSetChanged();
+    @Override
+    public void onReset(int size) {
+        if (searchResults == null) notifyDataSetChanged();
+    }
+
+    @Override
+    public void onRangeLoaded(int start, int count) {
+        if (searchResults == null) notifyItemRangeChanged(start, count);
     }
 }
\ No newline at end of file
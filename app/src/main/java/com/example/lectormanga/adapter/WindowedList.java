@@ -0,0 +1,203 @@
+package com.example.lectormanga.adapter;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lista de tamaño conocido que se carga por ventanas bajo demanda para un RecyclerView.
+ *
+ * get(position) devuelve la fila si su ventana está en memoria o null (el adaptador
+ * pinta un hueco) y pide la ventana en segundo plano. Cada ventana se lee por clave a
+ * partir de la última fila de la anterior (Source.load), así que cuesta lo mismo al
+ * principio que al final de la lista. Las ventanas lejanas a la posición visible se
+ * descartan; de ellas solo se guarda su última fila para poder volver por clave.
+ *
+ * Todos los métodos públicos se llaman desde el hilo principal.
+ */
+public class WindowedList<T> {
+
+    private static final String TAG = "WindowedList";
+
+    public interface Source<T> {
+        int count();
+
+        // Hasta 'limit' filas tras 'after' (null: desde el principio), saltándose 'skip'
+        List<T> load(T after, int skip, int limit);
+    }
+
+    public interface Listener {
+        // El tamaño cambió o todo se recargó: hay que volver a pintar la lista entera
+        void onReset(int size);
+
+        void onRangeLoaded(int start, int count);
+    }
+
+    private final Source<T> source;
+    private final int windowSize;
+    private final int keptWindows;
+    private final Executor background;
+    private final Executor main;
+    private ExecutorService ownedExecutor;
+    private Listener listener;
+
+    private final Map<Integer, List<T>> windows = new HashMap<>();
+    // Última fila de cada ventana completa leída, aunque la ventana ya se haya descartado
+    private final Map<Integer, T> anchors = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private int size;
+    private int generation;
+
+    // keptWindows: ventanas que se conservan a cada lado de la que se está viendo
+    public WindowedList(Source<T> source, int windowSize, int keptWindows) {
+        this(source, windowSize, keptWindows, Executors.newSingleThreadExecutor(),
+                new Handler(Looper.getMainLooper())::post);
+        ownedExecutor = (ExecutorService) background;
+    }
+
+    WindowedList(Source<T> source, int windowSize, int keptWindows, Executor background, Executor main) {
+        this.source = source;
+        this.windowSize = windowSize;
+        this.keptWindows = keptWindows;
+        this.background = background;
+        this.main = main;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Vuelve a contar y a leer la primera ventana (p. ej. tras guardar o borrar algo).
+    // Lo que hubiera en memoria se sigue mostrando hasta que llega lo nuevo
+    public void refresh() {
+        int requested = ++generation;
+        pending.clear();
+        // Las posiciones de las claves guardadas pueden haber cambiado
+        anchors.clear();
+        background.execute(() -> {
+            int count;
+            List<T> first;
+            try {
+                count = source.count();
+                first = source.load(null, 0, windowSize);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error recargando la lista: " + e.getMessage());
+                return;
+            }
+            main.execute(() -> {
+                if (requested != generation) return;
+                windows.clear();
+                anchors.clear();
+                size = count;
+                storeWindow(0, first);
+                if (listener != null) listener.onReset(size);
+            });
+        });
+    }
+
+    public T get(int position) {
+        int index = position / windowSize;
+        int offset = position % windowSize;
+
+        request(index);
+        // Cerca del borde se pide ya la ventana vecina para no mostrar huecos al desplazarse
+        if (offset >= windowSize - windowSize / 4) request(index + 1);
+        if (offset < windowSize / 4) request(index - 1);
+        trimAround(index);
+
+        List<T> window = windows.get(index);
+        return window != null && offset < window.size() ? window.get(offset) : null;
+    }
+
+    // Deja de entregar resultados y para el hilo propio (onDestroy de la Activity)
+    public void close() {
+        generation++;
+        listener = null;
+        if (ownedExecutor != null) ownedExecutor.shutdownNow();
+    }
+
+    private void request(int index) {
+        if (index < 0 || index * windowSize >= size) return;
+        if (windows.containsKey(index) || !pending.add(index)) return;
+
+        // Por clave desde la ventana conocida más cercana por detrás; si se ha saltado
+        // hasta aquí (desplazamiento rápido), las filas intermedias se saltan con OFFSET
+        T after = null;
+        int skip = index * windowSize;
+        for (int previous = index - 1; previous >= 0; previous--) {
+            T anchor = anchors.get(previous);
+            if (anchor != null) {
+                after = anchor;
+                skip = (index - 1 - previous) * windowSize;
+                break;
+            }
+        }
+
+        int requested = generation;
+        T loadAfter = after;
+        int loadSkip = skip;
+        background.execute(() -> {
+            List<T> rows;
+            try {
+                rows = source.load(loadAfter, loadSkip, windowSize);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error cargando la ventana " + index + ": " + e.getMessage());
+                main.execute(() -> {
+                    if (requested == generation) pending.remove(index);
+                });
+                return;
+            }
+            main.execute(() -> {
+                if (requested != generation) return;
+                pending.remove(index);
+                boolean shrunk = storeWindow(index, rows);
+                if (listener == null) return;
+                if (shrunk) {
+                    listener.onReset(size);
+                } else if (!rows.isEmpty()) {
+                    listener.onRangeLoaded(index * windowSize, rows.size());
+                }
+            });
+        });
+    }
+
+    // Devuelve true si la lista se ha acortado
+    private boolean storeWindow(int index, List<T> rows) {
+        windows.put(index, rows);
+        if (rows.size() == windowSize) {
+            anchors.put(index, rows.get(rows.size() - 1));
+        }
+        // Menos filas de las esperadas: se borraron entre el recuento y la lectura
+        int end = index * windowSize + rows.size();
+        if (rows.size() < windowSize && end < size) {
+            size = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void trimAround(int index) {
+        if (windows.size() <= 2 * keptWindows + 1) return;
+        List<Integer> far = new ArrayList<>();
+        for (int loaded : windows.keySet()) {
+            if (Math.abs(loaded - index) > keptWindows) far.add(loaded);
+        }
+        for (int loaded : far) {
+            windows.remove(loaded);
+        }
+    }
+}
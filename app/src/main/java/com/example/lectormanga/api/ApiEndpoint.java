@@ -0,0 +1,40 @@
+package com.example.lectormanga.api;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Clases de endpoint con las que se agrupan estadísticas y límites de red.
+ */
+public enum ApiEndpoint {
+    SEARCH,
+    POPULAR,
+    FEED,
+    AT_HOME,
+    IMAGE,
+    OTHER;
+
+    static final String API_HOST = "api.mangadex.org";
+
+    public static ApiEndpoint classify(HttpUrl url) {
+        if (!API_HOST.equals(url.host())) {
+            // Portadas (uploads.mangadex.org) y servidores MangaDex@Home
+            return IMAGE;
+        }
+
+        String path = url.encodedPath();
+        if (path.equals("/manga")) {
+            return url.queryParameter("title") != null ? SEARCH : POPULAR;
+        }
+        if ((path.startsWith("/manga/") && path.endsWith("/feed")) || path.equals("/chapter")) {
+            return FEED;
+        }
+        if (path.startsWith("/at-home/")) {
+            return AT_HOME;
+        }
+        return OTHER;
+    }
+
+    boolean isApi() {
+        return this != IMAGE;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.lectormanga.api;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+/**
+ * Handle de una llamada a MangaDexApi.
+ *
+ * cancel() aborta la Call de OkHttp (si nadie más la comparte), libera su conexión
+ * y garantiza que el callback ya no se invoque. Con bindTo(...) la cancelación
+ * ocurre sola cuando la Activity se destruye.
+ *
+ * Al entregarse el callback la petición se da por terminada: suelta la acción de
+ * cancelar y el observer del ciclo de vida, que si no retendrían petición y resultado
+ * hasta que se destruya la Activity (uno por cada tecla de búsqueda o página de scroll).
+ */
+public class ApiRequest {
+
+    private boolean canceled = false;
+    private boolean completed = false;
+    private Runnable cancelAction;
+    private Lifecycle lifecycle;
+    private LifecycleEventObserver observer;
+
+    public void cancel() {
+        Runnable action;
+        synchronized (this) {
+            if (canceled) return;
+            canceled = true;
+            action = cancelAction;
+            cancelAction = null;
+        }
+        if (action != null) {
+            action.run();
+        }
+        releaseObserver();
+    }
+
+    public synchronized boolean isCanceled() {
+        return canceled;
+    }
+
+    synchronized boolean isCompleted() {
+        return completed;
+    }
+
+    // Cancela automáticamente en ON_DESTROY del dueño (Activity)
+    public ApiRequest bindTo(LifecycleOwner owner) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            cancel();
+            return this;
+        }
+        LifecycleEventObserver observer = new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    cancel();
+                }
+            }
+        };
+        synchronized (this) {
+            // Ya entregada (p. ej. desde la caché de búsquedas): no hay nada que cancelar
+            if (canceled || completed) return this;
+            this.lifecycle = lifecycle;
+            this.observer = observer;
+        }
+        lifecycle.addObserver(observer);
+        return this;
+    }
+
+    // Registra cómo cancelar el paso actual (en el feed cambia con cada página).
+    // Si ya estaba cancelada, se ejecuta en el acto.
+    void setCancelAction(Runnable action) {
+        synchronized (this) {
+            if (!canceled) {
+                cancelAction = action;
+                return;
+            }
+        }
+        action.run();
+    }
+
+    // Fin de un paso ya entregado. Si el callback no registró otro (la siguiente página
+    // del feed), la petición ha terminado.
+    void finishStep(Runnable stepAction) {
+        synchronized (this) {
+            if (cancelAction != stepAction) return;
+        }
+        complete();
+    }
+
+    // El callback final ya se entregó: nada que cancelar ni que vigilar
+    void complete() {
+        synchronized (this) {
+            completed = true;
+            cancelAction = null;
+        }
+        releaseObserver();
+    }
+
+    private void releaseObserver() {
+        Lifecycle lifecycle;
+        LifecycleEventObserver observer;
+        synchronized (this) {
+            lifecycle = this.lifecycle;
+            observer = this.observer;
+            this.lifecycle = null;
+            this.observer = null;
+        }
+        if (observer == null) return;
+
+        // Lifecycle solo admite quitar observers desde el hilo principal
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            lifecycle.removeObserver(observer);
+        } else {
+            new Handler(Looper.getMainLooper()).post(() -> lifecycle.removeObserver(observer));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.lectormanga.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con cubetas fijas (en ms). Sin bloqueos: se puede
+ * registrar desde los hilos de OkHttp y leer desde la UI a la vez.
+ */
+public class LatencyHistogram {
+
+    // Límite superior de cada cubeta; la última recoge todo lo que pase de 10 s
+    static final long[] BUCKET_BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    void record(long millis) {
+        if (millis < 0) return;
+        counts.incrementAndGet(bucketFor(millis));
+        totalMs.addAndGet(millis);
+        long max;
+        do {
+            max = maxMs.get();
+        } while (millis > max && !maxMs.compareAndSet(max, millis));
+    }
+
+    static int bucketFor(long millis) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (millis <= BUCKET_BOUNDS_MS[i]) return i;
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, totalMs.get(), maxMs.get());
+    }
+
+    public static class Snapshot {
+        public final long[] counts;
+        public final long count;
+        public final long totalMs;
+        public final long maxMs;
+
+        Snapshot(long[] counts, long totalMs, long maxMs) {
+            long n = 0;
+            for (long c : counts) n += c;
+            this.counts = counts;
+            this.count = n;
+            this.totalMs = totalMs;
+            this.maxMs = maxMs;
+        }
+
+        public static long[] getBucketBoundsMs() {
+            return BUCKET_BOUNDS_MS.clone();
+        }
+
+        public long getMeanMs() {
+            return count == 0 ? 0 : totalMs / count;
+        }
+
+        // Límite superior de la cubeta donde cae el percentil (p entre 0 y 1)
+        public long getPercentileMs(double p) {
+            if (count == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(p * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : maxMs;
+                }
+            }
+            return maxMs;
+        }
+
+        @Override
+        public String toString() {
+            return "n=" + count +
+                    " mean=" + getMeanMs() + "ms" +
+                    " p50<=" + getPercentileMs(0.5) + "ms" +
+                    " p90<=" + getPercentileMs(0.9) + "ms" +
+                    " max=" + maxMs + "ms";
+        }
+    }
+}
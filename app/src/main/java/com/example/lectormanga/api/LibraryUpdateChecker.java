@@ -0,0 +1,308 @@
+package com.example.lectormanga.api;
+
+import com.example.lectormanga.model.Chapter;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Busca capítulos nuevos de toda la biblioteca con pocas peticiones.
+ *
+ * Los mangas se agrupan en lotes de BATCH_SIZE ids y cada lote es una sola consulta
+ * /chapter?manga[]=...&publishAtSince=... (paginada si trae muchos capítulos).
+ * Como mucho van MAX_CONCURRENT_BATCHES lotes a la vez; el limitador de MangaDexApi
+ * sigue aplicando por debajo. Una biblioteca de 300 títulos son 6 lotes.
+ *
+ * Cada manga tiene su propia fecha de última comprobación: el lote pide desde la más
+ * antigua y luego filtra por manga. Varias traducciones del mismo número cuentan una vez.
+ *
+ * MangaDex no pagina más allá de MAX_WINDOW resultados. Si un lote los supera, la consulta
+ * sigue con publishAtSince en la fecha del último capítulo visto (van por publishAt
+ * ascendente); así los más nuevos, que son los que importan, no se pierden.
+ */
+public class LibraryUpdateChecker {
+
+    static final int BATCH_SIZE = 50;
+    static final int PAGE_SIZE = 100;
+    static final int MAX_CONCURRENT_BATCHES = 2;
+    // MangaDex no permite offset + limit por encima de 10.000
+    static final int MAX_WINDOW = 10000;
+
+    // Formato que acepta publishAtSince (UTC, sin zona)
+    private static final String SINCE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+
+    public interface Callback {
+        void onProgress(int completedBatches, int totalBatches);
+        void onComplete(Result result);
+        void onFailure(Exception e);
+    }
+
+    // Pide una página de /chapter; lo implementa MangaDexApi con su coalescer
+    interface PageFetcher {
+        void fetch(String url, ApiRequest handle, RequestCoalescer.ResultCallback<MangaDexParser.ChapterFeedPage> callback);
+    }
+
+    public static class Result {
+        // Capítulos nuevos por manga; solo incluye los mangas que se pudieron comprobar
+        public final Map<String, Integer> newChapters;
+        public final String checkedAt;
+        public final int requestCount;
+        public final int failedBatches;
+
+        Result(Map<String, Integer> newChapters, String checkedAt, int requestCount, int failedBatches) {
+            this.newChapters = newChapters;
+            this.checkedAt = checkedAt;
+            this.requestCount = requestCount;
+            this.failedBatches = failedBatches;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "checked=" + newChapters.size() +
+                    ", requests=" + requestCount +
+                    ", failedBatches=" + failedBatches +
+                    '}';
+        }
+    }
+
+    private final String baseUrl;
+    private final PageFetcher fetcher;
+
+    LibraryUpdateChecker(String baseUrl, PageFetcher fetcher) {
+        this.baseUrl = baseUrl;
+        this.fetcher = fetcher;
+    }
+
+    public static String formatSince(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat(SINCE_PATTERN, Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    // sinceByManga: id del manga -> fecha (formatSince) desde la que contar capítulos nuevos
+    ApiRequest check(Map<String, String> sinceByManga, Callback callback) {
+        ApiRequest handle = new ApiRequest();
+        Run run = new Run(buildBatches(sinceByManga), formatSince(new Date()), callback, handle);
+        handle.setCancelAction(run::cancelAll);
+        run.start();
+        return handle;
+    }
+
+    // Ordena por fecha para que cada lote agrupe mangas comprobados a la vez
+    static List<Batch> buildBatches(Map<String, String> sinceByManga) {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(sinceByManga.entrySet());
+        Collections.sort(entries, (a, b) -> a.getValue().compareTo(b.getValue()));
+
+        List<Batch> batches = new ArrayList<>();
+        for (int start = 0; start < entries.size(); start += BATCH_SIZE) {
+            Batch batch = new Batch();
+            for (Map.Entry<String, String> entry : entries.subList(start, Math.min(start + BATCH_SIZE, entries.size()))) {
+                batch.sinceById.put(entry.getKey(), entry.getValue());
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    String buildUrl(Batch batch, int offset) {
+        HttpUrl.Builder url = HttpUrl.get(baseUrl).newBuilder().addPathSegment("chapter");
+        for (String mangaId : batch.sinceById.keySet()) {
+            url.addQueryParameter("manga[]", mangaId);
+        }
+        return url.addQueryParameter("publishAtSince", batch.windowSince())
+                .addQueryParameter("translatedLanguage[]", "en")
+                .addQueryParameter("contentRating[]", "safe")
+                .addQueryParameter("contentRating[]", "suggestive")
+                .addQueryParameter("order[publishAt]", "asc")
+                .addQueryParameter("limit", String.valueOf(PAGE_SIZE))
+                .addQueryParameter("offset", String.valueOf(offset))
+                .build()
+                .toString();
+    }
+
+    static class Batch {
+        final Map<String, String> sinceById = new LinkedHashMap<>();
+        final Map<String, Set<String>> newNumbers = new HashMap<>();
+        // Inicio de la ventana actual (null: la fecha más antigua del lote) y último publishAt visto
+        String windowStart;
+        String latestSeen;
+
+        String oldestSince() {
+            return sinceById.values().iterator().next();
+        }
+
+        String windowSince() {
+            return windowStart != null ? windowStart : oldestSince();
+        }
+
+        // Abre otra ventana desde el último capítulo visto; false si no avanzaría
+        // (más de MAX_WINDOW capítulos con la misma fecha)
+        boolean advanceWindow() {
+            if (latestSeen == null || latestSeen.compareTo(windowSince()) <= 0) return false;
+            windowStart = latestSeen;
+            return true;
+        }
+
+        // publishAt llega como "2024-01-15T10:20:30+00:00": se comparan los 19 primeros caracteres
+        void add(Chapter chapter) {
+            String since = sinceById.get(chapter.getMangaId());
+            String publishAt = chapter.getPublishedAt();
+            if (since == null || publishAt == null || publishAt.length() < since.length()) return;
+            String published = publishAt.substring(0, since.length());
+            if (latestSeen == null || published.compareTo(latestSeen) > 0) {
+                latestSeen = published;
+            }
+            if (published.compareTo(since) <= 0) return;
+
+            Set<String> numbers = newNumbers.get(chapter.getMangaId());
+            if (numbers == null) {
+                numbers = new HashSet<>();
+                newNumbers.put(chapter.getMangaId(), numbers);
+            }
+            numbers.add(chapter.getChapterNumber());
+        }
+    }
+
+    private class Run {
+        private final List<Batch> pending;
+        private final int totalBatches;
+        private final String checkedAt;
+        private final Callback callback;
+        private final ApiRequest handle;
+        private final Set<ApiRequest> active = new HashSet<>();
+        private final Map<String, Integer> newChapters = new HashMap<>();
+        private int completedBatches = 0;
+        private int failedBatches = 0;
+        private int requestCount = 0;
+        private Exception lastError;
+
+        Run(List<Batch> batches, String checkedAt, Callback callback, ApiRequest handle) {
+            this.pending = new ArrayList<>(batches);
+            this.totalBatches = batches.size();
+            this.checkedAt = checkedAt;
+            this.callback = callback;
+            this.handle = handle;
+        }
+
+        void start() {
+            if (totalBatches == 0) {
+                callback.onComplete(new Result(newChapters, checkedAt, 0, 0));
+                handle.complete();
+                return;
+            }
+            for (int i = 0; i < MAX_CONCURRENT_BATCHES; i++) {
+                startNextBatch();
+            }
+        }
+
+        private void startNextBatch() {
+            Batch batch;
+            synchronized (this) {
+                if (pending.isEmpty() || handle.isCanceled()) return;
+                batch = pending.remove(0);
+            }
+            fetchPage(batch, 0);
+        }
+
+        private void fetchPage(Batch batch, int offset) {
+            ApiRequest page = new ApiRequest();
+            synchronized (this) {
+                if (handle.isCanceled()) return;
+                active.add(page);
+                requestCount++;
+            }
+            fetcher.fetch(buildUrl(batch, offset), page, new RequestCoalescer.ResultCallback<MangaDexParser.ChapterFeedPage>() {
+                @Override
+                public void onSuccess(MangaDexParser.ChapterFeedPage result) {
+                    finishRequest(page);
+                    for (Chapter chapter : result.chapters) {
+                        batch.add(chapter);
+                    }
+                    int nextOffset = offset + result.rawCount;
+                    boolean hasMore = result.rawCount > 0 && nextOffset < result.total;
+                    if (!hasMore) {
+                        finishBatch(batch, null);
+                    } else if (nextOffset + PAGE_SIZE <= MAX_WINDOW) {
+                        fetchPage(batch, nextOffset);
+                    } else if (batch.advanceWindow()) {
+                        // Los repetidos en la fecha de corte no cuentan dos veces: newNumbers es un Set
+                        fetchPage(batch, 0);
+                    } else {
+                        // Sin avanzar no se puede ver el final: el lote no se marca como comprobado
+                        finishBatch(batch, new Exception("Más de " + MAX_WINDOW + " capítulos con la misma fecha"));
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    finishRequest(page);
+                    finishBatch(batch, e);
+                }
+            });
+        }
+
+        private synchronized void finishRequest(ApiRequest page) {
+            active.remove(page);
+        }
+
+        private void finishBatch(Batch batch, Exception error) {
+            int completed;
+            boolean done;
+            boolean allFailed;
+            synchronized (this) {
+                if (error != null) {
+                    // Los mangas de un lote fallido no se marcan: se reintentan en la próxima comprobación
+                    failedBatches++;
+                    lastError = error;
+                } else {
+                    for (String mangaId : batch.sinceById.keySet()) {
+                        Set<String> numbers = batch.newNumbers.get(mangaId);
+                        newChapters.put(mangaId, numbers != null ? numbers.size() : 0);
+                    }
+                }
+                completed = ++completedBatches;
+                done = completed == totalBatches;
+                allFailed = failedBatches == totalBatches;
+            }
+            if (handle.isCanceled()) return;
+
+            callback.onProgress(completed, totalBatches);
+            if (!done) {
+                startNextBatch();
+            } else if (allFailed) {
+                callback.onFailure(lastError);
+            } else {
+                callback.onComplete(new Result(newChapters, checkedAt, requestCount, failedBatches));
+            }
+            if (done) {
+                // Suelta cancelAll (retiene este Run) y el observer del ciclo de vida
+                handle.complete();
+            }
+        }
+
+        void cancelAll() {
+            List<ApiRequest> toCancel;
+            synchronized (this) {
+                pending.clear();
+                toCancel = new ArrayList<>(active);
+                active.clear();
+            }
+            for (ApiRequest request : toCancel) {
+                request.cancel();
+            }
+        }
+    }
+}
@@ -1,23 +1,23 @@
 package com.example.lectormanga.api;
 
+import android.content.Context;
 import android.util.Log;
+import android.util.LruCache;
 
 import com.example.lectormanga.model.Chapter;
 import com.example.lectormanga.model.Manga;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.IOException;
-import java.util.ArrayList;
+import java.io.File;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-import okhttp3.Call;
-import okhttp3.Callback;
+import okhttp3.Cache;
 import okhttp3.ConnectionPool;
 import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -27,15 +27,76 @@ public class MangaDexApi {
     private static final String TAG = "MangaDexApi";
     private static final String BASE_URL = "https://api.mangadex.org";
 
+    // Caché HTTP en disco
+    private static final String CACHE_DIR_NAME = "http_cache";
+    private static final long CACHE_MAX_SIZE = 20L * 1024 * 1024; // 20 MB
+    private static final int CACHE_MAX_AGE_SECONDS = 5 * 60;
+
+    // Paginación del feed y de /manga: MangaDex no devuelve más allá de offset + limit = 10000
+    private static final int FEED_PAGE_SIZE = 100;
+    private static final int FEED_MAX_WINDOW = 10000;
+    private static final int MANGA_LIST_MAX_WINDOW = 10000;
+
+    // Últimas búsquedas en memoria (borrar letras vuelve a una búsqueda anterior)
+    private static final int SEARCH_CACHE_SIZE = 20;
+    private static final long SEARCH_CACHE_TTL_MS = CACHE_MAX_AGE_SECONDS * 1000L;
+
+    // Descargas de imágenes en paralelo (Glide)
+    private static final int IMAGE_MAX_REQUESTS = 8;
+    private static final int IMAGE_MAX_REQUESTS_PER_HOST = 6;
+
+    // Límite de peticiones a la API (las imágenes no cuentan)
+    private static final double RATE_LIMIT_PER_SECOND = 4.5;
+    private static final int RATE_LIMIT_BURST = 5;
+
+    // Instancia única para todo el proceso: conexiones TLS y pool compartidos entre pantallas
+    private static volatile MangaDexApi instance;
+
     private OkHttpClient client;
+    private OkHttpClient imageClient;
+    private Cache cache;
+    private RequestCoalescer coalescer;
+    private RevalidationStore revalidation;
+    private NetworkMetrics metrics;
+    private RateLimitInterceptor rateLimiter;
+    private LibraryUpdateChecker updateChecker;
+    private final PageQualityPolicy pageQualityPolicy = new PageQualityPolicy();
+    private final LruCache<String, SearchCacheEntry> searchCache = new LruCache<>(SEARCH_CACHE_SIZE);
+
+    public static MangaDexApi getInstance(Context context) {
+        if (instance == null) {
+            synchronized (MangaDexApi.class) {
+                if (instance == null) {
+                    File cacheDir = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR_NAME);
+                    instance = new MangaDexApi(new Cache(cacheDir, CACHE_MAX_SIZE));
+                }
+            }
+        }
+        return instance;
+    }
+
+    private MangaDexApi(Cache cache) {
+        this.cache = cache;
 
-    public MangaDexApi() {
         Dispatcher dispatcher = new Dispatcher();
         dispatcher.setMaxRequests(10);
         dispatcher.setMaxRequestsPerHost(5);
 
         ConnectionPool connectionPool = new ConnectionPool(5, 5, TimeUnit.MINUTES);
 
+        // MangaDex permite ~5 peticiones/s por IP: mejor esperar que recibir un 429
+        rateLimiter = new RateLimitInterceptor(RATE_LIMIT_PER_SECOND, RATE_LIMIT_BURST);
+
+        // Tiempos por fase y bytes por tipo de endpoint; el interceptor va primero
+        // para que el total incluya las esperas del limitador
+        metrics = new NetworkMetrics();
+        // Las descargas de imágenes alimentan la estimación de ancho de banda del lector
+        metrics.setBodyListener((endpoint, bytes, millis) -> {
+            if (endpoint == ApiEndpoint.IMAGE) {
+                pageQualityPolicy.recordImageDownload(bytes, millis);
+            }
+        });
+
         client = new OkHttpClient.Builder()
                 .connectTimeout(90, TimeUnit.SECONDS)
                 .readTimeout(90, TimeUnit.SECONDS)
@@ -44,8 +105,26 @@ public class MangaDexApi {
                 .retryOnConnectionFailure(true)
                 .connectionPool(connectionPool)
                 .dispatcher(dispatcher)
+                .cache(cache)
+                .addInterceptor(metrics.interceptor())
+                .addInterceptor(rateLimiter)
+                .eventListenerFactory(metrics.eventListenerFactory())
+                .addNetworkInterceptor(rateLimiter.networkInterceptor())
+                .addNetworkInterceptor(cacheControlInterceptor())
+                .addNetworkInterceptor(metrics.bodyTimer())
                 .build();
 
+        // Peticiones idénticas en vuelo (doble tap, rotación) comparten una sola Call
+        // Lo que la caché HTTP sirve (fresco o tras un 304) reutiliza lo ya parseado
+        revalidation = new RevalidationStore();
+        coalescer = new RequestCoalescer(client, revalidation);
+
+        // Novedades de la biblioteca: lotes de ids por consulta /chapter en vez de un feed por manga
+        updateChecker = new LibraryUpdateChecker(BASE_URL, (url, handle, callback) ->
+                coalescer.enqueue(buildRequest(url),
+                        body -> MangaDexParser.readChapterFeed(body.charStream()),
+                        callback, handle));
+
         Log.d(TAG, "✅ MangaDexApi inicializada");
     }
 
@@ -55,42 +134,239 @@ public class MangaDexApi {
         void onFailure(Exception e);
     }
 
+    // Página de una lista paginada: offset pedido y total de resultados en el servidor
+    public interface MangaPageCallback {
+        void onSuccess(List<Manga> mangas, int offset, int total);
+        void onFailure(Exception e);
+    }
+
     public interface ChapterCallback {
         void onSuccess(List<Chapter> chapters);
         void onFailure(Exception e);
     }
 
+    // Feed paginado: cada página de capítulos se entrega en cuanto llega
+    public interface ChapterFeedCallback {
+        void onPage(List<Chapter> chapters, int loaded, int total);
+        void onComplete(int total);
+        void onFailure(Exception e);
+    }
+
     public interface PageCallback {
         void onSuccess(List<String> pageUrls);
         void onFailure(Exception e);
     }
 
+    // Servidor at-home con las dos calidades, para elegir por capítulo o por página
+    public interface AtHomeCallback {
+        void onSuccess(MangaDexParser.AtHomeChapter chapter);
+        void onFailure(Exception e);
+    }
+
+    private static class SearchCacheEntry {
+        final MangaDexParser.MangaListPage page;
+        final long timestamp;
+
+        SearchCacheEntry(MangaDexParser.MangaListPage page) {
+            this.page = page;
+            this.timestamp = System.currentTimeMillis();
+        }
+    }
+
+    // Estadísticas de la caché HTTP
+    public static class CacheStats {
+        public final int requestCount;
+        public final int hitCount;
+        public final int networkCount;
+
+        CacheStats(int requestCount, int hitCount, int networkCount) {
+            this.requestCount = requestCount;
+            this.hitCount = hitCount;
+            this.networkCount = networkCount;
+        }
+
+        public int getMissCount() {
+            return requestCount - hitCount;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStats{" +
+                    "requests=" + requestCount +
+                    ", hits=" + hitCount +
+                    ", misses=" + getMissCount() +
+                    ", network=" + networkCount +
+                    '}';
+        }
+    }
+
+    public CacheStats getCacheStats() {
+        if (cache == null) {
+            return new CacheStats(0, 0, 0);
+        }
+        return new CacheStats(cache.requestCount(), cache.hitCount(), cache.networkCount());
+    }
+
+    // Llamadas resueltas uniéndose a una petición idéntica que ya estaba en vuelo
+    public long getCoalescedRequestCount() {
+        return coalescer.getCoalescedCount();
+    }
+
+    // Histogramas de DNS/connect/TLS/TTFB/body/total y bytes por tipo de endpoint
+    public Map<ApiEndpoint, NetworkMetrics.EndpointSnapshot> getNetworkMetrics() {
+        return metrics.snapshot();
+    }
+
+    // Peticiones condicionales enviadas y cuántas acabaron en 304
+    public RevalidationStore.RevalidationStats getRevalidationStats() {
+        return revalidation.snapshot();
+    }
+
+    // Cliente para Glide: comparte pool de conexiones, interceptores y métricas con la API.
+    // Sin la caché HTTP (Glide tiene la suya; las páginas la vaciarían) y con su propio
+    // Dispatcher para que una ráfaga de páginas no deje en cola las llamadas a la API.
+    public synchronized OkHttpClient getImageClient() {
+        if (imageClient == null) {
+            Dispatcher imageDispatcher = new Dispatcher();
+            imageDispatcher.setMaxRequests(IMAGE_MAX_REQUESTS);
+            imageDispatcher.setMaxRequestsPerHost(IMAGE_MAX_REQUESTS_PER_HOST);
+            imageClient = client.newBuilder()
+                    .cache(null)
+                    .dispatcher(imageDispatcher)
+                    .build();
+        }
+        return imageClient;
+    }
+
+    // Calidad de páginas: modo elegido por el usuario y estimación de ancho de banda
+    public PageQualityPolicy getPageQualityPolicy() {
+        return pageQualityPolicy;
+    }
+
+    // Esperas, 429 y reintentos por tipo de endpoint
+    public Map<ApiEndpoint, RateLimitInterceptor.ThrottleStats> getThrottleStats() {
+        return rateLimiter.snapshot();
+    }
+
+    // MangaDex no envía Cache-Control en /manga ni en los feeds, así que se fuerza
+    // un max-age corto para poder servirlos desde disco. /at-home queda fuera: sus URLs caducan.
+    private static Interceptor cacheControlInterceptor() {
+        return chain -> {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+
+            if (!"GET".equals(request.method()) || !response.isSuccessful()) {
+                return response;
+            }
+
+            String path = request.url().encodedPath();
+            boolean cacheable = path.equals("/manga") ||
+                    (path.startsWith("/manga/") && path.endsWith("/feed"));
+            if (!cacheable || response.header("Cache-Control") != null) {
+                return response;
+            }
+
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", "public, max-age=" + CACHE_MAX_AGE_SECONDS)
+                    .build();
+        };
+    }
+
     // Métodos públicos
-    public void searchMangas(String query, int limit, MangaCallback callback) {
-        String url = BASE_URL + "/manga?title=" + query.replace(" ", "%20") +
-                "&limit=" + limit +
-                "&includes[]=cover_art" +
-                "&contentRating[]=safe" +
-                "&contentRating[]=suggestive" +
-                "&order[relevance]=desc";
+    public ApiRequest searchMangas(String query, int limit, MangaCallback callback) {
+        return searchMangas(query, limit, 0, firstPage(callback));
+    }
+
+    // Una página de resultados a partir de offset (scroll infinito)
+    public ApiRequest searchMangas(String query, int limit, int offset, MangaPageCallback callback) {
+        String normalized = normalizeQuery(query);
+        String cacheKey = normalized + "|" + limit + "|" + offset;
+
+        // Resultados recientes de la misma búsqueda: se devuelven sin ir a la red
+        SearchCacheEntry cached;
+        synchronized (searchCache) {
+            cached = searchCache.get(cacheKey);
+        }
+        if (cached != null && System.currentTimeMillis() - cached.timestamp < SEARCH_CACHE_TTL_MS) {
+            Log.d(TAG, "🔍 Búsqueda en caché: " + normalized);
+            callback.onSuccess(cached.page.mangas, offset, cached.page.total);
+            ApiRequest delivered = new ApiRequest();
+            delivered.complete();
+            return delivered;
+        }
 
-        Log.d(TAG, "🔍 Buscando: " + query);
-        fetchMangas(url, callback);
+        String url = HttpUrl.get(BASE_URL).newBuilder()
+                .addPathSegment("manga")
+                .addQueryParameter("title", normalized)
+                .addQueryParameter("limit", String.valueOf(limit))
+                .addQueryParameter("offset", String.valueOf(offset))
+                .addQueryParameter("includes[]", "cover_art")
+                .addQueryParameter("contentRating[]", "safe")
+                .addQueryParameter("contentRating[]", "suggestive")
+                .addQueryParameter("order[relevance]", "desc")
+                .build()
+                .toString();
+
+        Log.d(TAG, "🔍 Buscando: " + normalized + " (offset " + offset + ")");
+        return fetchMangas(url, offset, new MangaPageCallback() {
+            @Override
+            public void onSuccess(List<Manga> mangas, int pageOffset, int total) {
+                synchronized (searchCache) {
+                    searchCache.put(cacheKey, new SearchCacheEntry(new MangaDexParser.MangaListPage(mangas, total)));
+                }
+                callback.onSuccess(mangas, pageOffset, total);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }, new ApiRequest());
+    }
+
+    // "  One   PIECE " y "one piece" son la misma búsqueda
+    static String normalizeQuery(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    public ApiRequest getPopularMangas(int limit, MangaCallback callback) {
+        return getPopularMangas(limit, 0, firstPage(callback));
     }
 
-    public void getPopularMangas(int limit, MangaCallback callback) {
+    public ApiRequest getPopularMangas(int limit, int offset, MangaPageCallback callback) {
         String url = BASE_URL + "/manga?limit=" + limit +
+                "&offset=" + offset +
                 "&includes[]=cover_art" +
                 "&order[followedCount]=desc" +
                 "&contentRating[]=safe" +
                 "&contentRating[]=suggestive" +
                 "&hasAvailableChapters=true";
 
-        Log.d(TAG, "📚 Cargando populares");
-        fetchMangas(url, callback);
+        Log.d(TAG, "📚 Cargando populares (offset " + offset + ")");
+        return fetchMangas(url, offset, callback, new ApiRequest());
+    }
+
+    // ¿Se puede pedir otra página? MangaDex no deja pasar de offset + limit = 10.000
+    public static boolean hasMoreMangas(int loaded, int total, int limit) {
+        return loaded < total && loaded + limit <= MANGA_LIST_MAX_WINDOW;
     }
 
-    public void getChapters(String mangaId, int limit, ChapterCallback callback) {
+    private static MangaPageCallback firstPage(MangaCallback callback) {
+        return new MangaPageCallback() {
+            @Override
+            public void onSuccess(List<Manga> mangas, int offset, int total) {
+                callback.onSuccess(mangas);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        };
+    }
+
+    public ApiRequest getChapters(String mangaId, int limit, ChapterCallback callback) {
         String url = BASE_URL + "/manga/" + mangaId +
                 "/feed?limit=" + limit +
                 "&order[chapter]=asc" +
@@ -100,210 +376,143 @@ public class MangaDexApi {
                 "&contentRating[]=suggestive";
 
         Log.d(TAG, "📖 Cargando capítulos");
-        fetchChapters(url, callback);
+        return fetchChapters(url, callback, new ApiRequest());
     }
 
-    public void getChapterPages(String chapterId, PageCallback callback) {
-        String url = BASE_URL + "/at-home/server/" + chapterId;
-        Log.d(TAG, "📄 Cargando páginas");
-        fetchPages(url, callback);
+    public ApiRequest getChapterFeed(String mangaId, ChapterFeedCallback callback) {
+        Log.d(TAG, "📖 Cargando feed de capítulos");
+        ApiRequest handle = new ApiRequest();
+        fetchChapterFeedPage(mangaId, 0, 0, callback, handle);
+        return handle;
     }
 
-    // Métodos de fetch
-    private void fetchMangas(String url, MangaCallback callback) {
-        Request request = new Request.Builder()
-                .url(url)
-                .addHeader("User-Agent", "LectorManga/1.0")
-                .addHeader("Accept", "application/json")
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
+    // URLs en la calidad que decida la política para este capítulo
+    public ApiRequest getChapterPages(String chapterId, PageCallback callback) {
+        return getChapterImages(chapterId, new AtHomeCallback() {
             @Override
-            public void onFailure(Call call, IOException e) {
-                Log.e(TAG, "❌ Error: " + e.getMessage());
-                callback.onFailure(e);
+            public void onSuccess(MangaDexParser.AtHomeChapter chapter) {
+                callback.onSuccess(chapter.urls(pageQualityPolicy.chooseForChapter()));
             }
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (response.isSuccessful() && response.body() != null) {
-                    try {
-                        String responseData = response.body().string();
-                        List<Manga> mangas = parseMangaResponse(responseData);
-                        callback.onSuccess(mangas);
-                    } catch (JSONException e) {
-                        callback.onFailure(e);
-                    }
-                } else {
-                    callback.onFailure(new Exception("HTTP " + response.code()));
-                }
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
             }
         });
     }
 
-    private void fetchChapters(String url, ChapterCallback callback) {
-        Request request = new Request.Builder()
-                .url(url)
-                .addHeader("User-Agent", "LectorManga/1.0")
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                callback.onFailure(e);
-            }
+    public ApiRequest getChapterImages(String chapterId, AtHomeCallback callback) {
+        String url = BASE_URL + "/at-home/server/" + chapterId;
+        Log.d(TAG, "📄 Cargando páginas");
+        return fetchAtHome(url, callback, new ApiRequest());
+    }
 
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (response.isSuccessful() && response.body() != null) {
-                    try {
-                        String responseData = response.body().string();
-                        List<Chapter> chapters = parseChapterResponse(responseData);
-                        callback.onSuccess(chapters);
-                    } catch (JSONException e) {
-                        callback.onFailure(e);
-                    }
-                } else {
-                    callback.onFailure(new Exception("HTTP " + response.code()));
-                }
-            }
-        });
+    // sinceByManga: id -> fecha UTC (LibraryUpdateChecker.formatSince) de la última comprobación
+    public ApiRequest checkLibraryUpdates(Map<String, String> sinceByManga, LibraryUpdateChecker.Callback callback) {
+        Log.d(TAG, "🔔 Buscando capítulos nuevos de " + sinceByManga.size() + " mangas");
+        return updateChecker.check(sinceByManga, callback);
     }
 
-    private void fetchPages(String url, PageCallback callback) {
-        Request request = new Request.Builder()
+    // Métodos de fetch
+    private Request buildRequest(String url) {
+        return new Request.Builder()
                 .url(url)
                 .addHeader("User-Agent", "LectorManga/1.0")
+                .addHeader("Accept", "application/json")
                 .build();
+    }
 
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                callback.onFailure(e);
-            }
+    private ApiRequest fetchMangas(String url, int offset, MangaPageCallback callback, ApiRequest handle) {
+        coalescer.enqueue(buildRequest(url),
+                body -> MangaDexParser.readMangaListPage(body.charStream()),
+                new RequestCoalescer.ResultCallback<MangaDexParser.MangaListPage>() {
+                    @Override
+                    public void onSuccess(MangaDexParser.MangaListPage page) {
+                        callback.onSuccess(page.mangas, offset, page.total);
+                    }
 
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (response.isSuccessful() && response.body() != null) {
-                    try {
-                        String responseData = response.body().string();
-                        List<String> pageUrls = parsePageResponse(responseData);
-                        callback.onSuccess(pageUrls);
-                    } catch (JSONException e) {
+                    @Override
+                    public void onFailure(Exception e) {
+                        Log.e(TAG, "❌ Error: " + e.getMessage());
                         callback.onFailure(e);
                     }
-                } else {
-                    callback.onFailure(new Exception("HTTP " + response.code()));
-                }
-            }
-        });
+                }, handle);
+        return handle;
     }
 
-    // Métodos de parsing
-    private List<Manga> parseMangaResponse(String jsonData) throws JSONException {
-        List<Manga> mangas = new ArrayList<>();
-        JSONObject jsonObject = new JSONObject(jsonData);
-        JSONArray dataArray = jsonObject.getJSONArray("data");
-
-        for (int i = 0; i < dataArray.length(); i++) {
-            JSONObject mangaObj = dataArray.getJSONObject(i);
-            JSONObject attributes = mangaObj.getJSONObject("attributes");
-
-            Manga manga = new Manga();
-            manga.setId(mangaObj.getString("id"));
-
-            JSONObject title = attributes.getJSONObject("title");
-            String titleText = title.optString("en",
-                    title.optString("ja-ro",
-                            title.optString("ja", "Sin título")));
-            manga.setTitle(titleText);
-
-            JSONObject description = attributes.optJSONObject("description");
-            String descriptionText = "";
-            if (description != null) {
-                descriptionText = description.optString("en",
-                        description.optString("es", "Sin descripción"));
-            }
-            if (descriptionText.length() > 200) {
-                descriptionText = descriptionText.substring(0, 200) + "...";
-            }
-            manga.setDescription(descriptionText.isEmpty() ? "Sin descripción" : descriptionText);
-
-            JSONArray relationships = mangaObj.getJSONArray("relationships");
-            for (int j = 0; j < relationships.length(); j++) {
-                JSONObject rel = relationships.getJSONObject(j);
-                if ("cover_art".equals(rel.getString("type"))) {
-                    if (rel.has("attributes")) {
-                        String fileName = rel.getJSONObject("attributes").optString("fileName", "");
-                        if (!fileName.isEmpty()) {
-                            String coverUrl = "https://uploads.mangadex.org/covers/" +
-                                    manga.getId() + "/" + fileName + ".256.jpg";
-                            manga.setCoverUrl(coverUrl);
-                        }
+    private ApiRequest fetchChapters(String url, ChapterCallback callback, ApiRequest handle) {
+        coalescer.enqueue(buildRequest(url),
+                body -> MangaDexParser.readChapterFeed(body.charStream()),
+                new RequestCoalescer.ResultCallback<MangaDexParser.ChapterFeedPage>() {
+                    @Override
+                    public void onSuccess(MangaDexParser.ChapterFeedPage page) {
+                        callback.onSuccess(page.chapters);
                     }
-                    break;
-                }
-            }
 
-            mangas.add(manga);
-        }
-
-        return mangas;
+                    @Override
+                    public void onFailure(Exception e) {
+                        callback.onFailure(e);
+                    }
+                }, handle);
+        return handle;
     }
 
-    private List<Chapter> parseChapterResponse(String jsonData) throws JSONException {
-        List<Chapter> chapters = new ArrayList<>();
-        JSONObject jsonObject = new JSONObject(jsonData);
-        JSONArray dataArray = jsonObject.getJSONArray("data");
-
-        for (int i = 0; i < dataArray.length(); i++) {
-            JSONObject chapterObj = dataArray.getJSONObject(i);
-            JSONObject attributes = chapterObj.getJSONObject("attributes");
-
-            String chapterNum = attributes.optString("chapter", "");
-            if (chapterNum.isEmpty()) continue;
-
-            Chapter chapter = new Chapter();
-            chapter.setId(chapterObj.getString("id"));
-            chapter.setChapterNumber(chapterNum);
-            chapter.setTitle(attributes.optString("title", ""));
-            chapter.setPages(String.valueOf(attributes.optInt("pages", 0)));
-            chapter.setPublishedAt(attributes.optString("publishAt", ""));
-
-            chapters.add(chapter);
-        }
-
-        return chapters;
+    // Solo por número, como ChapterSortKey (el volumen solo desempata): así cada página
+    // llega en el orden local y ChapterAdapter la añade como un único rango
+    private String buildFeedUrl(String mangaId, int limit, int offset) {
+        return BASE_URL + "/manga/" + mangaId +
+                "/feed?limit=" + limit +
+                "&offset=" + offset +
+                "&order[chapter]=asc" +
+                "&translatedLanguage[]=en" +
+                "&includes[]=scanlation_group" +
+                "&contentRating[]=safe" +
+                "&contentRating[]=suggestive";
     }
 
-    private List<String> parsePageResponse(String jsonData) throws JSONException {
-        List<String> pageUrls = new ArrayList<>();
-        JSONObject jsonObject = new JSONObject(jsonData);
-        String baseUrl = jsonObject.getString("baseUrl");
-        JSONObject chapter = jsonObject.getJSONObject("chapter");
-        String hash = chapter.getString("hash");
-
-        JSONArray dataArray;
-        if (chapter.has("dataSaver")) {
-            dataArray = chapter.getJSONArray("dataSaver");
-        } else {
-            dataArray = chapter.getJSONArray("data");
-        }
-
-        for (int i = 0; i < dataArray.length(); i++) {
-            String filename = dataArray.getString(i);
-            String endpoint = chapter.has("dataSaver") ? "/data-saver/" : "/data/";
-            String fullUrl = baseUrl + endpoint + hash + "/" + filename;
-            pageUrls.add(fullUrl);
-        }
+    // Pide una página del feed y, al terminar de entregarla, encadena la siguiente.
+    // Las páginas van en serie para no disparar el límite de peticiones de MangaDex.
+    private void fetchChapterFeedPage(String mangaId, int offset, int loaded, ChapterFeedCallback callback, ApiRequest handle) {
+        coalescer.enqueue(buildRequest(buildFeedUrl(mangaId, FEED_PAGE_SIZE, offset)),
+                body -> MangaDexParser.readChapterFeed(body.charStream()),
+                new RequestCoalescer.ResultCallback<MangaDexParser.ChapterFeedPage>() {
+                    @Override
+                    public void onSuccess(MangaDexParser.ChapterFeedPage page) {
+                        int nextOffset = offset + page.rawCount;
+                        int delivered = loaded + page.chapters.size();
+                        callback.onPage(page.chapters, delivered, page.total);
+
+                        boolean hasMore = page.rawCount > 0 &&
+                                nextOffset < page.total &&
+                                nextOffset + FEED_PAGE_SIZE <= FEED_MAX_WINDOW;
+                        if (hasMore && !handle.isCanceled()) {
+                            fetchChapterFeedPage(mangaId, nextOffset, delivered, callback, handle);
+                        } else {
+                            callback.onComplete(delivered);
+                        }
+                    }
 
-        return pageUrls;
+                    @Override
+                    public void onFailure(Exception e) {
+                        callback.onFailure(e);
+                    }
+                }, handle);
     }
 
-    public void cleanup() {
-        if (client != null) {
-            client.dispatcher().executorService().shutdown();
-            client.connectionPool().evictAll();
-        }
+    private ApiRequest fetchAtHome(String url, AtHomeCallback callback, ApiRequest handle) {
+        coalescer.enqueue(buildRequest(url),
+                body -> MangaDexParser.readAtHome(body.charStream()),
+                new RequestCoalescer.ResultCallback<MangaDexParser.AtHomeChapter>() {
+                    @Override
+                    public void onSuccess(MangaDexParser.AtHomeChapter chapter) {
+                        callback.onSuccess(chapter);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        callback.onFailure(e);
+                    }
+                }, handle);
+        return handle;
     }
 }
\ No newline at end of file
@@ -0,0 +1,460 @@
+package com.example.lectormanga.api;
+
+import com.example.lectormanga.model.Chapter;
+import com.example.lectormanga.model.ChapterSortKey;
+import com.example.lectormanga.model.Manga;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parsers de las respuestas de MangaDex.
+ *
+ * Los métodos read* leen token a token desde el body de OkHttp y solo construyen
+ * los campos que usan Manga y Chapter. La versión original con org.json (árbol
+ * completo en memoria) vive en los tests como MangaDexDomParser, referencia para
+ * los tests y los benchmarks; no entra en el APK.
+ *
+ * Esta clase no depende de Android para poder ejecutarse en la JVM.
+ */
+public final class MangaDexParser {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 200;
+    static final String NO_TITLE = "Sin título";
+    static final String NO_DESCRIPTION = "Sin descripción";
+    static final String COVERS_URL = "https://uploads.mangadex.org/covers/";
+
+    private MangaDexParser() {}
+
+    // Una página del feed: los capítulos válidos, cuántas entradas traía y el total del servidor
+    public static class ChapterFeedPage {
+        public final List<Chapter> chapters;
+        public final int rawCount;
+        public final int total;
+
+        public ChapterFeedPage(List<Chapter> chapters, int rawCount, int total) {
+            this.chapters = chapters;
+            this.rawCount = rawCount;
+            this.total = total;
+        }
+    }
+
+    // Una página de /manga: los mangas y el total de resultados del servidor
+    public static class MangaListPage {
+        public final List<Manga> mangas;
+        public final int total;
+
+        public MangaListPage(List<Manga> mangas, int total) {
+            this.mangas = mangas;
+            this.total = total;
+        }
+    }
+
+    // Respuesta de /at-home: servidor, hash y ficheros en las dos calidades.
+    // Permite elegir la calidad por capítulo y subir una página concreta a "data" más tarde.
+    public static class AtHomeChapter {
+        public final String baseUrl;
+        public final String hash;
+        private final List<String> data;
+        private final List<String> dataSaver;
+
+        public AtHomeChapter(String baseUrl, String hash, List<String> data, List<String> dataSaver) {
+            this.baseUrl = baseUrl;
+            this.hash = hash;
+            this.data = data;
+            this.dataSaver = dataSaver;
+        }
+
+        public boolean hasData() {
+            return data != null && !data.isEmpty();
+        }
+
+        public boolean hasDataSaver() {
+            return dataSaver != null && !dataSaver.isEmpty();
+        }
+
+        // Si la calidad pedida no existe se usa la otra
+        public PageQuality resolve(PageQuality quality) {
+            if (quality == PageQuality.DATA) {
+                return hasData() || !hasDataSaver() ? PageQuality.DATA : PageQuality.DATA_SAVER;
+            }
+            return hasDataSaver() || !hasData() ? PageQuality.DATA_SAVER : PageQuality.DATA;
+        }
+
+        // URL de una página; null si esa calidad no tiene el índice
+        public String url(PageQuality quality, int index) {
+            PageQuality actual = resolve(quality);
+            List<String> files = filesFor(actual);
+            if (files == null || index < 0 || index >= files.size()) return null;
+            return baseUrl + actual.getPath() + hash + "/" + files.get(index);
+        }
+
+        public List<String> urls(PageQuality quality) {
+            PageQuality actual = resolve(quality);
+            List<String> files = filesFor(actual);
+            String prefix = baseUrl + actual.getPath() + hash + "/";
+            List<String> pageUrls = new ArrayList<>(files.size());
+            for (String filename : files) {
+                pageUrls.add(prefix + filename);
+            }
+            return pageUrls;
+        }
+
+        private List<String> filesFor(PageQuality quality) {
+            return quality == PageQuality.DATA ? data : dataSaver;
+        }
+    }
+
+    // ==================== STREAMING ====================
+
+    public static List<Manga> readMangas(Reader in) throws IOException {
+        return readMangaListPage(in).mangas;
+    }
+
+    public static MangaListPage readMangaListPage(Reader in) throws IOException {
+        List<Manga> mangas = new ArrayList<>();
+        int total = -1;
+        try (JsonReader reader = new JsonReader(in)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("data".equals(name)) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        mangas.add(readManga(reader));
+                    }
+                    reader.endArray();
+                } else if ("total".equals(name) && reader.peek() == JsonToken.NUMBER) {
+                    total = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("JSON de mangas inesperado: " + e.getMessage(), e);
+        }
+        return new MangaListPage(mangas, total < 0 ? mangas.size() : total);
+    }
+
+    public static ChapterFeedPage readChapterFeed(Reader in) throws IOException {
+        List<Chapter> chapters = new ArrayList<>();
+        int rawCount = 0;
+        int total = -1;
+        try (JsonReader reader = new JsonReader(in)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("data".equals(name)) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        rawCount++;
+                        Chapter chapter = readChapter(reader);
+                        if (chapter != null) {
+                            chapters.add(chapter);
+                        }
+                    }
+                    reader.endArray();
+                } else if ("total".equals(name) && reader.peek() == JsonToken.NUMBER) {
+                    total = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("JSON de capítulos inesperado: " + e.getMessage(), e);
+        }
+        Collections.sort(chapters, ChapterSortKey.ORDER);
+        return new ChapterFeedPage(chapters, rawCount, total < 0 ? rawCount : total);
+    }
+
+    // Páginas en la calidad por defecto (data-saver si existe)
+    public static List<String> readPages(Reader in) throws IOException {
+        AtHomeChapter chapter = readAtHome(in);
+        return chapter.urls(chapter.hasDataSaver() ? PageQuality.DATA_SAVER : PageQuality.DATA);
+    }
+
+    public static AtHomeChapter readAtHome(Reader in) throws IOException {
+        String baseUrl = null;
+        String hash = null;
+        List<String> data = null;
+        List<String> dataSaver = null;
+        try (JsonReader reader = new JsonReader(in)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("baseUrl".equals(name)) {
+                    baseUrl = nextStringOrNull(reader);
+                } else if ("chapter".equals(name)) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if ("hash".equals(field)) {
+                            hash = nextStringOrNull(reader);
+                        } else if ("data".equals(field)) {
+                            data = readStringArray(reader);
+                        } else if ("dataSaver".equals(field)) {
+                            dataSaver = readStringArray(reader);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("JSON de páginas inesperado: " + e.getMessage(), e);
+        }
+
+        if (baseUrl == null || hash == null || (data == null && dataSaver == null)) {
+            throw new IOException("Respuesta at-home incompleta");
+        }
+        return new AtHomeChapter(baseUrl, hash, data, dataSaver);
+    }
+
+    private static Manga readManga(JsonReader reader) throws IOException {
+        String id = null;
+        String title = null;
+        String description = null;
+        String coverFileName = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("id".equals(name)) {
+                id = nextStringOrNull(reader);
+            } else if ("attributes".equals(name)) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String field = reader.nextName();
+                    if ("title".equals(field)) {
+                        title = readLocalized(reader, "en", "ja-ro", "ja");
+                    } else if ("description".equals(field)) {
+                        description = readLocalized(reader, "en", "es");
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if ("relationships".equals(name)) {
+                coverFileName = readCoverFileName(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        Manga manga = new Manga();
+        manga.setId(id);
+        manga.setTitle(title != null ? title : NO_TITLE);
+        manga.setDescription(formatDescription(description));
+        if (coverFileName != null && !coverFileName.isEmpty()) {
+            manga.setCoverUrl(COVERS_URL + id + "/" + coverFileName + ".256.jpg");
+        }
+        return manga;
+    }
+
+    // Devuelve null si el capítulo no tiene número (oneshots), igual que el parser DOM
+    private static Chapter readChapter(JsonReader reader) throws IOException {
+        String id = null;
+        String chapterNum = null;
+        String volume = null;
+        String title = null;
+        int pages = 0;
+        String publishAt = null;
+        String mangaId = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("id".equals(name)) {
+                id = nextStringOrNull(reader);
+            } else if ("attributes".equals(name)) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String field = reader.nextName();
+                    switch (field) {
+                        case "chapter":
+                            chapterNum = nextStringOrNull(reader);
+                            break;
+                        case "volume":
+                            volume = nextStringOrNull(reader);
+                            break;
+                        case "title":
+                            title = nextStringOrNull(reader);
+                            break;
+                        case "pages":
+                            if (reader.peek() == JsonToken.NUMBER) {
+                                pages = reader.nextInt();
+                            } else {
+                                reader.skipValue();
+                            }
+                            break;
+                        case "publishAt":
+                            publishAt = nextStringOrNull(reader);
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else if ("relationships".equals(name)) {
+                mangaId = readRelationshipId(reader, "manga");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (chapterNum == null || chapterNum.isEmpty()) {
+            return null;
+        }
+
+        Chapter chapter = new Chapter();
+        chapter.setId(id);
+        chapter.setChapterNumber(chapterNum);
+        chapter.setVolume(volume);
+        chapter.setTitle(title != null ? title : "");
+        chapter.setPages(String.valueOf(pages));
+        chapter.setPublishedAt(publishAt != null ? publishAt : "");
+        chapter.setMangaId(mangaId);
+        return chapter;
+    }
+
+    // Lee un objeto {"idioma": "texto"} y devuelve el primer idioma presente según el orden dado
+    private static String readLocalized(JsonReader reader, String... languages) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String[] found = new String[languages.length];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String lang = reader.nextName();
+            int index = indexOf(languages, lang);
+            if (index >= 0) {
+                found[index] = nextStringOrNull(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        for (String value : found) {
+            if (value != null) return value;
+        }
+        return null;
+    }
+
+    private static String readCoverFileName(JsonReader reader) throws IOException {
+        String fileName = null;
+        boolean coverSeen = false;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String type = null;
+            String relFileName = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("type".equals(name)) {
+                    type = nextStringOrNull(reader);
+                } else if ("attributes".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if ("fileName".equals(reader.nextName())) {
+                            relFileName = nextStringOrNull(reader);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            // Solo cuenta la primera relación cover_art, como en el parser DOM
+            if (!coverSeen && "cover_art".equals(type)) {
+                coverSeen = true;
+                fileName = relFileName;
+            }
+        }
+        reader.endArray();
+        return fileName;
+    }
+
+    // id de la primera relación del tipo dado (p. ej. el manga de un capítulo)
+    private static String readRelationshipId(JsonReader reader, String wantedType) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        String result = null;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String type = null;
+            String relId = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("type".equals(name)) {
+                    type = nextStringOrNull(reader);
+                } else if ("id".equals(name)) {
+                    relId = nextStringOrNull(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (result == null && wantedType.equals(type)) {
+                result = relId;
+            }
+        }
+        reader.endArray();
+        return result;
+    }
+
+    private static List<String> readStringArray(JsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(reader.nextString());
+        }
+        reader.endArray();
+        return values;
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        return -1;
+    }
+
+    static String formatDescription(String description) {
+        String text = description != null ? description : "";
+        if (text.length() > MAX_DESCRIPTION_LENGTH) {
+            text = text.substring(0, MAX_DESCRIPTION_LENGTH) + "...";
+        }
+        return text.isEmpty() ? NO_DESCRIPTION : text;
+    }
+}
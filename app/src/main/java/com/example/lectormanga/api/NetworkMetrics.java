@@ -0,0 +1,281 @@
+package com.example.lectormanga.api;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Métricas de red por clase de endpoint (búsqueda, populares, feed, at-home, imágenes).
+ *
+ * El EventListener mide cada fase de la conexión (DNS, connect, TLS, TTFB) y los bytes
+ * recibidos. El interceptor de aplicación mide el tiempo total visto por quien llama,
+ * incluidas las esperas del limitador y los reintentos, que el listener no ve.
+ *
+ * BODY es solo el tiempo bloqueado leyendo de la red: el parser en streaming consume el
+ * body mientras llega, así que bodyTimer() cuenta lo que tarda cada read() y deja fuera
+ * el parseo entre lecturas.
+ */
+public class NetworkMetrics {
+
+    public enum Phase {
+        DNS,
+        CONNECT,
+        TLS,
+        TTFB,
+        BODY,
+        TOTAL
+    }
+
+    private static class EndpointMetrics {
+        final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong cacheHits = new AtomicLong();
+        final AtomicLong bytesReceived = new AtomicLong();
+
+        EndpointMetrics() {
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, new LatencyHistogram());
+            }
+        }
+    }
+
+    // Aviso por cada body descargado (bytes y ms); lo usa la política de calidad de páginas
+    public interface BodyListener {
+        void onBodyReceived(ApiEndpoint endpoint, long bytes, long millis);
+    }
+
+    private final Map<ApiEndpoint, EndpointMetrics> endpoints = new EnumMap<>(ApiEndpoint.class);
+    private volatile BodyListener bodyListener;
+
+    public NetworkMetrics() {
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            endpoints.put(endpoint, new EndpointMetrics());
+        }
+    }
+
+    public void setBodyListener(BodyListener listener) {
+        this.bodyListener = listener;
+    }
+
+    // ==================== INTERCEPTOR ====================
+
+    public Interceptor interceptor() {
+        return chain -> {
+            EndpointMetrics metrics = endpoints.get(ApiEndpoint.classify(chain.request().url()));
+            long start = System.nanoTime();
+            try {
+                return chain.proceed(chain.request());
+            } finally {
+                metrics.phases.get(Phase.TOTAL).record(elapsedMs(start));
+            }
+        };
+    }
+
+    // Interceptor de red: envuelve el body para medir el tiempo de lectura sin el parseo
+    public Interceptor bodyTimer() {
+        return chain -> {
+            Response response = chain.proceed(chain.request());
+            ResponseBody body = response.body();
+            if (body == null) return response;
+
+            ApiEndpoint endpoint = ApiEndpoint.classify(chain.request().url());
+            TimedSource timed = new TimedSource(body, endpoint, endpoints.get(endpoint));
+            return response.newBuilder()
+                    .body(ResponseBody.create(Okio.buffer(timed), body.contentType(), body.contentLength()))
+                    .build();
+        };
+    }
+
+    private class TimedSource extends ForwardingSource {
+        private final ApiEndpoint endpoint;
+        private final EndpointMetrics metrics;
+        private long readNanos;
+        private long bytes;
+        private boolean finished;
+
+        TimedSource(ResponseBody body, ApiEndpoint endpoint, EndpointMetrics metrics) {
+            super(body.source());
+            this.endpoint = endpoint;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long start = System.nanoTime();
+            long read;
+            try {
+                read = super.read(sink, byteCount);
+            } finally {
+                readNanos += System.nanoTime() - start;
+            }
+            if (read == -1) {
+                finish();
+            } else {
+                bytes += read;
+            }
+            return read;
+        }
+
+        // Solo cuentan los bodies leídos enteros: uno cancelado a medias falsearía el ancho de banda
+        private void finish() {
+            if (finished) return;
+            finished = true;
+            long bodyMs = TimeUnit.NANOSECONDS.toMillis(readNanos);
+            metrics.phases.get(Phase.BODY).record(bodyMs);
+            BodyListener listener = bodyListener;
+            if (listener != null) {
+                listener.onBodyReceived(endpoint, bytes, bodyMs);
+            }
+        }
+    }
+
+    // ==================== EVENT LISTENER ====================
+
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new CallListener(endpoints.get(ApiEndpoint.classify(call.request().url())));
+    }
+
+    private class CallListener extends EventListener {
+        private final EndpointMetrics metrics;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestStart;
+
+        CallListener(EndpointMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            metrics.calls.incrementAndGet();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            metrics.phases.get(Phase.DNS).record(elapsedMs(dnsStart));
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            metrics.phases.get(Phase.TLS).record(elapsedMs(secureConnectStart));
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            metrics.phases.get(Phase.CONNECT).record(elapsedMs(connectStart));
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            if (requestStart != 0) {
+                metrics.phases.get(Phase.TTFB).record(elapsedMs(requestStart));
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            metrics.bytesReceived.addAndGet(byteCount);
+        }
+
+        @Override
+        public void cacheHit(Call call, Response cachedResponse) {
+            metrics.cacheHits.incrementAndGet();
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            metrics.failures.incrementAndGet();
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    public static class EndpointSnapshot {
+        public final long calls;
+        public final long failures;
+        public final long cacheHits;
+        public final long bytesReceived;
+        public final Map<Phase, LatencyHistogram.Snapshot> phases;
+
+        EndpointSnapshot(EndpointMetrics metrics) {
+            this.calls = metrics.calls.get();
+            this.failures = metrics.failures.get();
+            this.cacheHits = metrics.cacheHits.get();
+            this.bytesReceived = metrics.bytesReceived.get();
+            this.phases = new EnumMap<>(Phase.class);
+            for (Map.Entry<Phase, LatencyHistogram> entry : metrics.phases.entrySet()) {
+                phases.put(entry.getKey(), entry.getValue().snapshot());
+            }
+        }
+
+        // Bytes por segundo durante la descarga del body (0 si no hay datos)
+        public long getBodyThroughputBytesPerSecond() {
+            long bodyMs = phases.get(Phase.BODY).totalMs;
+            return bodyMs == 0 ? 0 : bytesReceived * 1000 / bodyMs;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("calls=").append(calls)
+                    .append(" failures=").append(failures)
+                    .append(" cacheHits=").append(cacheHits)
+                    .append(" bytes=").append(bytesReceived);
+            for (Map.Entry<Phase, LatencyHistogram.Snapshot> entry : phases.entrySet()) {
+                sb.append("\n  ").append(entry.getKey()).append(": ").append(entry.getValue());
+            }
+            return sb.toString();
+        }
+    }
+
+    public Map<ApiEndpoint, EndpointSnapshot> snapshot() {
+        Map<ApiEndpoint, EndpointSnapshot> result = new EnumMap<>(ApiEndpoint.class);
+        for (Map.Entry<ApiEndpoint, EndpointMetrics> entry : endpoints.entrySet()) {
+            result.put(entry.getKey(), new EndpointSnapshot(entry.getValue()));
+        }
+        return result;
+    }
+}
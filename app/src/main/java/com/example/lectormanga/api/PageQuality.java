@@ -0,0 +1,20 @@
+package com.example.lectormanga.api;
+
+/**
+ * Calidad de las imágenes de un capítulo en MangaDex@Home.
+ * DATA es el original; DATA_SAVER es la versión comprimida (bastante más ligera).
+ */
+public enum PageQuality {
+    DATA("/data/"),
+    DATA_SAVER("/data-saver/");
+
+    private final String path;
+
+    PageQuality(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.lectormanga.api;
+
+import java.util.Locale;
+
+/**
+ * Decide la calidad de las páginas (data / data-saver) de cada capítulo.
+ *
+ * En modo AUTO usa el rendimiento medido en las últimas descargas de imágenes
+ * (media móvil exponencial de bytes/s). Hay dos umbrales para no oscilar entre
+ * capítulos: se sube a "data" con enlaces rápidos y solo se vuelve a "data-saver"
+ * cuando el rendimiento cae claramente. Sin medidas suficientes se queda en
+ * data-saver, que es lo que se hacía siempre: primeras páginas rápidas.
+ */
+public class PageQualityPolicy {
+
+    public enum Mode {
+        AUTO,
+        ALWAYS_DATA,
+        ALWAYS_DATA_SAVER
+    }
+
+    // Descargas más pequeñas miden sobre todo latencia, no ancho de banda
+    static final long MIN_SAMPLE_BYTES = 32 * 1024;
+    static final int MIN_SAMPLES = 3;
+    static final double SMOOTHING = 0.3;
+
+    // ~8 Mbit/s para subir a "data"; por debajo de ~3 Mbit/s se vuelve a "data-saver"
+    static final long UPGRADE_BYTES_PER_SECOND = 1_000_000;
+    static final long DOWNGRADE_BYTES_PER_SECOND = 400_000;
+
+    private Mode mode = Mode.AUTO;
+    private double estimatedBytesPerSecond = 0;
+    private int samples = 0;
+    private PageQuality autoQuality = PageQuality.DATA_SAVER;
+
+    // Se llama al terminar de recibir el body de una imagen
+    public synchronized void recordImageDownload(long bytes, long millis) {
+        if (bytes < MIN_SAMPLE_BYTES) return;
+        double sample = bytes * 1000.0 / Math.max(1, millis);
+        estimatedBytesPerSecond = samples == 0
+                ? sample
+                : SMOOTHING * sample + (1 - SMOOTHING) * estimatedBytesPerSecond;
+        samples++;
+    }
+
+    // -1 mientras no haya medidas suficientes
+    public synchronized long getEstimatedBytesPerSecond() {
+        return samples < MIN_SAMPLES ? -1 : (long) estimatedBytesPerSecond;
+    }
+
+    public synchronized Mode getMode() {
+        return mode;
+    }
+
+    public synchronized void setMode(Mode mode) {
+        this.mode = mode != null ? mode : Mode.AUTO;
+    }
+
+    // Calidad para el capítulo que se va a abrir
+    public synchronized PageQuality chooseForChapter() {
+        switch (mode) {
+            case ALWAYS_DATA:
+                return PageQuality.DATA;
+            case ALWAYS_DATA_SAVER:
+                return PageQuality.DATA_SAVER;
+            default:
+                break;
+        }
+
+        if (samples >= MIN_SAMPLES) {
+            if (autoQuality == PageQuality.DATA_SAVER && estimatedBytesPerSecond >= UPGRADE_BYTES_PER_SECOND) {
+                autoQuality = PageQuality.DATA;
+            } else if (autoQuality == PageQuality.DATA && estimatedBytesPerSecond < DOWNGRADE_BYTES_PER_SECOND) {
+                autoQuality = PageQuality.DATA_SAVER;
+            }
+        }
+        return autoQuality;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PageQualityPolicy{" +
+                "mode=" + mode +
+                ", samples=" + samples +
+                ", estimate=" + String.format(Locale.ROOT, "%.0f", estimatedBytesPerSecond) + "B/s" +
+                ", auto=" + autoQuality +
+                '}';
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.lectormanga.api;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Limitador de peticiones a api.mangadex.org (token bucket, ~5 req/s por IP).
+ *
+ * Las peticiones esperan su turno en vez de salir en ráfaga. Si aun así llega un 429
+ * (o un 503), se respeta Retry-After y se reintenta con backoff exponencial con jitter;
+ * mientras dura la pausa el resto de peticiones a la API también espera.
+ * Las imágenes no pasan por el límite: van a otros hosts.
+ *
+ * Los reintentos van como interceptor de aplicación y la espera de turno como interceptor
+ * de red (networkInterceptor()): lo que sirve la caché HTTP no gasta tokens ni espera.
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+    private static final String TAG = "RateLimitInterceptor";
+
+    private static final int MAX_RETRIES = 3;
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    // La espera se hace por tramos: una llamada cancelada suelta su hilo del Dispatcher enseguida
+    private static final long WAIT_SLICE_MS = 100;
+
+    private final double permitsPerSecond;
+    private final double burst;
+
+    // Estado del bucket, protegido por this
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    private final Map<ApiEndpoint, Counters> counters = new EnumMap<>(ApiEndpoint.class);
+
+    RateLimitInterceptor(double permitsPerSecond, int burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            counters.put(endpoint, new Counters());
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        ApiEndpoint endpoint = ApiEndpoint.classify(request.url());
+        if (!endpoint.isApi()) {
+            return chain.proceed(request);
+        }
+
+        Counters stats = counters.get(endpoint);
+        stats.requests.incrementAndGet();
+
+        for (int attempt = 0; ; attempt++) {
+            Response response = chain.proceed(request);
+            int code = response.code();
+            if (code != 429 && code != 503) {
+                return response;
+            }
+
+            if (code == 429) {
+                stats.tooManyRequests.incrementAndGet();
+            }
+            if (attempt >= MAX_RETRIES) {
+                stats.gaveUp.incrementAndGet();
+                Log.w(TAG, "⚠️ " + endpoint + " sigue limitado tras " + MAX_RETRIES + " reintentos");
+                return response;
+            }
+
+            long backoffMs = backoffMillis(attempt, response.headers());
+            response.close();
+            pauseFor(backoffMs);
+            stats.retries.incrementAndGet();
+            Log.d(TAG, "⏳ HTTP " + code + " en " + endpoint + ", reintento en " + backoffMs + " ms");
+        }
+    }
+
+    // Turno en el bucket justo antes de salir a la red (también las revalidaciones 304)
+    Interceptor networkInterceptor() {
+        return chain -> {
+            ApiEndpoint endpoint = ApiEndpoint.classify(chain.request().url());
+            if (endpoint.isApi()) {
+                long waitMs = reserve();
+                if (waitMs > 0) {
+                    Counters stats = counters.get(endpoint);
+                    stats.delayed.incrementAndGet();
+                    stats.delayMs.addAndGet(waitMs);
+                    sleep(chain.call(), waitMs);
+                }
+            }
+            return chain.proceed(chain.request());
+        };
+    }
+
+    // Reserva un token y devuelve cuánto hay que esperar para usarlo
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1e9;
+        tokens = Math.min(burst, tokens + elapsedSeconds * permitsPerSecond);
+        lastRefillNanos = now;
+
+        long waitNanos = Math.max(0, pausedUntilNanos - now);
+        tokens -= 1;
+        if (tokens < 0) {
+            waitNanos = Math.max(waitNanos, (long) (-tokens / permitsPerSecond * 1e9));
+        }
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    private synchronized void pauseFor(long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        pausedUntilNanos = Math.max(pausedUntilNanos, until);
+    }
+
+    static long backoffMillis(int attempt, Headers headers) {
+        long exponential = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << attempt);
+        long jitter = ThreadLocalRandom.current().nextLong(BASE_BACKOFF_MS / 2 + 1);
+        long serverDelay = parseRetryAfter(headers);
+        return Math.min(MAX_BACKOFF_MS, Math.max(exponential, serverDelay) + jitter);
+    }
+
+    // Retry-After puede venir en segundos o como fecha HTTP
+    static long parseRetryAfter(Headers headers) {
+        String value = headers.get("Retry-After");
+        if (value == null || value.isEmpty()) return 0;
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+            Date date = headers.getDate("Retry-After");
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : 0;
+        }
+    }
+
+    // Una pausa por 429 puede durar hasta MAX_BACKOFF_MS: se comprueba la cancelación en cada tramo
+    static void sleep(Call call, long millis) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (true) {
+            if (call.isCanceled()) {
+                throw new IOException("Canceled");
+            }
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(Math.min(remaining, WAIT_SLICE_MS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrumpido esperando turno");
+            }
+        }
+    }
+
+    // ==================== ESTADÍSTICAS ====================
+
+    private static class Counters {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong delayed = new AtomicLong();
+        final AtomicLong delayMs = new AtomicLong();
+        final AtomicLong tooManyRequests = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong gaveUp = new AtomicLong();
+    }
+
+    public static class ThrottleStats {
+        public final long requests;
+        public final long delayed;
+        public final long totalDelayMs;
+        public final long tooManyRequests;
+        public final long retries;
+        public final long gaveUp;
+
+        ThrottleStats(Counters c) {
+            this.requests = c.requests.get();
+            this.delayed = c.delayed.get();
+            this.totalDelayMs = c.delayMs.get();
+            this.tooManyRequests = c.tooManyRequests.get();
+            this.retries = c.retries.get();
+            this.gaveUp = c.gaveUp.get();
+        }
+
+        @Override
+        public String toString() {
+            return "ThrottleStats{" +
+                    "requests=" + requests +
+                    ", delayed=" + delayed +
+                    ", totalDelayMs=" + totalDelayMs +
+                    ", 429=" + tooManyRequests +
+                    ", retries=" + retries +
+                    ", gaveUp=" + gaveUp +
+                    '}';
+        }
+    }
+
+    Map<ApiEndpoint, ThrottleStats> snapshot() {
+        Map<ApiEndpoint, ThrottleStats> result = new EnumMap<>(ApiEndpoint.class);
+        for (Map.Entry<ApiEndpoint, Counters> entry : counters.entrySet()) {
+            if (entry.getKey().isApi()) {
+                result.put(entry.getKey(), new ThrottleStats(entry.getValue()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.lectormanga.api;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Agrupa peticiones idénticas en vuelo: mientras una URL se está descargando,
+ * las llamadas nuevas a la misma URL se suman a la existente en vez de abrir otra.
+ * La respuesta se parsea una sola vez y el resultado se entrega a todos.
+ *
+ * Los resultados se comparten entre callbacks, así que no deben modificarse.
+ * Cancelar un ApiRequest solo retira a ese interesado; la Call se aborta cuando
+ * ya no queda ninguno esperando.
+ */
+class RequestCoalescer {
+
+    interface BodyParser<T> {
+        T parse(ResponseBody body) throws IOException;
+    }
+
+    interface ResultCallback<T> {
+        void onSuccess(T result);
+        void onFailure(Exception e);
+    }
+
+    private final OkHttpClient client;
+    private final RevalidationStore revalidation;
+    private final Map<String, InFlight<?>> inFlight = new HashMap<>();
+    private long coalescedCount = 0;
+
+    RequestCoalescer(OkHttpClient client, RevalidationStore revalidation) {
+        this.client = client;
+        this.revalidation = revalidation;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> void enqueue(Request request, BodyParser<T> parser, ResultCallback<T> callback, ApiRequest handle) {
+        String key = request.method() + " " + request.url();
+        Waiter<T> waiter = new Waiter<>(callback, handle);
+        InFlight<T> flight;
+        boolean created = false;
+
+        synchronized (inFlight) {
+            flight = (InFlight<T>) inFlight.get(key);
+            if (flight != null) {
+                coalescedCount++;
+            } else {
+                flight = new InFlight<>(key, parser, request);
+                inFlight.put(key, flight);
+                created = true;
+            }
+            flight.waiters.add(waiter);
+        }
+
+        InFlight<T> target = flight;
+        waiter.cancelAction = () -> target.remove(waiter);
+        handle.setCancelAction(waiter.cancelAction);
+        if (created) {
+            target.call.enqueue(target);
+        }
+    }
+
+    // Cuántas llamadas se han resuelto sin una petición propia
+    long getCoalescedCount() {
+        synchronized (inFlight) {
+            return coalescedCount;
+        }
+    }
+
+    private static class Waiter<T> {
+        final ResultCallback<T> callback;
+        final ApiRequest handle;
+        Runnable cancelAction;
+
+        Waiter(ResultCallback<T> callback, ApiRequest handle) {
+            this.callback = callback;
+            this.handle = handle;
+        }
+    }
+
+    private class InFlight<T> implements Callback {
+        private final String key;
+        private final BodyParser<T> parser;
+        private final Call call;
+        private final List<Waiter<T>> waiters = new ArrayList<>();
+
+        InFlight(String key, BodyParser<T> parser, Request request) {
+            this.key = key;
+            this.parser = parser;
+            this.call = client.newCall(request);
+        }
+
+        // Si era el último interesado se aborta la Call: conexión y parseo se cortan ya
+        void remove(Waiter<T> waiter) {
+            Call toCancel = null;
+            synchronized (inFlight) {
+                waiters.remove(waiter);
+                if (waiters.isEmpty() && inFlight.get(key) == this) {
+                    inFlight.remove(key);
+                    toCancel = call;
+                }
+            }
+            if (toCancel != null) {
+                toCancel.cancel();
+            }
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            deliver(null, e);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onResponse(Call call, Response response) {
+            if (call.isCanceled()) {
+                response.close();
+                return;
+            }
+            T result = null;
+            Exception error = null;
+            try (Response r = response) {
+                Object unchanged = revalidation.cachedResult(call.request(), r);
+                if (unchanged != null) {
+                    // Misma entrada de caché que la última vez: el resultado ya parseado sigue valiendo
+                    result = (T) unchanged;
+                } else if (r.isSuccessful() && r.body() != null) {
+                    result = parser.parse(r.body());
+                    revalidation.store(call.request(), r, result);
+                } else {
+                    error = new Exception("HTTP " + r.code());
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            deliver(result, error);
+        }
+
+        // Se saca del mapa antes de avisar: una llamada posterior irá de nuevo a la red
+        private void deliver(T result, Exception error) {
+            List<Waiter<T>> pending;
+            synchronized (inFlight) {
+                if (inFlight.get(key) == this) {
+                    inFlight.remove(key);
+                }
+                pending = new ArrayList<>(waiters);
+                waiters.clear();
+            }
+            for (Waiter<T> waiter : pending) {
+                if (waiter.handle.isCanceled()) continue;
+                if (error != null) {
+                    waiter.callback.onFailure(error);
+                } else {
+                    waiter.callback.onSuccess(result);
+                }
+                // Suelta la acción de cancelar (retiene este InFlight y su resultado) y,
+                // si el callback no encadenó otro paso, el observer del ciclo de vida
+                waiter.handle.finishStep(waiter.cancelAction);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.lectormanga.api;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Guarda por URL el último resultado ya parseado junto con sus validadores (ETag / Last-Modified).
+ *
+ * La revalidación la hace la caché HTTP de OkHttp: una entrada fresca se sirve del disco sin
+ * salir a la red y una caducada sale condicional. Si la respuesta viene de esa entrada (acierto
+ * de caché o 304) y sus validadores coinciden con los guardados, se reutiliza el resultado en
+ * memoria sin leer ni parsear el body otra vez.
+ * Las peticiones no se tocan: con If-None-Match propio OkHttp se saltaría la caché en disco.
+ * Solo aplica a búsquedas, populares y feeds: las respuestas de at-home caducan.
+ */
+public class RevalidationStore {
+
+    private static final int MAX_ENTRIES = 64;
+
+    private static class Entry {
+        final String etag;
+        final String lastModified;
+        final Object result;
+        final long bodyBytes;
+
+        Entry(String etag, String lastModified, Object result, long bodyBytes) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.result = result;
+            this.bodyBytes = bodyBytes;
+        }
+
+        // El body en caché es el que se parseó si trae los mismos validadores
+        boolean matches(Response response) {
+            if (etag != null) return etag.equals(response.header("ETag"));
+            return lastModified.equals(response.header("Last-Modified"));
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final AtomicLong cacheAnswers = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    static boolean appliesTo(Request request) {
+        if (!"GET".equals(request.method())) return false;
+        ApiEndpoint endpoint = ApiEndpoint.classify(request.url());
+        return endpoint == ApiEndpoint.SEARCH ||
+                endpoint == ApiEndpoint.POPULAR ||
+                endpoint == ApiEndpoint.FEED;
+    }
+
+    // Acierto de caché sin red, o 304 sobre una entrada validada de la caché
+    static boolean servedFromCache(Response response) {
+        Response network = response.networkResponse();
+        return network == null || (network.code() == 304 && response.cacheResponse() != null);
+    }
+
+    // Resultado guardado si la respuesta sale de la caché con el mismo body que se parseó; null si no
+    Object cachedResult(Request request, Response response) {
+        if (!appliesTo(request) || !servedFromCache(response)) return null;
+        cacheAnswers.incrementAndGet();
+        Response network = response.networkResponse();
+        if (network != null) {
+            notModified.incrementAndGet();
+        }
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(request.url().toString());
+        }
+        if (entry == null || !entry.matches(response)) return null;
+
+        reused.incrementAndGet();
+        if (entry.bodyBytes > 0) {
+            bytesSaved.addAndGet(entry.bodyBytes);
+        }
+        return entry.result;
+    }
+
+    void store(Request request, Response response, Object result) {
+        if (!appliesTo(request)) return;
+
+        String etag = response.header("ETag");
+        String lastModified = response.header("Last-Modified");
+        String key = request.url().toString();
+        synchronized (entries) {
+            if (etag == null && lastModified == null) {
+                entries.remove(key);
+                return;
+            }
+            long bodyBytes = response.body() != null ? response.body().contentLength() : -1;
+            entries.put(key, new Entry(etag, lastModified, result, bodyBytes));
+        }
+    }
+
+    public static class RevalidationStats {
+        public final long cacheAnswers;
+        public final long notModified;
+        public final long reused;
+        public final long bytesSaved;
+
+        RevalidationStats(long cacheAnswers, long notModified, long reused, long bytesSaved) {
+            this.cacheAnswers = cacheAnswers;
+            this.notModified = notModified;
+            this.reused = reused;
+            this.bytesSaved = bytesSaved;
+        }
+
+        // Fracción de respuestas de la caché (frescas o 304) resueltas sin leer ni parsear el body
+        public double getHitRate() {
+            return cacheAnswers == 0 ? 0 : (double) reused / cacheAnswers;
+        }
+
+        @Override
+        public String toString() {
+            return "RevalidationStats{" +
+                    "cacheAnswers=" + cacheAnswers +
+                    ", notModified=" + notModified +
+                    ", reused=" + reused +
+                    ", hitRate=" + String.format(Locale.ROOT, "%.2f", getHitRate()) +
+                    ", bytesSaved=" + bytesSaved +
+                    '}';
+        }
+    }
+
+    RevalidationStats snapshot() {
+        return new RevalidationStats(cacheAnswers.get(), notModified.get(), reused.get(), bytesSaved.get());
+    }
+}
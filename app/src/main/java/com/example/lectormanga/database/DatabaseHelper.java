@@ -1,13 +1,26 @@
 package com.example.lectormanga.database;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Una sola instancia por proceso (getInstance): la conexión se abre una vez y
+ * no se cierra, así SQLite conserva su caché de páginas entre consultas.
+ * Con WAL las lecturas usan su propio pool de conexiones y no esperan a la
+ * escritura en curso (p. ej. el guardado offline en segundo plano).
+ */
 public class DatabaseHelper extends SQLiteOpenHelper {
 
+    private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "manga_reader.db";
-    private static final int DATABASE_VERSION = 3; // ✅ INCREMENTADO
+    // ✅ v10: sort_key ordena por número de capítulo. Al subirla, añadir el paso en SchemaMigrations
+    static final int DATABASE_VERSION = 10;
 
     // ========== TABLA DE MANGAS LEÍDOS ==========
     public static final String TABLE_READ_MANGAS = "read_mangas";
@@ -16,10 +29,13 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_TITLE = "title";
     public static final String COLUMN_DESCRIPTION = "description";
     public static final String COLUMN_COVER_URL = "cover_url";
-    public static final String COLUMN_COVER_IMAGE = "cover_image"; // ✅ NUEVO - Imagen en Base64
+    public static final String COLUMN_COVER_IMAGE = "cover_image"; // Base64 heredado (v≤4); desde v5 queda a NULL
+    public static final String COLUMN_COVER_PATH = "cover_path"; // ✅ Ruta en PageStore
     public static final String COLUMN_READ_DATE = "read_date";
     public static final String COLUMN_LAST_CHAPTER = "last_chapter";
     public static final String COLUMN_STATUS = "status";
+    public static final String COLUMN_NEW_CHAPTERS = "new_chapters"; // ✅ Capítulos nuevos sin ver
+    public static final String COLUMN_UPDATES_CHECKED_AT = "updates_checked_at"; // ✅ Última comprobación (UTC)
 
     // ========== TABLA DE CAPÍTULOS ==========
     public static final String TABLE_CHAPTERS = "chapters";
@@ -29,6 +45,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String CHAPTER_TITLE = "chapter_title";
     public static final String CHAPTER_PAGES_COUNT = "pages_count";
     public static final String CHAPTER_PUBLISHED_AT = "published_at";
+    public static final String CHAPTER_VOLUME = "volume";
+    public static final String CHAPTER_SORT_KEY = "sort_key"; // ✅ ChapterSortKey (capítulo, subcapítulo, volumen)
 
     // ========== TABLA DE PÁGINAS/IMÁGENES ==========
     public static final String TABLE_PAGES = "pages";
@@ -36,7 +54,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String PAGE_CHAPTER_ID = "chapter_id"; // FK a chapters
     public static final String PAGE_NUMBER = "page_number";
     public static final String PAGE_IMAGE_URL = "image_url";
-    public static final String PAGE_IMAGE_DATA = "image_data"; // ✅ Imagen en Base64
+    public static final String PAGE_IMAGE_DATA = "image_data"; // Base64 heredado (v≤4); desde v5 queda a NULL
+    public static final String PAGE_FILE_PATH = "file_path"; // ✅ Ruta en PageStore
+    public static final String PAGE_CONTENT_HASH = "content_hash"; // SHA-256 del fichero
+    public static final String PAGE_BYTE_SIZE = "byte_size";
+    public static final String PAGE_MIME_TYPE = "mime_type";
 
     // ========== SCRIPTS DE CREACIÓN ==========
     private static final String CREATE_TABLE_READ_MANGAS =
@@ -46,10 +68,13 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     COLUMN_TITLE + " TEXT, " +
                     COLUMN_DESCRIPTION + " TEXT, " +
                     COLUMN_COVER_URL + " TEXT, " +
-                    COLUMN_COVER_IMAGE + " TEXT, " + // ✅ Base64
+                    COLUMN_COVER_IMAGE + " TEXT, " +
+                    COLUMN_COVER_PATH + " TEXT, " +
                     COLUMN_READ_DATE + " TEXT, " +
                     COLUMN_LAST_CHAPTER + " TEXT, " +
-                    COLUMN_STATUS + " TEXT" +
+                    COLUMN_STATUS + " TEXT, " +
+                    COLUMN_NEW_CHAPTERS + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_UPDATES_CHECKED_AT + " TEXT" +
                     ")";
 
     private static final String CREATE_TABLE_CHAPTERS =
@@ -60,6 +85,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     CHAPTER_TITLE + " TEXT, " +
                     CHAPTER_PAGES_COUNT + " INTEGER, " +
                     CHAPTER_PUBLISHED_AT + " TEXT, " +
+                    CHAPTER_VOLUME + " TEXT, " +
+                    CHAPTER_SORT_KEY + " INTEGER, " +
                     "FOREIGN KEY(" + CHAPTER_MANGA_ID + ") REFERENCES " +
                     TABLE_READ_MANGAS + "(" + COLUMN_MANGA_ID + ") ON DELETE CASCADE" +
                     ")";
@@ -70,13 +97,118 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     PAGE_CHAPTER_ID + " TEXT, " +
                     PAGE_NUMBER + " INTEGER, " +
                     PAGE_IMAGE_URL + " TEXT, " +
-                    PAGE_IMAGE_DATA + " TEXT, " + // ✅ Base64
+                    PAGE_IMAGE_DATA + " TEXT, " +
+                    PAGE_FILE_PATH + " TEXT, " +
+                    PAGE_CONTENT_HASH + " TEXT, " +
+                    PAGE_BYTE_SIZE + " INTEGER, " +
+                    PAGE_MIME_TYPE + " TEXT, " +
                     "FOREIGN KEY(" + PAGE_CHAPTER_ID + ") REFERENCES " +
                     TABLE_CHAPTERS + "(" + CHAPTER_ID + ") ON DELETE CASCADE" +
                     ")";
 
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    // ========== ÍNDICES ==========
+    // Las columnas FK se consultan (y se recorren en los ON DELETE CASCADE) en cada
+    // pantalla offline; sin índice eran búsquedas por toda la tabla
+    public static final String INDEX_CHAPTERS_MANGA_SORT = "idx_chapters_manga_sort";
+    public static final String INDEX_PAGES_CHAPTER_PAGE = "idx_pages_chapter_page";
+    public static final String INDEX_READ_MANGAS_READ_DATE = "idx_read_mangas_read_date";
+
+    // manga_id + sort_key: filtra y devuelve ya ordenado, sin ordenar en memoria.
+    // chapter_id desempata los sort_key iguales para que la paginación por clave sea exacta
+    private static final String CREATE_INDEX_CHAPTERS_MANGA_SORT =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_CHAPTERS_MANGA_SORT + " ON " +
+                    TABLE_CHAPTERS + "(" + CHAPTER_MANGA_ID + ", " + CHAPTER_SORT_KEY + ", " + CHAPTER_ID + ")";
+
+    // Única: una fila por página y capítulo. Sirve también para el WHERE chapter_id y el
+    // ORDER BY page_number sin ordenar en memoria
+    private static final String CREATE_INDEX_PAGES_CHAPTER_PAGE =
+            "CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_PAGES_CHAPTER_PAGE + " ON " +
+                    TABLE_PAGES + "(" + PAGE_CHAPTER_ID + ", " + PAGE_NUMBER + ")";
+
+    // Biblioteca por fecha de lectura; el índice lleva implícito el id (rowid), que desempata
+    private static final String CREATE_INDEX_READ_MANGAS_READ_DATE =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_READ_MANGAS_READ_DATE + " ON " +
+                    TABLE_READ_MANGAS + "(" + COLUMN_READ_DATE + ")";
+
+    // ========== BÚSQUEDA (FTS4) ==========
+    // Copia indexada de título/descripción de read_mangas (docid = id) y del título de
+    // chapters (docid = rowid). Los triggers la mantienen al día con cada escritura.
+    // chapters no tiene INTEGER PRIMARY KEY: un VACUUM podría renumerar su rowid, así que
+    // si algún día se hace hay que reconstruir chapter_fts
+    public static final String TABLE_MANGA_FTS = "manga_fts";
+    public static final String TABLE_CHAPTER_FTS = "chapter_fts";
+
+    // unicode61 ignora mayúsculas y tildes también fuera de ASCII ("dragon" encuentra
+    // "Dragón"); si esta compilación de SQLite no lo trae se usa el tokenizador simple
+    static final String FTS_TOKENIZER_UNICODE = "tokenize=unicode61 \"remove_diacritics=1\"";
+    static final String FTS_TOKENIZER_SIMPLE = "tokenize=simple";
+    // Índices de prefijos de 2 y 3 letras: las búsquedas "dr*" no recorren todo el vocabulario
+    private static final String FTS_PREFIX = "prefix=\"2,3\"";
+
+    private static final String[] CREATE_SEARCH_TRIGGERS = {
+            // INSERT OR REPLACE borra la fila anterior sin disparar los triggers de DELETE
+            "CREATE TRIGGER IF NOT EXISTS manga_fts_before_insert BEFORE INSERT ON " + TABLE_READ_MANGAS + " BEGIN " +
+                    "DELETE FROM " + TABLE_MANGA_FTS + " WHERE docid = (SELECT " + COLUMN_ID + " FROM " +
+                    TABLE_READ_MANGAS + " WHERE " + COLUMN_MANGA_ID + " = new." + COLUMN_MANGA_ID + "); END",
+            "CREATE TRIGGER IF NOT EXISTS manga_fts_after_insert AFTER INSERT ON " + TABLE_READ_MANGAS + " BEGIN " +
+                    "INSERT INTO " + TABLE_MANGA_FTS + "(docid, " + COLUMN_TITLE + ", " + COLUMN_DESCRIPTION + ") " +
+                    "VALUES (new." + COLUMN_ID + ", new." + COLUMN_TITLE + ", new." + COLUMN_DESCRIPTION + "); END",
+            "CREATE TRIGGER IF NOT EXISTS manga_fts_after_update AFTER UPDATE OF " + COLUMN_TITLE + ", " +
+                    COLUMN_DESCRIPTION + " ON " + TABLE_READ_MANGAS + " BEGIN " +
+                    "UPDATE " + TABLE_MANGA_FTS + " SET " + COLUMN_TITLE + " = new." + COLUMN_TITLE + ", " +
+                    COLUMN_DESCRIPTION + " = new." + COLUMN_DESCRIPTION + " WHERE docid = old." + COLUMN_ID + "; END",
+            "CREATE TRIGGER IF NOT EXISTS manga_fts_after_delete AFTER DELETE ON " + TABLE_READ_MANGAS + " BEGIN " +
+                    "DELETE FROM " + TABLE_MANGA_FTS + " WHERE docid = old." + COLUMN_ID + "; END",
+            "CREATE TRIGGER IF NOT EXISTS chapter_fts_before_insert BEFORE INSERT ON " + TABLE_CHAPTERS + " BEGIN " +
+                    "DELETE FROM " + TABLE_CHAPTER_FTS + " WHERE docid = (SELECT rowid FROM " + TABLE_CHAPTERS +
+                    " WHERE " + CHAPTER_ID + " = new." + CHAPTER_ID + "); END",
+            // Los capítulos sin título (la mayoría) no ocupan sitio en el índice
+            "CREATE TRIGGER IF NOT EXISTS chapter_fts_after_insert AFTER INSERT ON " + TABLE_CHAPTERS + " BEGIN " +
+                    "INSERT INTO " + TABLE_CHAPTER_FTS + "(docid, " + CHAPTER_TITLE + ") SELECT new.rowid, new." +
+                    CHAPTER_TITLE + " WHERE new." + CHAPTER_TITLE + " <> ''; END",
+            "CREATE TRIGGER IF NOT EXISTS chapter_fts_after_update AFTER UPDATE OF " + CHAPTER_TITLE + " ON " +
+                    TABLE_CHAPTERS + " BEGIN " +
+                    "DELETE FROM " + TABLE_CHAPTER_FTS + " WHERE docid = old.rowid; " +
+                    "INSERT INTO " + TABLE_CHAPTER_FTS + "(docid, " + CHAPTER_TITLE + ") SELECT new.rowid, new." +
+                    CHAPTER_TITLE + " WHERE new." + CHAPTER_TITLE + " <> ''; END",
+            // También con los borrados en cascada al quitar un manga
+            "CREATE TRIGGER IF NOT EXISTS chapter_fts_after_delete AFTER DELETE ON " + TABLE_CHAPTERS + " BEGIN " +
+                    "DELETE FROM " + TABLE_CHAPTER_FTS + " WHERE docid = old.rowid; END"
+    };
+
+    private static DatabaseHelper instance;
+
+    private final Context context;
+
+    // Cada DAO es de una pantalla, pero la caché de estadísticas es de la base de datos:
+    // vive aquí y la invalida cualquier escritura que cambie lo que cuenta (MangaDAO)
+    private final AtomicLong writeGeneration = new AtomicLong();
+    volatile MangaDAO.LibraryStats libraryStats;
+
+    // Imágenes Base64 de versiones ≤4 pasándose a PageStore (null si no hacía falta)
+    private volatile Thread legacyImageJob;
+
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseHelper(context.getApplicationContext(), DATABASE_NAME);
+        }
+        return instance;
+    }
+
+    // Paquete: los benchmarks abren su propia base de datos con otro nombre
+    DatabaseHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
+        this.context = context.getApplicationContext();
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    long getWriteGeneration() {
+        return writeGeneration.get();
+    }
+
+    // Llamar tras confirmar la escritura: una lectura que empezó antes queda obsoleta
+    void notifyDataChanged() {
+        writeGeneration.incrementAndGet();
     }
 
     @Override
@@ -84,14 +216,81 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.execSQL(CREATE_TABLE_READ_MANGAS);
         db.execSQL(CREATE_TABLE_CHAPTERS);
         db.execSQL(CREATE_TABLE_PAGES);
+        createIndexes(db);
+        createSearchIndex(db);
+    }
+
+    private static void createIndexes(SQLiteDatabase db) {
+        db.execSQL(CREATE_INDEX_CHAPTERS_MANGA_SORT);
+        db.execSQL(CREATE_INDEX_PAGES_CHAPTER_PAGE);
+        db.execSQL(CREATE_INDEX_READ_MANGAS_READ_DATE);
+    }
+
+    private static void createSearchIndex(SQLiteDatabase db) {
+        String tokenizer = ftsTokenizer(db);
+        db.execSQL("CREATE VIRTUAL TABLE " + TABLE_MANGA_FTS + " USING fts4(" +
+                COLUMN_TITLE + ", " + COLUMN_DESCRIPTION + ", " + tokenizer + ", " + FTS_PREFIX + ")");
+        db.execSQL("CREATE VIRTUAL TABLE " + TABLE_CHAPTER_FTS + " USING fts4(" +
+                CHAPTER_TITLE + ", " + tokenizer + ", " + FTS_PREFIX + ")");
+        for (String trigger : CREATE_SEARCH_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    // unicode61 depende de cómo se compiló SQLite en el dispositivo: se prueba con una tabla temporal
+    static String ftsTokenizer(SQLiteDatabase db) {
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE temp.fts_tokenizer_probe USING fts4(x, " + FTS_TOKENIZER_UNICODE + ")");
+            db.execSQL("DROP TABLE temp.fts_tokenizer_probe");
+            return FTS_TOKENIZER_UNICODE;
+        } catch (SQLiteException e) {
+            return FTS_TOKENIZER_SIMPLE;
+        }
     }
 
+    // Tokenizador con el que se creó el índice, que puede no ser el que probaría ahora
+    // ftsTokenizer (p. ej. una base de datos restaurada en otro dispositivo)
+    static boolean hasUnicodeSearch(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT sql FROM sqlite_master WHERE name = ?", new String[]{TABLE_MANGA_FTS});
+        try {
+            return cursor.moveToFirst() && cursor.getString(0) != null && cursor.getString(0).contains("unicode61");
+        } finally {
+            cursor.close();
+        }
+    }
+
+    // Migración en sitio, paso a paso (ver SchemaMigrations). SQLiteOpenHelper ya
+    // envuelve onUpgrade en una transacción: si un paso falla no se pierde nada
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_PAGES);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CHAPTERS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_READ_MANGAS);
-        onCreate(db);
+        SchemaMigrations.migrate(db, oldVersion, newVersion, SchemaMigrations.all());
+    }
+
+    // El Base64 heredado se mueve a ficheros en segundo plano, nunca en el hilo que abre
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        if (!db.isReadOnly() && legacyImageJob == null && LegacyImageMigration.isPending(db)) {
+            Thread job = new Thread(() -> {
+                try {
+                    new LegacyImageMigration(getWritableDatabase(), new PageStore(context)).run();
+                    // Las rutas de portada cambian: las estadísticas en caché ya no valen
+                    notifyDataChanged();
+                } catch (RuntimeException e) {
+                    // La marca sigue en su sitio: se reintenta en el próximo arranque
+                    Log.e(TAG, "❌ Error moviendo imágenes heredadas: " + e.getMessage());
+                }
+            }, "LegacyImageMigration");
+            job.setPriority(Thread.MIN_PRIORITY);
+            legacyImageJob = job;
+            job.start();
+        }
+    }
+
+    // Para los tests: espera a que termine la migración de imágenes en curso
+    void awaitLegacyImages() throws InterruptedException {
+        Thread job = legacyImageJob;
+        if (job != null) job.join();
     }
 
     @Override
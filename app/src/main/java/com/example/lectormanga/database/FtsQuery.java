@@ -0,0 +1,56 @@
+package com.example.lectormanga.database;
+
+import java.util.Locale;
+
+/**
+ * Convierte lo que escribe el usuario en una consulta MATCH de FTS4 sobre una columna:
+ * cada palabra por prefijo ("drag sl" -> "title:drag* title:sl*", todas obligatorias).
+ * Sin columna, cada palabra puede estar en cualquiera de la tabla ("drag* sl*").
+ * Solo pasan letras y dígitos, así que comillas, guiones o asteriscos del texto no
+ * llegan a la sintaxis de FTS; en minúsculas para que "OR" no sea un operador.
+ *
+ * Las minúsculas siguen al tokenizador del índice: unicode61 pliega todo, pero "simple"
+ * solo pasa a minúsculas A-Z y guarda el resto tal cual ("Pokémon" -> "pokémon",
+ * "ÉCOLE" -> "École"); la consulta se normaliza igual o no casaría.
+ */
+final class FtsQuery {
+
+    // Cada término por prefijo recorre su rango del índice: se acota cuántos se usan
+    static final int MAX_TERMS = 8;
+
+    private FtsQuery() {}
+
+    // null si el texto no tiene ninguna palabra que buscar
+    static String build(String column, String input, boolean unicodeTokenizer) {
+        if (input == null) return null;
+        StringBuilder query = new StringBuilder();
+        int terms = 0;
+        int i = 0;
+        while (i < input.length() && terms < MAX_TERMS) {
+            int start = i;
+            while (i < input.length() && Character.isLetterOrDigit(input.codePointAt(i))) {
+                i += Character.charCount(input.codePointAt(i));
+            }
+            if (i > start) {
+                if (query.length() > 0) query.append(' ');
+                if (column != null) query.append(column).append(':');
+                String word = input.substring(start, i);
+                query.append(unicodeTokenizer ? word.toLowerCase(Locale.ROOT) : asciiLowerCase(word)).append('*');
+                terms++;
+            } else {
+                i += Character.charCount(input.codePointAt(i));
+            }
+        }
+        return terms > 0 ? query.toString() : null;
+    }
+
+    private static String asciiLowerCase(String word) {
+        char[] chars = word.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] += 'a' - 'A';
+            }
+        }
+        return new String(chars);
+    }
+}
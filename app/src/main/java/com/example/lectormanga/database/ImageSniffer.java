@@ -0,0 +1,38 @@
+package com.example.lectormanga.database;
+
+/**
+ * Reconoce el formato de una imagen por sus primeros bytes (firma del fichero).
+ * No decodifica nada: basta para rechazar páginas de error HTML o descargas cortadas
+ * y para guardar el tipo MIME real junto al fichero.
+ */
+final class ImageSniffer {
+
+    // Lo que hace falta leer para distinguir todos los formatos soportados
+    static final int HEADER_BYTES = 12;
+
+    private ImageSniffer() {}
+
+    // Tipo MIME o null si no es JPEG, PNG, WebP ni GIF
+    static String sniff(byte[] header, int length) {
+        if (length >= 3 && u(header[0]) == 0xFF && u(header[1]) == 0xD8 && u(header[2]) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (length >= 8 && u(header[0]) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G' &&
+                header[4] == 0x0D && header[5] == 0x0A && header[6] == 0x1A && header[7] == 0x0A) {
+            return "image/png";
+        }
+        if (length >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F' &&
+                header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        if (length >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8' &&
+                (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return "image/gif";
+        }
+        return null;
+    }
+
+    private static int u(byte b) {
+        return b & 0xFF;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.lectormanga.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Base64;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migración v4 -> v5: mueve las imágenes Base64 de pages.image_data y
+ * read_mangas.cover_image a PageStore y deja en la fila solo la ruta.
+ *
+ * Puede llevar minutos con una biblioteca grande, así que no va en onUpgrade: el paso
+ * de SchemaMigrations solo crea la tabla marca y DatabaseHelper.onOpen lanza run() en
+ * un hilo propio. Mientras tanto MangaDAO lee el Base64 como antes.
+ *
+ * Se procesa fila a fila y el texto se lee a trozos con substr(): una página
+ * Base64 puede superar la ventana de 2 MB del cursor. Si una imagen no se puede
+ * mover, su Base64 se conserva y MangaDAO la sigue leyendo como antes.
+ */
+class LegacyImageMigration {
+
+    private static final String TAG = "LegacyImageMigration";
+    // Existe mientras queden imágenes por mover
+    static final String TABLE_PENDING = "legacy_images_pending";
+    private static final int CHUNK_CHARS = 512 * 1024;
+
+    private final SQLiteDatabase db;
+    private final PageStore store;
+
+    LegacyImageMigration(SQLiteDatabase db, PageStore store) {
+        this.db = db;
+        this.store = store;
+    }
+
+    static void markPending(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_PENDING + "(id INTEGER)");
+    }
+
+    static boolean isPending(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new String[]{TABLE_PENDING});
+        boolean pending = cursor.moveToFirst();
+        cursor.close();
+        return pending;
+    }
+
+    // Fila a fila y sin transacción global: la app sigue leyendo y escribiendo mientras.
+    // Las imágenes que no se puedan mover conservan su Base64; la marca se quita igualmente
+    void run() {
+        int pages = migrate(DatabaseHelper.TABLE_PAGES, DatabaseHelper.PAGE_ID,
+                DatabaseHelper.PAGE_IMAGE_DATA, true);
+        int covers = migrate(DatabaseHelper.TABLE_READ_MANGAS, DatabaseHelper.COLUMN_ID,
+                DatabaseHelper.COLUMN_COVER_IMAGE, false);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_PENDING);
+        Log.d(TAG, "✅ Migradas " + pages + " páginas y " + covers + " portadas a ficheros");
+    }
+
+    private int migrate(String table, String idColumn, String base64Column, boolean isPage) {
+        int migrated = 0;
+        for (long id : idsWithImage(table, idColumn, base64Column)) {
+            String base64 = readText(table, idColumn, base64Column, id);
+            if (base64 == null) continue;
+
+            PageStore.StoredImage stored;
+            try {
+                byte[] bytes = Base64.decode(base64, Base64.DEFAULT);
+                stored = store.put(new ByteArrayInputStream(bytes));
+            } catch (IllegalArgumentException e) {
+                // Base64 corrupto: no hay imagen que salvar
+                Log.w(TAG, "Imagen ilegible en " + table + " #" + id);
+                clear(table, idColumn, base64Column, id);
+                continue;
+            } catch (IOException e) {
+                Log.e(TAG, "No se pudo migrar " + table + " #" + id + ": " + e.getMessage());
+                continue;
+            }
+
+            ContentValues values = new ContentValues();
+            values.putNull(base64Column);
+            if (isPage) {
+                values.put(DatabaseHelper.PAGE_FILE_PATH, stored.path);
+                values.put(DatabaseHelper.PAGE_CONTENT_HASH, stored.hash);
+                values.put(DatabaseHelper.PAGE_BYTE_SIZE, stored.size);
+                values.put(DatabaseHelper.PAGE_MIME_TYPE, stored.mimeType);
+            } else {
+                values.put(DatabaseHelper.COLUMN_COVER_PATH, stored.path);
+            }
+            db.update(table, values, idColumn + " = ?", new String[]{String.valueOf(id)});
+            migrated++;
+        }
+        return migrated;
+    }
+
+    // Solo los ids: el cursor no arrastra el Base64
+    private List<Long> idsWithImage(String table, String idColumn, String base64Column) {
+        List<Long> ids = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT " + idColumn + " FROM " + table +
+                " WHERE " + base64Column + " IS NOT NULL AND " + base64Column + " != ''", null);
+        while (cursor.moveToNext()) {
+            ids.add(cursor.getLong(0));
+        }
+        cursor.close();
+        return ids;
+    }
+
+    private String readText(String table, String idColumn, String column, long id) {
+        String[] args = {String.valueOf(id)};
+        long length = 0;
+        Cursor cursor = db.rawQuery("SELECT length(" + column + ") FROM " + table +
+                " WHERE " + idColumn + " = ?", args);
+        if (cursor.moveToFirst()) {
+            length = cursor.getLong(0);
+        }
+        cursor.close();
+        if (length == 0) return null;
+
+        StringBuilder text = new StringBuilder((int) length);
+        for (long start = 1; start <= length; start += CHUNK_CHARS) {
+            cursor = db.rawQuery("SELECT substr(" + column + ", " + start + ", " + CHUNK_CHARS + ") FROM " +
+                    table + " WHERE " + idColumn + " = ?", args);
+            if (cursor.moveToFirst()) {
+                text.append(cursor.getString(0));
+            }
+            cursor.close();
+        }
+        return text.toString();
+    }
+
+    private void clear(String table, String idColumn, String column, long id) {
+        ContentValues values = new ContentValues();
+        values.putNull(column);
+        db.update(table, values, idColumn + " = ?", new String[]{String.valueOf(id)});
+    }
+}
@@ -4,33 +4,153 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.net.Uri;
 import android.util.Base64;
 import android.util.Log;
 
+import com.example.lectormanga.api.MangaDexApi;
 import com.example.lectormanga.model.Chapter;
 import com.example.lectormanga.model.Manga;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public class MangaDAO {
 
     private DatabaseHelper databaseHelper;
+    private PageStore pageStore;
+    private OkHttpClient imageClient;
     private SimpleDateFormat dateFormat;
     private static final String TAG = "MangaDAO";
 
+    // Consultas por capítulo/manga; en paquete para comprobar su plan en los tests
+    // Capítulos por ventanas (keyset): (sort_key, chapter_id) tras la última fila de la
+    // ventana anterior, en el orden del índice. El OFFSET solo se usa al saltar ventanas
+    private static final String CHAPTERS_ORDER = " ORDER BY " + DatabaseHelper.CHAPTER_SORT_KEY + " ASC, " +
+            DatabaseHelper.CHAPTER_ID + " ASC LIMIT ? OFFSET ?";
+    static final String SQL_CHAPTERS_FIRST = "SELECT * FROM " + DatabaseHelper.TABLE_CHAPTERS +
+            " WHERE " + DatabaseHelper.CHAPTER_MANGA_ID + " = ?" + CHAPTERS_ORDER;
+    static final String SQL_CHAPTERS_AFTER = "SELECT * FROM " + DatabaseHelper.TABLE_CHAPTERS +
+            " WHERE " + DatabaseHelper.CHAPTER_MANGA_ID + " = ?" +
+            " AND " + DatabaseHelper.CHAPTER_SORT_KEY + " >= ?" +
+            " AND (" + DatabaseHelper.CHAPTER_SORT_KEY + " > ? OR " + DatabaseHelper.CHAPTER_ID + " > ?)" +
+            CHAPTERS_ORDER;
+    static final String SQL_CHAPTER_COUNT_BY_MANGA = "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_CHAPTERS +
+            " WHERE " + DatabaseHelper.CHAPTER_MANGA_ID + " = ?";
+    static final String SQL_PAGE_IMAGES_BY_CHAPTER = "SELECT " + DatabaseHelper.PAGE_FILE_PATH + ", " +
+            DatabaseHelper.PAGE_IMAGE_DATA +
+            " FROM " + DatabaseHelper.TABLE_PAGES +
+            " WHERE " + DatabaseHelper.PAGE_CHAPTER_ID + " = ?" +
+            " ORDER BY " + DatabaseHelper.PAGE_NUMBER + " ASC";
+    static final String SQL_PAGE_URLS_BY_CHAPTER = "SELECT " + DatabaseHelper.PAGE_IMAGE_URL + ", " +
+            DatabaseHelper.PAGE_FILE_PATH +
+            " FROM " + DatabaseHelper.TABLE_PAGES +
+            " WHERE " + DatabaseHelper.PAGE_CHAPTER_ID + " = ?" +
+            " ORDER BY " + DatabaseHelper.PAGE_NUMBER + " ASC";
+    private static final String ALIAS_CHAPTER_COUNT = "chapter_count";
+    private static final String ALIAS_PAGE_COUNT = "page_count";
+    // Biblioteca por ventanas (keyset sobre read_date, id). Los recuentos son subconsultas
+    // correlacionadas: solo se calculan para las filas de la ventana, cada una por índice
+    private static final String LIBRARY_COLUMNS = "SELECT m." + DatabaseHelper.COLUMN_ID +
+            ", m." + DatabaseHelper.COLUMN_MANGA_ID + ", m." + DatabaseHelper.COLUMN_TITLE +
+            ", m." + DatabaseHelper.COLUMN_DESCRIPTION + ", m." + DatabaseHelper.COLUMN_COVER_URL +
+            ", m." + DatabaseHelper.COLUMN_LAST_CHAPTER + ", m." + DatabaseHelper.COLUMN_STATUS +
+            ", m." + DatabaseHelper.COLUMN_READ_DATE + ", m." + DatabaseHelper.COLUMN_NEW_CHAPTERS +
+            ", (SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_CHAPTERS + " c WHERE c." +
+            DatabaseHelper.CHAPTER_MANGA_ID + " = m." + DatabaseHelper.COLUMN_MANGA_ID + ") AS " + ALIAS_CHAPTER_COUNT +
+            ", (SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_CHAPTERS + " c JOIN " + DatabaseHelper.TABLE_PAGES +
+            " p ON p." + DatabaseHelper.PAGE_CHAPTER_ID + " = c." + DatabaseHelper.CHAPTER_ID +
+            " WHERE c." + DatabaseHelper.CHAPTER_MANGA_ID + " = m." + DatabaseHelper.COLUMN_MANGA_ID + ") AS " + ALIAS_PAGE_COUNT +
+            " FROM " + DatabaseHelper.TABLE_READ_MANGAS + " m";
+    private static final String LIBRARY_ORDER = " ORDER BY m." + DatabaseHelper.COLUMN_READ_DATE + " DESC, m." +
+            DatabaseHelper.COLUMN_ID + " DESC LIMIT ? OFFSET ?";
+    static final String SQL_LIBRARY_FIRST = LIBRARY_COLUMNS + LIBRARY_ORDER;
+    static final String SQL_LIBRARY_AFTER = LIBRARY_COLUMNS +
+            " WHERE m." + DatabaseHelper.COLUMN_READ_DATE + " <= ?" +
+            " AND (m." + DatabaseHelper.COLUMN_READ_DATE + " < ? OR m." + DatabaseHelper.COLUMN_ID + " < ?)" +
+            LIBRARY_ORDER;
+    static final String SQL_LIBRARY_COUNT = "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_READ_MANGAS;
+    // Búsqueda por niveles: título (más corto primero), título o descripción y títulos de
+    // capítulo (más recientes primero). Cada nivel elige sus ids con LIMIT antes de unir
+    // LIBRARY_COLUMNS, así los recuentos solo se calculan para las filas devueltas
+    private static final String SEARCH_RECENT_ORDER = " ORDER BY m." + DatabaseHelper.COLUMN_READ_DATE +
+            " DESC, m." + DatabaseHelper.COLUMN_ID + " DESC";
+    static final String SQL_SEARCH_TITLES = LIBRARY_COLUMNS +
+            " JOIN (SELECT r." + DatabaseHelper.COLUMN_ID + " AS hit_id FROM " + DatabaseHelper.TABLE_READ_MANGAS + " r" +
+            " WHERE r." + DatabaseHelper.COLUMN_ID + " IN (SELECT docid FROM " + DatabaseHelper.TABLE_MANGA_FTS +
+            " WHERE " + DatabaseHelper.TABLE_MANGA_FTS + " MATCH ?)" +
+            " ORDER BY length(r." + DatabaseHelper.COLUMN_TITLE + "), r." + DatabaseHelper.COLUMN_READ_DATE +
+            " DESC, r." + DatabaseHelper.COLUMN_ID + " DESC LIMIT ?) hits ON hits.hit_id = m." + DatabaseHelper.COLUMN_ID +
+            " ORDER BY length(m." + DatabaseHelper.COLUMN_TITLE + "), m." + DatabaseHelper.COLUMN_READ_DATE +
+            " DESC, m." + DatabaseHelper.COLUMN_ID + " DESC";
+    // '+' en r.id: recorre idx_read_mangas_read_date ya ordenado y para en el LIMIT, en vez
+    // de ordenar los miles de documentos que casan con un prefijo corto en las descripciones
+    static final String SQL_SEARCH_DESCRIPTIONS = LIBRARY_COLUMNS +
+            " JOIN (SELECT r." + DatabaseHelper.COLUMN_ID + " AS hit_id FROM " + DatabaseHelper.TABLE_READ_MANGAS + " r" +
+            " WHERE +r." + DatabaseHelper.COLUMN_ID + " IN (SELECT docid FROM " + DatabaseHelper.TABLE_MANGA_FTS +
+            " WHERE " + DatabaseHelper.TABLE_MANGA_FTS + " MATCH ?)" +
+            " ORDER BY r." + DatabaseHelper.COLUMN_READ_DATE + " DESC, r." + DatabaseHelper.COLUMN_ID +
+            " DESC LIMIT ?) hits ON hits.hit_id = m." + DatabaseHelper.COLUMN_ID +
+            SEARCH_RECENT_ORDER;
+    static final String SQL_SEARCH_CHAPTERS = LIBRARY_COLUMNS +
+            " JOIN (SELECT r." + DatabaseHelper.COLUMN_ID + " AS hit_id FROM " + DatabaseHelper.TABLE_READ_MANGAS + " r" +
+            " WHERE r." + DatabaseHelper.COLUMN_MANGA_ID + " IN (SELECT c." + DatabaseHelper.CHAPTER_MANGA_ID +
+            " FROM " + DatabaseHelper.TABLE_CHAPTERS + " c WHERE c.rowid IN (SELECT docid FROM " +
+            DatabaseHelper.TABLE_CHAPTER_FTS + " WHERE " + DatabaseHelper.TABLE_CHAPTER_FTS + " MATCH ?))" +
+            " ORDER BY r." + DatabaseHelper.COLUMN_READ_DATE + " DESC, r." + DatabaseHelper.COLUMN_ID +
+            " DESC LIMIT ?) hits ON hits.hit_id = m." + DatabaseHelper.COLUMN_ID +
+            SEARCH_RECENT_ORDER;
+    private static final String ALIAS_MANGA_COUNT = "manga_count";
+    private static final String ALIAS_BYTES_ON_DISK = "bytes_on_disk";
+    // Estadísticas en una pasada: un LEFT JOIN por nivel (por índice), agrupado por
+    // estado. PageStore no duplica ficheros, así que los bytes se suman por hash distinto
+    // (mismo valor en cada fila; la subconsulta no está correlacionada y se evalúa una vez)
+    static final String SQL_LIBRARY_STATS = "SELECT m." + DatabaseHelper.COLUMN_STATUS +
+            ", COUNT(DISTINCT m." + DatabaseHelper.COLUMN_ID + ") AS " + ALIAS_MANGA_COUNT +
+            ", COUNT(DISTINCT c." + DatabaseHelper.CHAPTER_ID + ") AS " + ALIAS_CHAPTER_COUNT +
+            ", COUNT(p." + DatabaseHelper.PAGE_ID + ") AS " + ALIAS_PAGE_COUNT +
+            ", (SELECT IFNULL(SUM(" + DatabaseHelper.PAGE_BYTE_SIZE + "), 0) FROM (SELECT DISTINCT " +
+            DatabaseHelper.PAGE_CONTENT_HASH + ", " + DatabaseHelper.PAGE_BYTE_SIZE +
+            " FROM " + DatabaseHelper.TABLE_PAGES +
+            " WHERE " + DatabaseHelper.PAGE_CONTENT_HASH + " IS NOT NULL)) AS " + ALIAS_BYTES_ON_DISK +
+            " FROM " + DatabaseHelper.TABLE_READ_MANGAS + " m" +
+            " LEFT JOIN " + DatabaseHelper.TABLE_CHAPTERS + " c ON c." + DatabaseHelper.CHAPTER_MANGA_ID +
+            " = m." + DatabaseHelper.COLUMN_MANGA_ID +
+            " LEFT JOIN " + DatabaseHelper.TABLE_PAGES + " p ON p." + DatabaseHelper.PAGE_CHAPTER_ID +
+            " = c." + DatabaseHelper.CHAPTER_ID +
+            " GROUP BY m." + DatabaseHelper.COLUMN_STATUS;
+    // Páginas del capítulo y cuántas tienen imagen (fichero o Base64 heredado)
+    static final String SQL_PAGE_COUNT_BY_CHAPTER = "SELECT COUNT(*), " +
+            "SUM(" + DatabaseHelper.PAGE_FILE_PATH + " IS NOT NULL OR " + DatabaseHelper.PAGE_IMAGE_DATA + " IS NOT NULL)" +
+            " FROM " + DatabaseHelper.TABLE_PAGES +
+            " WHERE " + DatabaseHelper.PAGE_CHAPTER_ID + " = ?";
+
     public MangaDAO(Context context) {
-        databaseHelper = new DatabaseHelper(context);
+        // Conexión única del proceso: no se cierra tras cada consulta
+        databaseHelper = DatabaseHelper.getInstance(context);
+        pageStore = new PageStore(context);
+        // Mismo cliente que Glide: conexiones reutilizadas y bytes medidos por la política de calidad
+        imageClient = MangaDexApi.getInstance(context).getImageClient();
         dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
     }
 
@@ -50,7 +170,7 @@ public class MangaDAO {
 
         Log.d(TAG, "Guardando manga: " + manga.getTitle());
         long result = db.insertWithOnConflict(DatabaseHelper.TABLE_READ_MANGAS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
-        db.close();
+        databaseHelper.notifyDataChanged();
         return result;
     }
 
@@ -65,10 +185,10 @@ public class MangaDAO {
         values.put(DatabaseHelper.COLUMN_COVER_URL, manga.getCoverUrl());
 
         // Descargar y guardar imagen
-        String base64Image = downloadAndEncodeImage(manga.getCoverUrl());
-        if (base64Image != null) {
-            values.put(DatabaseHelper.COLUMN_COVER_IMAGE, base64Image);
-            Log.d(TAG, "Imagen de portada guardada en Base64");
+        PageStore.StoredImage cover = downloadAndStoreImage(manga.getCoverUrl());
+        if (cover != null) {
+            values.put(DatabaseHelper.COLUMN_COVER_PATH, cover.path);
+            Log.d(TAG, "Imagen de portada guardada en " + cover.path);
         }
 
         values.put(DatabaseHelper.COLUMN_READ_DATE, dateFormat.format(new Date()));
@@ -77,40 +197,108 @@ public class MangaDAO {
 
         Log.d(TAG, "Guardando manga completo: " + manga.getTitle());
         long result = db.insertWithOnConflict(DatabaseHelper.TABLE_READ_MANGAS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
-        db.close();
+        databaseHelper.notifyDataChanged();
         return result;
     }
 
-    public List<Manga> getAllReadMangas() {
-        List<Manga> mangaList = new ArrayList<>();
+    // ✅ Una ventana de la biblioteca (más recientes primero): manga, datos de lectura y
+    // recuento de capítulos/páginas guardados. 'after' es la última fila de una ventana
+    // anterior (null: desde el principio) y 'skip' las filas a saltar desde ella
+    public List<LibraryEntry> getLibraryWindow(LibraryEntry after, int skip, int limit) {
+        List<LibraryEntry> library = new ArrayList<>(limit);
         SQLiteDatabase db = databaseHelper.getReadableDatabase();
 
-        String query = "SELECT * FROM " + DatabaseHelper.TABLE_READ_MANGAS +
-                " ORDER BY " + DatabaseHelper.COLUMN_READ_DATE + " DESC";
+        Cursor cursor;
+        if (after == null) {
+            cursor = db.rawQuery(SQL_LIBRARY_FIRST, new String[]{
+                    String.valueOf(limit), String.valueOf(skip)});
+        } else {
+            String readDate = after.readInfo.readDate != null ? after.readInfo.readDate : "";
+            cursor = db.rawQuery(SQL_LIBRARY_AFTER, new String[]{
+                    readDate, readDate, String.valueOf(after.rowId), String.valueOf(limit), String.valueOf(skip)});
+        }
 
-        Cursor cursor = db.rawQuery(query, null);
-        Log.d(TAG, "Recuperando mangas. Total: " + cursor.getCount());
+        readLibraryEntries(cursor, library);
+        cursor.close();
+        return library;
+    }
 
-        if (cursor.moveToFirst()) {
-            do {
-                Manga manga = new Manga();
-                manga.setId(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MANGA_ID)));
-                manga.setTitle(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_TITLE)));
-                manga.setDescription(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DESCRIPTION)));
-                manga.setCoverUrl(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_COVER_URL)));
-                mangaList.add(manga);
-            } while (cursor.moveToNext());
+    public int getLibraryCount() {
+        return queryCount(SQL_LIBRARY_COUNT, null);
+    }
+
+    // ✅ Busca en la biblioteca guardada por prefijo de cada palabra ("drag ba" encuentra
+    // "Dragon Ball"): primero los títulos que casan, luego título o descripción y por último
+    // los mangas con algún capítulo cuyo título casa. Como mucho 'limit' filas, sin repetir
+    public List<LibraryEntry> searchLibrary(String text, int limit) {
+        return searchLibrary(databaseHelper.getReadableDatabase(), text, limit);
+    }
+
+    static List<LibraryEntry> searchLibrary(SQLiteDatabase db, String text, int limit) {
+        Map<Long, LibraryEntry> found = new LinkedHashMap<>();
+        boolean unicode = DatabaseHelper.hasUnicodeSearch(db);
+        String titleQuery = FtsQuery.build(DatabaseHelper.COLUMN_TITLE, text, unicode);
+        if (titleQuery == null) return new ArrayList<>();
+
+        String[][] levels = {
+                {SQL_SEARCH_TITLES, titleQuery},
+                {SQL_SEARCH_DESCRIPTIONS, FtsQuery.build(null, text, unicode)},
+                {SQL_SEARCH_CHAPTERS, FtsQuery.build(DatabaseHelper.CHAPTER_TITLE, text, unicode)}};
+        for (String[] level : levels) {
+            if (found.size() >= limit) break;
+            // Un nivel puede devolver filas de los anteriores: se piden 'limit' y se descartan
+            Cursor cursor = db.rawQuery(level[0], new String[]{level[1], String.valueOf(limit)});
+            List<LibraryEntry> hits = new ArrayList<>();
+            readLibraryEntries(cursor, hits);
+            cursor.close();
+            for (LibraryEntry entry : hits) {
+                if (found.size() >= limit) break;
+                if (!found.containsKey(entry.rowId)) found.put(entry.rowId, entry);
+            }
         }
+        return new ArrayList<>(found.values());
+    }
 
-        cursor.close();
-        db.close();
-        return mangaList;
+    // Filas de LIBRARY_COLUMNS en el orden del cursor
+    private static void readLibraryEntries(Cursor cursor, List<LibraryEntry> library) {
+        int rowId = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID);
+        int mangaId = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_MANGA_ID);
+        int title = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_TITLE);
+        int description = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_DESCRIPTION);
+        int coverUrl = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_COVER_URL);
+        int lastChapter = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_LAST_CHAPTER);
+        int status = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_STATUS);
+        int readDate = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_READ_DATE);
+        int newChapters = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_NEW_CHAPTERS);
+        int chapterCount = cursor.getColumnIndexOrThrow(ALIAS_CHAPTER_COUNT);
+        int pageCount = cursor.getColumnIndexOrThrow(ALIAS_PAGE_COUNT);
+
+        while (cursor.moveToNext()) {
+            LibraryEntry entry = new LibraryEntry();
+            entry.rowId = cursor.getLong(rowId);
+            entry.manga = new Manga();
+            entry.manga.setId(cursor.getString(mangaId));
+            entry.manga.setTitle(cursor.getString(title));
+            entry.manga.setDescription(cursor.getString(description));
+            entry.manga.setCoverUrl(cursor.getString(coverUrl));
+
+            entry.readInfo = new ReadMangaInfo();
+            entry.readInfo.lastChapter = cursor.getString(lastChapter);
+            entry.readInfo.status = cursor.getString(status);
+            entry.readInfo.readDate = cursor.getString(readDate);
+            entry.readInfo.newChapters = cursor.getInt(newChapters);
+
+            entry.chapterCount = cursor.getInt(chapterCount);
+            entry.pageCount = cursor.getInt(pageCount);
+            library.add(entry);
+        }
     }
 
     // ✅ NUEVO - Obtener imagen de portada guardada
     public Bitmap getMangaCoverImage(String mangaId) {
         SQLiteDatabase db = databaseHelper.getReadableDatabase();
-        String query = "SELECT " + DatabaseHelper.COLUMN_COVER_IMAGE +
+        String query = "SELECT " + DatabaseHelper.COLUMN_COVER_PATH + ", " +
+                DatabaseHelper.COLUMN_COVER_IMAGE +
                 " FROM " + DatabaseHelper.TABLE_READ_MANGAS +
                 " WHERE " + DatabaseHelper.COLUMN_MANGA_ID + " = ?";
 
@@ -118,14 +306,10 @@ public class MangaDAO {
         Bitmap bitmap = null;
 
         if (cursor.moveToFirst()) {
-            String base64Image = cursor.getString(0);
-            if (base64Image != null && !base64Image.isEmpty()) {
-                bitmap = decodeBase64ToBitmap(base64Image);
-            }
+            bitmap = decodeStoredImage(cursor.getString(0), cursor.getString(1));
         }
 
         cursor.close();
-        db.close();
         return bitmap;
     }
 
@@ -142,63 +326,144 @@ public class MangaDAO {
         values.put(DatabaseHelper.CHAPTER_TITLE, chapter.getTitle());
         values.put(DatabaseHelper.CHAPTER_PAGES_COUNT, chapter.getPages());
         values.put(DatabaseHelper.CHAPTER_PUBLISHED_AT, chapter.getPublishedAt());
+        values.put(DatabaseHelper.CHAPTER_VOLUME, chapter.getVolume());
+        values.put(DatabaseHelper.CHAPTER_SORT_KEY, chapter.getSortKey());
 
         Log.d(TAG, "Guardando capítulo: " + chapter.getChapterNumber());
         long result = db.insertWithOnConflict(DatabaseHelper.TABLE_CHAPTERS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
-        db.close();
+        databaseHelper.notifyDataChanged();
         return result;
     }
 
-    // ✅ NUEVO - Obtener capítulos de un manga
-    public List<Chapter> getChaptersByMangaId(String mangaId) {
-        List<Chapter> chapters = new ArrayList<>();
+    // ✅ Una ventana de los capítulos guardados de un manga, en orden de lectura.
+    // 'after' y 'skip' como en getLibraryWindow
+    public List<Chapter> getChapterWindow(String mangaId, Chapter after, int skip, int limit) {
+        List<Chapter> chapters = new ArrayList<>(limit);
         SQLiteDatabase db = databaseHelper.getReadableDatabase();
 
-        String query = "SELECT * FROM " + DatabaseHelper.TABLE_CHAPTERS +
-                " WHERE " + DatabaseHelper.CHAPTER_MANGA_ID + " = ?" +
-                " ORDER BY CAST(" + DatabaseHelper.CHAPTER_NUMBER + " AS REAL) ASC";
-
-        Cursor cursor = db.rawQuery(query, new String[]{mangaId});
-        Log.d(TAG, "Capítulos encontrados: " + cursor.getCount());
+        Cursor cursor;
+        if (after == null) {
+            cursor = db.rawQuery(SQL_CHAPTERS_FIRST, new String[]{
+                    mangaId, String.valueOf(limit), String.valueOf(skip)});
+        } else {
+            String sortKey = String.valueOf(after.getSortKey());
+            cursor = db.rawQuery(SQL_CHAPTERS_AFTER, new String[]{
+                    mangaId, sortKey, sortKey, after.getId(), String.valueOf(limit), String.valueOf(skip)});
+        }
 
-        if (cursor.moveToFirst()) {
-            do {
-                Chapter chapter = new Chapter();
-                chapter.setId(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_ID)));
-                chapter.setChapterNumber(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_NUMBER)));
-                chapter.setTitle(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_TITLE)));
-                chapter.setPages(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_PAGES_COUNT)));
-                chapter.setPublishedAt(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_PUBLISHED_AT)));
-                chapters.add(chapter);
-            } while (cursor.moveToNext());
+        int id = cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_ID);
+        int number = cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_NUMBER);
+        int title = cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_TITLE);
+        int pages = cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_PAGES_COUNT);
+        int publishedAt = cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_PUBLISHED_AT);
+        int volume = cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_VOLUME);
+        int sortKey = cursor.getColumnIndexOrThrow(DatabaseHelper.CHAPTER_SORT_KEY);
+
+        while (cursor.moveToNext()) {
+            Chapter chapter = new Chapter();
+            chapter.setId(cursor.getString(id));
+            chapter.setChapterNumber(cursor.getString(number));
+            chapter.setTitle(cursor.getString(title));
+            chapter.setPages(cursor.getString(pages));
+            chapter.setPublishedAt(cursor.getString(publishedAt));
+            chapter.setVolume(cursor.getString(volume));
+            // Tras los setters: la clave de la fila es la que ordena el índice
+            chapter.setSortKey(cursor.getLong(sortKey));
+            chapters.add(chapter);
         }
 
         cursor.close();
-        db.close();
         return chapters;
     }
 
-    // ==================== MÉTODOS PARA PÁGINAS/IMÁGENES ====================
+    public int getChapterCount(String mangaId) {
+        return queryCount(SQL_CHAPTER_COUNT_BY_MANGA, new String[]{mangaId});
+    }
 
-    // ✅ NUEVO - Guardar página con imagen
-    public long addPageWithImage(String chapterId, int pageNumber, String imageUrl) {
-        SQLiteDatabase db = databaseHelper.getWritableDatabase();
-        ContentValues values = new ContentValues();
+    // ==================== MÉTODOS PARA PÁGINAS/IMÁGENES ====================
 
-        values.put(DatabaseHelper.PAGE_CHAPTER_ID, chapterId);
-        values.put(DatabaseHelper.PAGE_NUMBER, pageNumber);
-        values.put(DatabaseHelper.PAGE_IMAGE_URL, imageUrl);
+    public interface PageSaveListener {
+        void onPageDownloaded(int pageNumber, int totalPages);
+    }
 
-        // Descargar y guardar imagen
-        String base64Image = downloadAndEncodeImage(imageUrl);
-        if (base64Image != null) {
-            values.put(DatabaseHelper.PAGE_IMAGE_DATA, base64Image);
-            Log.d(TAG, "Página " + pageNumber + " guardada");
+    // ✅ Guardar un capítulo completo: primero se descargan todas las imágenes (fuera de la
+    // transacción, para no bloquear la escritura durante la red) y luego el capítulo y sus
+    // páginas se insertan juntos con sentencias precompiladas. Si falta alguna imagen no se
+    // escribe nada y se puede reintentar. Devuelve las páginas con imagen descargada: el
+    // capítulo solo quedó guardado si coinciden con pageUrls.size().
+    public int saveChapterWithPages(Chapter chapter, String mangaId, List<String> pageUrls,
+                                    PageSaveListener listener) {
+        int total = pageUrls.size();
+        PageStore.StoredImage[] images = new PageStore.StoredImage[total];
+        int stored = 0;
+        for (int i = 0; i < total; i++) {
+            images[i] = downloadAndStoreImage(pageUrls.get(i));
+            if (images[i] != null) stored++;
+            if (listener != null) listener.onPageDownloaded(i + 1, total);
+        }
+        if (stored < total) {
+            // Los ficheros ya descargados sin fila los borra la limpieza de PageStore
+            Log.w(TAG, "Capítulo " + chapter.getChapterNumber() + " sin guardar: " + stored + "/" + total + " imágenes");
+            return stored;
         }
 
-        long result = db.insertWithOnConflict(DatabaseHelper.TABLE_PAGES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
-        db.close();
-        return result;
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        SQLiteStatement insertChapter = db.compileStatement(
+                "INSERT OR REPLACE INTO " + DatabaseHelper.TABLE_CHAPTERS + " (" +
+                        DatabaseHelper.CHAPTER_ID + ", " + DatabaseHelper.CHAPTER_MANGA_ID + ", " +
+                        DatabaseHelper.CHAPTER_NUMBER + ", " + DatabaseHelper.CHAPTER_TITLE + ", " +
+                        DatabaseHelper.CHAPTER_PAGES_COUNT + ", " + DatabaseHelper.CHAPTER_PUBLISHED_AT + ", " +
+                        DatabaseHelper.CHAPTER_VOLUME + ", " + DatabaseHelper.CHAPTER_SORT_KEY +
+                        ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        SQLiteStatement deletePages = db.compileStatement(
+                "DELETE FROM " + DatabaseHelper.TABLE_PAGES +
+                        " WHERE " + DatabaseHelper.PAGE_CHAPTER_ID + " = ?");
+        SQLiteStatement insertPage = db.compileStatement(
+                "INSERT INTO " + DatabaseHelper.TABLE_PAGES + " (" +
+                        DatabaseHelper.PAGE_CHAPTER_ID + ", " + DatabaseHelper.PAGE_NUMBER + ", " +
+                        DatabaseHelper.PAGE_IMAGE_URL + ", " + DatabaseHelper.PAGE_FILE_PATH + ", " +
+                        DatabaseHelper.PAGE_CONTENT_HASH + ", " + DatabaseHelper.PAGE_BYTE_SIZE + ", " +
+                        DatabaseHelper.PAGE_MIME_TYPE + ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+
+        db.beginTransaction();
+        try {
+            insertChapter.bindString(1, chapter.getId());
+            bindNullable(insertChapter, 2, mangaId);
+            bindNullable(insertChapter, 3, chapter.getChapterNumber());
+            bindNullable(insertChapter, 4, chapter.getTitle());
+            bindNullable(insertChapter, 5, chapter.getPages());
+            bindNullable(insertChapter, 6, chapter.getPublishedAt());
+            bindNullable(insertChapter, 7, chapter.getVolume());
+            insertChapter.bindLong(8, chapter.getSortKey());
+            insertChapter.executeInsert();
+
+            // Un guardado anterior del mismo capítulo se sustituye entero
+            deletePages.bindString(1, chapter.getId());
+            deletePages.executeUpdateDelete();
+
+            for (int i = 0; i < total; i++) {
+                PageStore.StoredImage image = images[i];
+                insertPage.clearBindings();
+                insertPage.bindString(1, chapter.getId());
+                insertPage.bindLong(2, i + 1);
+                bindNullable(insertPage, 3, pageUrls.get(i));
+                // En la fila solo la ruta y los metadatos
+                insertPage.bindString(4, image.path);
+                insertPage.bindString(5, image.hash);
+                insertPage.bindLong(6, image.size);
+                insertPage.bindString(7, image.mimeType);
+                insertPage.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insertChapter.close();
+            deletePages.close();
+            insertPage.close();
+            databaseHelper.notifyDataChanged();
+        }
+        Log.d(TAG, "Capítulo " + chapter.getChapterNumber() + " guardado: " + stored + "/" + total + " imágenes");
+        return stored;
     }
 
     // ✅ NUEVO - Obtener páginas de un capítulo (como Bitmap)
@@ -206,78 +471,90 @@ public class MangaDAO {
         List<Bitmap> images = new ArrayList<>();
         SQLiteDatabase db = databaseHelper.getReadableDatabase();
 
-        String query = "SELECT " + DatabaseHelper.PAGE_IMAGE_DATA +
-                " FROM " + DatabaseHelper.TABLE_PAGES +
-                " WHERE " + DatabaseHelper.PAGE_CHAPTER_ID + " = ?" +
-                " ORDER BY " + DatabaseHelper.PAGE_NUMBER + " ASC";
-
-        Cursor cursor = db.rawQuery(query, new String[]{chapterId});
+        Cursor cursor = db.rawQuery(SQL_PAGE_IMAGES_BY_CHAPTER, new String[]{chapterId});
         Log.d(TAG, "Páginas encontradas: " + cursor.getCount());
 
         if (cursor.moveToFirst()) {
             do {
-                String base64Image = cursor.getString(0);
-                if (base64Image != null && !base64Image.isEmpty()) {
-                    Bitmap bitmap = decodeBase64ToBitmap(base64Image);
-                    if (bitmap != null) {
-                        images.add(bitmap);
-                    }
+                Bitmap bitmap = decodeStoredImage(cursor.getString(0), cursor.getString(1));
+                if (bitmap != null) {
+                    images.add(bitmap);
                 }
             } while (cursor.moveToNext());
         }
 
         cursor.close();
-        db.close();
         return images;
     }
 
-    // ✅ NUEVO - Obtener URLs de páginas (para usar con adaptador existente)
+    // ✅ URLs de páginas para el adaptador: file:// si la imagen está en PageStore,
+    // la URL original si no (páginas antiguas sin fichero)
     public List<String> getPageUrlsByChapterId(String chapterId) {
         List<String> urls = new ArrayList<>();
         SQLiteDatabase db = databaseHelper.getReadableDatabase();
 
-        String query = "SELECT " + DatabaseHelper.PAGE_IMAGE_URL +
-                " FROM " + DatabaseHelper.TABLE_PAGES +
-                " WHERE " + DatabaseHelper.PAGE_CHAPTER_ID + " = ?" +
-                " ORDER BY " + DatabaseHelper.PAGE_NUMBER + " ASC";
-
-        Cursor cursor = db.rawQuery(query, new String[]{chapterId});
+        Cursor cursor = db.rawQuery(SQL_PAGE_URLS_BY_CHAPTER, new String[]{chapterId});
 
         if (cursor.moveToFirst()) {
             do {
-                urls.add(cursor.getString(0));
+                File file = pageStore.resolve(cursor.getString(1));
+                urls.add(file != null ? Uri.fromFile(file).toString() : cursor.getString(0));
             } while (cursor.moveToNext());
         }
 
         cursor.close();
-        db.close();
         return urls;
     }
 
     // ==================== MÉTODOS AUXILIARES ====================
 
-    // ✅ Descargar imagen y convertir a Base64
-    private String downloadAndEncodeImage(String imageUrl) {
+    // ✅ Descargar imagen y guardarla en PageStore tal cual llega del servidor:
+    // sin decodificar a Bitmap ni recomprimir. PageStore valida el formato por la cabecera.
+    private PageStore.StoredImage downloadAndStoreImage(String imageUrl) {
         if (imageUrl == null || imageUrl.isEmpty()) return null;
 
-        try {
-            URL url = new URL(imageUrl);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setDoInput(true);
-            connection.connect();
-
-            InputStream input = connection.getInputStream();
-            Bitmap bitmap = BitmapFactory.decodeStream(input);
-            input.close();
-
-            if (bitmap != null) {
-                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                bitmap.compress(Bitmap.CompressFormat.JPEG, 70, byteArrayOutputStream); // 70% calidad
-                byte[] byteArray = byteArrayOutputStream.toByteArray();
-                return Base64.encodeToString(byteArray, Base64.DEFAULT);
+        Request request = new Request.Builder().url(imageUrl).build();
+        try (Response response = imageClient.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                Log.e(TAG, "Error descargando imagen: HTTP " + response.code());
+                return null;
             }
-        } catch (IOException e) {
+            return pageStore.put(body.byteStream());
+        } catch (IOException | IllegalArgumentException e) {
             Log.e(TAG, "Error descargando imagen: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private int queryCount(String sql, String[] args) {
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(sql, args);
+        int count = 0;
+        if (cursor.moveToFirst()) {
+            count = cursor.getInt(0);
+        }
+        cursor.close();
+        return count;
+    }
+
+    // Los bind* de SQLiteStatement no aceptan null
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    // Imagen desde PageStore; si la fila es anterior a v5 y no se migró, desde su Base64
+    private Bitmap decodeStoredImage(String path, String legacyBase64) {
+        File file = pageStore.resolve(path);
+        if (file != null) {
+            return BitmapFactory.decodeFile(file.getAbsolutePath());
+        }
+        if (legacyBase64 != null && !legacyBase64.isEmpty()) {
+            return decodeBase64ToBitmap(legacyBase64);
         }
         return null;
     }
@@ -294,19 +571,16 @@ public class MangaDAO {
     }
 
     // ✅ Verificar si un capítulo tiene páginas guardadas
+    // Solo cuenta como guardado si todas sus páginas tienen imagen: un capítulo que quedó
+    // a medias (versiones anteriores guardaban filas sin imagen) se puede volver a guardar
     public boolean hasOfflinePages(String chapterId) {
         SQLiteDatabase db = databaseHelper.getReadableDatabase();
-        String query = "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_PAGES +
-                " WHERE " + DatabaseHelper.PAGE_CHAPTER_ID + " = ?";
-
-        Cursor cursor = db.rawQuery(query, new String[]{chapterId});
-        int count = 0;
-        if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
+        Cursor cursor = db.rawQuery(SQL_PAGE_COUNT_BY_CHAPTER, new String[]{chapterId});
+        try {
+            return cursor.moveToFirst() && cursor.getInt(0) > 0 && cursor.getInt(1) == cursor.getInt(0);
+        } finally {
+            cursor.close();
         }
-        cursor.close();
-        db.close();
-        return count > 0;
     }
 
     // ==================== MÉTODOS EXISTENTES ====================
@@ -318,7 +592,6 @@ public class MangaDAO {
         Cursor cursor = db.rawQuery(query, new String[]{mangaId});
         boolean exists = cursor.moveToFirst();
         cursor.close();
-        db.close();
         return exists;
     }
 
@@ -334,10 +607,10 @@ public class MangaDAO {
             info.lastChapter = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_LAST_CHAPTER));
             info.status = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_STATUS));
             info.readDate = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_READ_DATE));
+            info.newChapters = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_NEW_CHAPTERS));
         }
 
         cursor.close();
-        db.close();
         return info;
     }
 
@@ -348,42 +621,177 @@ public class MangaDAO {
         values.put(DatabaseHelper.COLUMN_READ_DATE, dateFormat.format(new Date()));
         db.update(DatabaseHelper.TABLE_READ_MANGAS, values,
                 DatabaseHelper.COLUMN_MANGA_ID + " = ?", new String[]{mangaId});
-        db.close();
+    }
+
+    // ==================== NOVEDADES DE LA BIBLIOTECA ====================
+
+    // id -> fecha UTC desde la que buscar capítulos nuevos.
+    // Si nunca se comprobó se usa la fecha de lectura (guardada en hora local).
+    public Map<String, String> getUpdateCheckTargets() {
+        Map<String, String> targets = new LinkedHashMap<>();
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+
+        String query = "SELECT " + DatabaseHelper.COLUMN_MANGA_ID + ", " +
+                DatabaseHelper.COLUMN_UPDATES_CHECKED_AT + ", " +
+                DatabaseHelper.COLUMN_READ_DATE +
+                " FROM " + DatabaseHelper.TABLE_READ_MANGAS;
+
+        SimpleDateFormat utcFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.ROOT);
+        utcFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        Cursor cursor = db.rawQuery(query, null);
+        if (cursor.moveToFirst()) {
+            do {
+                String mangaId = cursor.getString(0);
+                String since = cursor.getString(1);
+                if (since == null) {
+                    Date readDate = null;
+                    String readDateText = cursor.getString(2);
+                    if (readDateText != null) {
+                        try {
+                            readDate = dateFormat.parse(readDateText);
+                        } catch (ParseException e) {
+                            Log.w(TAG, "Fecha de lectura inválida: " + readDateText);
+                        }
+                    }
+                    since = utcFormat.format(readDate != null ? readDate : new Date());
+                }
+                targets.put(mangaId, since);
+            } while (cursor.moveToNext());
+        }
+
+        cursor.close();
+        return targets;
+    }
+
+    // Suma los capítulos nuevos encontrados y marca la comprobación, todo en una transacción
+    public void applyUpdateCheck(Map<String, Integer> newChapters, String checkedAt) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement(
+                "UPDATE " + DatabaseHelper.TABLE_READ_MANGAS +
+                        " SET " + DatabaseHelper.COLUMN_NEW_CHAPTERS + " = " + DatabaseHelper.COLUMN_NEW_CHAPTERS + " + ?, " +
+                        DatabaseHelper.COLUMN_UPDATES_CHECKED_AT + " = ?" +
+                        " WHERE " + DatabaseHelper.COLUMN_MANGA_ID + " = ?");
+
+        db.beginTransaction();
+        try {
+            for (Map.Entry<String, Integer> entry : newChapters.entrySet()) {
+                statement.clearBindings();
+                statement.bindLong(1, entry.getValue());
+                statement.bindString(2, checkedAt);
+                statement.bindString(3, entry.getKey());
+                statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        Log.d(TAG, "Novedades guardadas para " + newChapters.size() + " mangas");
+    }
+
+    // Al abrir los capítulos de un manga sus novedades dejan de ser nuevas
+    public void clearNewChapters(String mangaId) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_NEW_CHAPTERS, 0);
+        db.update(DatabaseHelper.TABLE_READ_MANGAS, values,
+                DatabaseHelper.COLUMN_MANGA_ID + " = ?", new String[]{mangaId});
     }
 
     public void removeReadManga(String mangaId) {
         SQLiteDatabase db = databaseHelper.getWritableDatabase();
         db.delete(DatabaseHelper.TABLE_READ_MANGAS,
                 DatabaseHelper.COLUMN_MANGA_ID + " = ?", new String[]{mangaId});
-        db.close();
+        databaseHelper.notifyDataChanged();
+        cleanupUnusedImages();
     }
 
-    public int getCountByStatus(String status) {
+    // Una imagen puede estar en varias filas (mismo hash): solo se borra si ninguna la usa
+    public int cleanupUnusedImages() {
+        Set<String> referenced = new HashSet<>();
         SQLiteDatabase db = databaseHelper.getReadableDatabase();
-        String query = "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_READ_MANGAS +
-                " WHERE " + DatabaseHelper.COLUMN_STATUS + " = ?";
-        Cursor cursor = db.rawQuery(query, new String[]{status});
-        int count = 0;
-        if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
+        Cursor cursor = db.rawQuery(
+                "SELECT " + DatabaseHelper.PAGE_FILE_PATH + " FROM " + DatabaseHelper.TABLE_PAGES +
+                        " WHERE " + DatabaseHelper.PAGE_FILE_PATH + " IS NOT NULL" +
+                        " UNION SELECT " + DatabaseHelper.COLUMN_COVER_PATH + " FROM " + DatabaseHelper.TABLE_READ_MANGAS +
+                        " WHERE " + DatabaseHelper.COLUMN_COVER_PATH + " IS NOT NULL", null);
+        while (cursor.moveToNext()) {
+            referenced.add(cursor.getString(0));
         }
         cursor.close();
-        db.close();
-        return count;
+        return pageStore.retainOnly(referenced);
     }
 
-    public void debugDatabase() {
+    // ✅ Estadísticas de la biblioteca (mangas por estado, capítulos, páginas y bytes en disco)
+    // en una consulta. Se guardan en caché hasta la siguiente escritura que las cambie;
+    // los métodos que solo tocan la lectura (último capítulo, novedades) no las invalidan
+    public LibraryStats getLibraryStats() {
+        long generation = databaseHelper.getWriteGeneration();
+        LibraryStats cached = databaseHelper.libraryStats;
+        if (cached != null && cached.generation == generation) {
+            return cached;
+        }
+
+        LibraryStats stats = new LibraryStats();
+        stats.generation = generation;
         SQLiteDatabase db = databaseHelper.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT * FROM " + DatabaseHelper.TABLE_READ_MANGAS, null);
-        Log.d(TAG, "=== DEBUG BASE DE DATOS ===");
-        Log.d(TAG, "Total mangas: " + cursor.getCount());
+        Cursor cursor = db.rawQuery(SQL_LIBRARY_STATS, null);
+
+        int status = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_STATUS);
+        int mangaCount = cursor.getColumnIndexOrThrow(ALIAS_MANGA_COUNT);
+        int chapterCount = cursor.getColumnIndexOrThrow(ALIAS_CHAPTER_COUNT);
+        int pageCount = cursor.getColumnIndexOrThrow(ALIAS_PAGE_COUNT);
+        int bytesOnDisk = cursor.getColumnIndexOrThrow(ALIAS_BYTES_ON_DISK);
+
+        while (cursor.moveToNext()) {
+            int mangas = cursor.getInt(mangaCount);
+            if (!cursor.isNull(status)) {
+                stats.mangasByStatus.put(cursor.getString(status), mangas);
+            }
+            stats.totalMangas += mangas;
+            stats.totalChapters += cursor.getInt(chapterCount);
+            stats.totalPages += cursor.getInt(pageCount);
+            stats.bytesOnDisk = cursor.getLong(bytesOnDisk);
+        }
+
         cursor.close();
-        db.close();
+        // Si hubo una escritura mientras tanto la generación ya no coincide y la próxima
+        // llamada vuelve a consultar
+        databaseHelper.libraryStats = stats;
+        Log.d(TAG, "Estadísticas recalculadas: " + stats.totalMangas + " mangas, " +
+                stats.totalPages + " páginas");
+        return stats;
     }
 
     public static class ReadMangaInfo {
         public String lastChapter;
         public String status;
         public String readDate;
+        public int newChapters;
+    }
+
+    // Fila de la biblioteca ya calculada (getLibraryWindow)
+    public static class LibraryEntry {
+        long rowId; // id en read_mangas: desempata la clave de paginación
+        public Manga manga;
+        public ReadMangaInfo readInfo;
+        public int chapterCount;
+        public int pageCount;
+    }
+
+    // Compartidas por todas las pantallas desde la caché: solo lectura
+    public static class LibraryStats {
+        public final Map<String, Integer> mangasByStatus = new HashMap<>();
+        public int totalMangas;
+        public int totalChapters;
+        public int totalPages;
+        public long bytesOnDisk;
+        long generation;
+
+        public int getCountByStatus(String status) {
+            Integer count = mangasByStatus.get(status);
+            return count != null ? count : 0;
+        }
     }
 }
\ No newline at end of file
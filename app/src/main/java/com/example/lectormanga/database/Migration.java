@@ -0,0 +1,21 @@
+package com.example.lectormanga.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Un paso de esquema de startVersion a endVersion. Modifica las tablas en su
+ * sitio (ALTER, CREATE INDEX, UPDATE...) sin borrar datos; SchemaMigrations lo
+ * ejecuta dentro de una transacción.
+ */
+abstract class Migration {
+
+    final int startVersion;
+    final int endVersion;
+
+    Migration(int startVersion, int endVersion) {
+        this.startVersion = startVersion;
+        this.endVersion = endVersion;
+    }
+
+    abstract void migrate(SQLiteDatabase db);
+}
@@ -0,0 +1,173 @@
+package com.example.lectormanga.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+/**
+ * Almacén de imágenes en disco direccionado por contenido.
+ *
+ * Cada imagen se guarda una sola vez con su SHA-256 como nombre, repartida en
+ * subcarpetas por los dos primeros caracteres ("ab/abcdef..."). En SQLite solo
+ * queda la ruta relativa y los metadatos; las filas dejan de pesar cientos de KB.
+ * La escritura va a un temporal y se renombra al final: no quedan ficheros a medias.
+ * Los bytes se guardan tal cual llegan; el formato solo se comprueba por la cabecera.
+ */
+public class PageStore {
+
+    private static final String TAG = "PageStore";
+    private static final String DIR_NAME = "page_store";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // Un fichero recién escrito puede no tener aún su fila: la limpieza no lo toca
+    private static final long CLEANUP_GRACE_MS = 10 * 60 * 1000;
+
+    public static class StoredImage {
+        public final String path;
+        public final String hash;
+        public final long size;
+        public final String mimeType;
+
+        StoredImage(String path, String hash, long size, String mimeType) {
+            this.path = path;
+            this.hash = hash;
+            this.size = size;
+            this.mimeType = mimeType;
+        }
+    }
+
+    private final File root;
+
+    public PageStore(Context context) {
+        this(new File(context.getApplicationContext().getFilesDir(), DIR_NAME));
+    }
+
+    PageStore(File root) {
+        this.root = root;
+    }
+
+    // Copia el stream al almacén calculando el hash por el camino.
+    // Lanza IOException si los primeros bytes no son de una imagen conocida.
+    public StoredImage put(InputStream source) throws IOException {
+        byte[] header = new byte[ImageSniffer.HEADER_BYTES];
+        int headerLength = readHeader(source, header);
+        String mimeType = ImageSniffer.sniff(header, headerLength);
+        if (mimeType == null) {
+            throw new IOException("El contenido no es una imagen JPEG, PNG, WebP o GIF");
+        }
+        InputStream in = new SequenceInputStream(new ByteArrayInputStream(header, 0, headerLength), source);
+
+        if (!root.isDirectory() && !root.mkdirs()) {
+            throw new IOException("No se pudo crear " + root);
+        }
+
+        MessageDigest digest = newDigest();
+        File temp = File.createTempFile("img", TEMP_SUFFIX, root);
+        long size = 0;
+        try {
+            try (OutputStream out = new FileOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String hash = toHex(digest.digest());
+            String path = hash.substring(0, 2) + "/" + hash;
+            File target = new File(root, path);
+
+            // Misma imagen ya guardada (otra página, otro capítulo): se reutiliza
+            if (target.exists()) {
+                target.setLastModified(System.currentTimeMillis());
+                return new StoredImage(path, hash, size, mimeType);
+            }
+
+            File parent = target.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("No se pudo crear " + parent);
+            }
+            if (!temp.renameTo(target)) {
+                throw new IOException("No se pudo mover la imagen a " + target);
+            }
+            return new StoredImage(path, hash, size, mimeType);
+        } finally {
+            if (temp.exists() && !temp.delete()) {
+                Log.w(TAG, "No se pudo borrar el temporal " + temp);
+            }
+        }
+    }
+
+    // Ruta relativa (la de la base de datos) -> fichero; null si no existe
+    public File resolve(String path) {
+        if (path == null || path.isEmpty()) return null;
+        File file = new File(root, path);
+        return file.isFile() ? file : null;
+    }
+
+    // Borra las imágenes que ya no referencia ninguna fila, y temporales huérfanos
+    public int retainOnly(Set<String> referencedPaths) {
+        File[] buckets = root.listFiles();
+        if (buckets == null) return 0;
+
+        long cutoff = System.currentTimeMillis() - CLEANUP_GRACE_MS;
+        int deleted = 0;
+        for (File bucket : buckets) {
+            if (bucket.isFile()) {
+                if (bucket.getName().endsWith(TEMP_SUFFIX) && bucket.lastModified() < cutoff && bucket.delete()) {
+                    deleted++;
+                }
+                continue;
+            }
+            File[] files = bucket.listFiles();
+            if (files == null) continue;
+            for (File file : files) {
+                String path = bucket.getName() + "/" + file.getName();
+                if (!referencedPaths.contains(path) && file.lastModified() < cutoff && file.delete()) {
+                    deleted++;
+                }
+            }
+        }
+        Log.d(TAG, "Imágenes sin referencia borradas: " + deleted);
+        return deleted;
+    }
+
+    private static int readHeader(InputStream in, byte[] header) throws IOException {
+        int total = 0;
+        while (total < header.length) {
+            int read = in.read(header, total, header.length - total);
+            if (read == -1) break;
+            total += read;
+        }
+        return total;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.lectormanga.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.example.lectormanga.model.ChapterSortKey;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Historial de versiones de manga_reader.db. Cada cambio de DATABASE_VERSION
+ * añade aquí su paso; nunca se recrean las tablas, así que una actualización no
+ * borra capítulos descargados. Los pasos ya publicados no se modifican.
+ */
+final class SchemaMigrations {
+
+    private static final String TAG = "SchemaMigrations";
+
+    private SchemaMigrations() {}
+
+    static List<Migration> all() {
+        List<Migration> migrations = new ArrayList<>();
+        migrations.add(new ReconcileToV3(1));
+        migrations.add(new ReconcileToV3(2));
+        migrations.add(MIGRATION_3_4);
+        migrations.add(MIGRATION_4_5);
+        migrations.add(MIGRATION_5_6);
+        migrations.add(MIGRATION_6_7);
+        migrations.add(MIGRATION_7_8);
+        migrations.add(MIGRATION_8_9);
+        migrations.add(MIGRATION_9_10);
+        return migrations;
+    }
+
+    // Aplica los pasos en orden, cada uno en su transacción. Si uno falla se lanza la
+    // excepción: SQLiteOpenHelper deshace la actualización y la versión no cambia
+    static void migrate(SQLiteDatabase db, int fromVersion, int toVersion, List<Migration> migrations) {
+        int version = fromVersion;
+        while (version < toVersion) {
+            Migration step = findStep(migrations, version, toVersion);
+            if (step == null) {
+                throw new IllegalStateException("No hay migración desde la versión " + version +
+                        " hasta la " + toVersion);
+            }
+            db.beginTransaction();
+            try {
+                step.migrate(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            Log.d(TAG, "✅ Esquema migrado v" + step.startVersion + " -> v" + step.endVersion);
+            version = step.endVersion;
+        }
+    }
+
+    // El paso que sale de esta versión y llega más lejos sin pasarse
+    private static Migration findStep(List<Migration> migrations, int version, int toVersion) {
+        Migration best = null;
+        for (Migration migration : migrations) {
+            if (migration.startVersion == version && migration.endVersion <= toVersion &&
+                    (best == null || migration.endVersion > best.endVersion)) {
+                best = migration;
+            }
+        }
+        return best;
+    }
+
+    // ========== PASOS ==========
+
+    // v1/v2 -> v3. De esas versiones no queda el esquema exacto: se crean las tablas que
+    // falten con el esquema de v3 y se añaden las columnas ausentes a las que existan
+    static class ReconcileToV3 extends Migration {
+
+        private static final String[] READ_MANGAS_COLUMNS = {
+                "manga_id TEXT", "title TEXT", "description TEXT", "cover_url TEXT",
+                "cover_image TEXT", "read_date TEXT", "last_chapter TEXT", "status TEXT"};
+        private static final String[] CHAPTERS_COLUMNS = {
+                "manga_id TEXT", "chapter_number TEXT", "chapter_title TEXT",
+                "pages_count INTEGER", "published_at TEXT"};
+        private static final String[] PAGES_COLUMNS = {
+                "chapter_id TEXT", "page_number INTEGER", "image_url TEXT", "image_data TEXT"};
+
+        ReconcileToV3(int startVersion) {
+            super(startVersion, 3);
+        }
+
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS read_mangas(" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, manga_id TEXT UNIQUE, title TEXT, " +
+                    "description TEXT, cover_url TEXT, cover_image TEXT, read_date TEXT, " +
+                    "last_chapter TEXT, status TEXT)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS chapters(" +
+                    "chapter_id TEXT PRIMARY KEY, manga_id TEXT, chapter_number TEXT, " +
+                    "chapter_title TEXT, pages_count INTEGER, published_at TEXT, " +
+                    "FOREIGN KEY(manga_id) REFERENCES read_mangas(manga_id) ON DELETE CASCADE)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS pages(" +
+                    "page_id INTEGER PRIMARY KEY AUTOINCREMENT, chapter_id TEXT, page_number INTEGER, " +
+                    "image_url TEXT, image_data TEXT, " +
+                    "FOREIGN KEY(chapter_id) REFERENCES chapters(chapter_id) ON DELETE CASCADE)");
+
+            addMissingColumns(db, "read_mangas", READ_MANGAS_COLUMNS);
+            addMissingColumns(db, "chapters", CHAPTERS_COLUMNS);
+            addMissingColumns(db, "pages", PAGES_COLUMNS);
+        }
+
+        private static void addMissingColumns(SQLiteDatabase db, String table, String[] definitions) {
+            Set<String> existing = columnNames(db, table);
+            for (String definition : definitions) {
+                String name = definition.substring(0, definition.indexOf(' '));
+                if (!existing.contains(name)) {
+                    db.execSQL("ALTER TABLE " + table + " ADD COLUMN " + definition);
+                }
+            }
+        }
+    }
+
+    // v3 -> v4: avisos de capítulos nuevos
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("ALTER TABLE read_mangas ADD COLUMN new_chapters INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE read_mangas ADD COLUMN updates_checked_at TEXT");
+        }
+    };
+
+    // v4 -> v5: las imágenes Base64 pasan a ficheros en PageStore. Aquí solo las columnas y
+    // la marca: decodificar y escribir cada imagen lo hace LegacyImageMigration en segundo
+    // plano tras abrir, no dentro de onUpgrade en el hilo que abra la base de datos
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("ALTER TABLE read_mangas ADD COLUMN cover_path TEXT");
+            db.execSQL("ALTER TABLE pages ADD COLUMN file_path TEXT");
+            db.execSQL("ALTER TABLE pages ADD COLUMN content_hash TEXT");
+            db.execSQL("ALTER TABLE pages ADD COLUMN byte_size INTEGER");
+            db.execSQL("ALTER TABLE pages ADD COLUMN mime_type TEXT");
+            LegacyImageMigration.markPending(db);
+        }
+    };
+
+    // v5 -> v6: índices. Antes se quitan las páginas duplicadas que dejaban los
+    // re-guardados (se queda la última de cada capítulo/número)
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("DELETE FROM pages WHERE page_id NOT IN (" +
+                    "SELECT MAX(page_id) FROM pages GROUP BY chapter_id, page_number)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_chapters_manga_id ON chapters(manga_id)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS idx_pages_chapter_page ON pages(chapter_id, page_number)");
+        }
+    };
+
+    // v6 -> v7: volumen y clave numérica de orden; el índice por manga pasa a incluirla.
+    // Las filas antiguas no tienen volumen: se ordenan solo por número de capítulo
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("ALTER TABLE chapters ADD COLUMN volume TEXT");
+            db.execSQL("ALTER TABLE chapters ADD COLUMN sort_key INTEGER");
+
+            SQLiteStatement update = db.compileStatement(
+                    "UPDATE chapters SET sort_key = ? WHERE chapter_id = ?");
+            Cursor cursor = db.rawQuery("SELECT chapter_id, chapter_number FROM chapters", null);
+            try {
+                while (cursor.moveToNext()) {
+                    update.bindLong(1, ChapterSortKey.of(null, cursor.getString(1)));
+                    update.bindString(2, cursor.getString(0));
+                    update.executeUpdateDelete();
+                }
+            } finally {
+                cursor.close();
+                update.close();
+            }
+
+            db.execSQL("DROP INDEX IF EXISTS idx_chapters_manga_id");
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_chapters_manga_sort ON chapters(manga_id, sort_key)");
+        }
+    };
+
+    // v7 -> v8: índices para paginar biblioteca y capítulos por clave. La clave de la
+    // biblioteca es (read_date, id) y no admite NULL: las filas sin fecha van al final con ''
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("UPDATE read_mangas SET read_date = '' WHERE read_date IS NULL");
+            db.execSQL("DROP INDEX IF EXISTS idx_chapters_manga_sort");
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_chapters_manga_sort ON chapters(manga_id, sort_key, chapter_id)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_read_mangas_read_date ON read_mangas(read_date)");
+        }
+    };
+
+    // v8 -> v9: índice de texto completo de la biblioteca, sus triggers y la carga inicial
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            String tokenizer = DatabaseHelper.ftsTokenizer(db);
+            db.execSQL("CREATE VIRTUAL TABLE manga_fts USING fts4(title, description, " + tokenizer + ", prefix=\"2,3\")");
+            db.execSQL("CREATE VIRTUAL TABLE chapter_fts USING fts4(chapter_title, " + tokenizer + ", prefix=\"2,3\")");
+
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS manga_fts_before_insert BEFORE INSERT ON read_mangas BEGIN " +
+                    "DELETE FROM manga_fts WHERE docid = (SELECT id FROM read_mangas WHERE manga_id = new.manga_id); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS manga_fts_after_insert AFTER INSERT ON read_mangas BEGIN " +
+                    "INSERT INTO manga_fts(docid, title, description) VALUES (new.id, new.title, new.description); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS manga_fts_after_update AFTER UPDATE OF title, description ON read_mangas BEGIN " +
+                    "UPDATE manga_fts SET title = new.title, description = new.description WHERE docid = old.id; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS manga_fts_after_delete AFTER DELETE ON read_mangas BEGIN " +
+                    "DELETE FROM manga_fts WHERE docid = old.id; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS chapter_fts_before_insert BEFORE INSERT ON chapters BEGIN " +
+                    "DELETE FROM chapter_fts WHERE docid = (SELECT rowid FROM chapters WHERE chapter_id = new.chapter_id); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS chapter_fts_after_insert AFTER INSERT ON chapters BEGIN " +
+                    "INSERT INTO chapter_fts(docid, chapter_title) SELECT new.rowid, new.chapter_title WHERE new.chapter_title <> ''; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS chapter_fts_after_update AFTER UPDATE OF chapter_title ON chapters BEGIN " +
+                    "DELETE FROM chapter_fts WHERE docid = old.rowid; " +
+                    "INSERT INTO chapter_fts(docid, chapter_title) SELECT new.rowid, new.chapter_title WHERE new.chapter_title <> ''; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS chapter_fts_after_delete AFTER DELETE ON chapters BEGIN " +
+                    "DELETE FROM chapter_fts WHERE docid = old.rowid; END");
+
+            db.execSQL("INSERT INTO manga_fts(docid, title, description) SELECT id, title, description FROM read_mangas");
+            db.execSQL("INSERT INTO chapter_fts(docid, chapter_title) SELECT rowid, chapter_title FROM chapters" +
+                    " WHERE chapter_title <> ''");
+        }
+    };
+
+    // v9 -> v10: sort_key pasa a ordenar por número y usar el volumen solo para desempatar.
+    // Con la clave anterior los capítulos sin volumen (todos los guardados antes de la v7)
+    // iban detrás de los que sí lo tenían
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            SQLiteStatement update = db.compileStatement(
+                    "UPDATE chapters SET sort_key = ? WHERE chapter_id = ?");
+            Cursor cursor = db.rawQuery("SELECT chapter_id, volume, chapter_number FROM chapters", null);
+            try {
+                while (cursor.moveToNext()) {
+                    update.bindLong(1, ChapterSortKey.of(cursor.getString(1), cursor.getString(2)));
+                    update.bindString(2, cursor.getString(0));
+                    update.executeUpdateDelete();
+                }
+            } finally {
+                cursor.close();
+                update.close();
+            }
+        }
+    };
+
+    static Set<String> columnNames(SQLiteDatabase db, String table) {
+        Set<String> names = new HashSet<>();
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        int nameIndex = cursor.getColumnIndexOrThrow("name");
+        while (cursor.moveToNext()) {
+            names.add(cursor.getString(nameIndex));
+        }
+        cursor.close();
+        return names;
+    }
+}
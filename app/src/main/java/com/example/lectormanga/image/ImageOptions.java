@@ -0,0 +1,48 @@
+package com.example.lectormanga.image;
+
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.lectormanga.R;
+
+/**
+ * Opciones de Glide por tipo de imagen.
+ *
+ * Portadas: miniaturas pequeñas en RGB_565 (la mitad de memoria por píxel) y caché
+ * automática. Páginas: ARGB_8888 para no perder tramas ni texto fino. En disco, las remotas
+ * solo guardan el original (AUTOMATIC, sin copias redimensionadas); las descargadas (file://)
+ * ya están en PageStore y no se copian a image_cache.
+ */
+public final class ImageOptions {
+
+    private static final RequestOptions COVER = new RequestOptions()
+            .format(DecodeFormat.PREFER_RGB_565)
+            .diskCacheStrategy(DiskCacheStrategy.AUTOMATIC)
+            .placeholder(R.drawable.placeholder_manga)
+            .error(R.drawable.placeholder_manga)
+            .lock();
+
+    private static final RequestOptions PAGE = new RequestOptions()
+            .format(DecodeFormat.PREFER_ARGB_8888)
+            .diskCacheStrategy(DiskCacheStrategy.AUTOMATIC)
+            .placeholder(R.drawable.placeholder_manga)
+            .error(R.drawable.placeholder_manga)
+            .lock();
+
+    private static final RequestOptions LOCAL_PAGE = new RequestOptions()
+            .format(DecodeFormat.PREFER_ARGB_8888)
+            .diskCacheStrategy(DiskCacheStrategy.NONE)
+            .placeholder(R.drawable.placeholder_manga)
+            .error(R.drawable.placeholder_manga)
+            .lock();
+
+    private ImageOptions() {}
+
+    public static RequestOptions cover() {
+        return COVER;
+    }
+
+    public static RequestOptions page(String pageUrl) {
+        return pageUrl.startsWith("file:") ? LOCAL_PAGE : PAGE;
+    }
+}
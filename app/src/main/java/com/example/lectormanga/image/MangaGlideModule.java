@@ -0,0 +1,71 @@
+package com.example.lectormanga.image;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.example.lectormanga.api.MangaDexApi;
+
+import java.io.InputStream;
+
+/**
+ * Configuración de Glide para toda la app.
+ *
+ * Las imágenes se descargan con el OkHttpClient de MangaDexApi (mismo pool de conexiones,
+ * mismas métricas, que alimentan la elección de calidad del lector) en lugar de la pila
+ * HttpUrlConnection de Glide. Los presupuestos de memoria y disco son explícitos: un
+ * capítulo largo no debe expulsar de la caché las portadas ni las páginas recientes.
+ */
+@GlideModule
+public final class MangaGlideModule extends AppGlideModule {
+
+    private static final String TAG = "MangaGlideModule";
+
+    // Páginas originales en disco: unos cuantos capítulos completos en "data"
+    private static final String DISK_CACHE_DIR = "image_cache";
+    private static final long DISK_CACHE_SIZE = 250L * 1024 * 1024; // 250 MB
+
+    // Memoria medida en pantallas completas de bitmaps: lo visible más las vecinas del pager
+    private static final float MEMORY_CACHE_SCREENS = 3f;
+    private static final float BITMAP_POOL_SCREENS = 2f;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_SIZE));
+        builder.setLogLevel(Log.ERROR);
+
+        Log.d(TAG, "✅ Glide: memoria " + calculator.getMemoryCacheSize() / 1024 + " KB, pool " +
+                calculator.getBitmapPoolSize() / 1024 + " KB, disco " + DISK_CACHE_SIZE / (1024 * 1024) + " MB");
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class,
+                new OkHttpUrlLoader.Factory(MangaDexApi.getInstance(context).getImageClient()));
+    }
+
+    // Sin módulos antiguos declarados en el manifest: evita el escaneo al arrancar
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
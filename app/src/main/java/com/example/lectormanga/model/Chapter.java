@@ -4,9 +4,13 @@ public class Chapter {
     private String id;
     private String title;
     private String chapterNumber;
+    private String volume;
     private String pages;
     private String publishedAt;
     private String mangaId;
+    // Se calcula una vez: ORDER la pide en cada comparación
+    private long sortKey;
+    private boolean sortKeyKnown;
 
     // Constructor vacío
     public Chapter() {}
@@ -44,6 +48,31 @@ public class Chapter {
 
     public void setChapterNumber(String chapterNumber) {
         this.chapterNumber = chapterNumber;
+        sortKeyKnown = false;
+    }
+
+    public String getVolume() {
+        return volume;
+    }
+
+    public void setVolume(String volume) {
+        this.volume = volume;
+        sortKeyKnown = false;
+    }
+
+    // Orden de lectura (ver ChapterSortKey); se calcula a partir de volumen y número
+    public long getSortKey() {
+        if (!sortKeyKnown) {
+            sortKey = ChapterSortKey.of(volume, chapterNumber);
+            sortKeyKnown = true;
+        }
+        return sortKey;
+    }
+
+    // La guardada en la base de datos (sort_key): la paginación por clave usa esa, no la recalculada
+    public void setSortKey(long sortKey) {
+        this.sortKey = sortKey;
+        sortKeyKnown = true;
     }
 
     public String getPages() {
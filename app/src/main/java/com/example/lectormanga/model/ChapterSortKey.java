@@ -0,0 +1,91 @@
+package com.example.lectormanga.model;
+
+import java.util.Comparator;
+
+/**
+ * Clave numérica de orden de un capítulo: (capítulo, subcapítulo, volumen) en un long.
+ *
+ * MangaDex da volumen y capítulo como texto ("3", "10.5", "10.5a", "" o null) y
+ * ordenar por CAST(... AS REAL) ni usa índices ni respeta sufijos. La clave se
+ * calcula al guardar/parsear y se compara como número:
+ *
+ *   parte entera (20 bits) | decimales en milésimas (10 bits) | sufijo (8 bits) | volumen (14 bits)
+ *
+ * El volumen solo desempata el mismo número: muchos capítulos (los recientes, los guardados
+ * antes de la v7) no lo tienen, y si mandara un capítulo sin volumen iría detrás de otro
+ * posterior que sí lo tiene. Sin número se ordena al final.
+ */
+public final class ChapterSortKey {
+
+    private static final int VOLUME_BITS = 14;
+    private static final int NUMBER_BITS = 20;
+    private static final int FRACTION_BITS = 10;
+    private static final int SUFFIX_BITS = 8;
+
+    private static final long MAX_VOLUME = (1L << VOLUME_BITS) - 1;
+    private static final long MAX_NUMBER = (1L << NUMBER_BITS) - 1;
+    private static final int FRACTION_DIGITS = 3; // 999 < 2^10
+    private static final int OTHER_SUFFIX = 27; // tras 'a'..'z'
+
+    public static final Comparator<Chapter> ORDER =
+            (a, b) -> Long.compare(a.getSortKey(), b.getSortKey());
+
+    private ChapterSortKey() {}
+
+    public static long of(String volume, String chapter) {
+        long volumeKey = MAX_VOLUME;
+        String v = volume != null ? volume.trim() : "";
+        int volumeDigits = leadingDigits(v, 0);
+        if (volumeDigits > 0) {
+            volumeKey = Math.min(parseDigits(v, 0, volumeDigits), MAX_VOLUME - 1);
+        }
+
+        long number = MAX_NUMBER;
+        long fraction = 0;
+        long suffix = 0;
+        String c = chapter != null ? chapter.trim() : "";
+        int digits = leadingDigits(c, 0);
+        if (digits > 0) {
+            number = Math.min(parseDigits(c, 0, digits), MAX_NUMBER - 1);
+            int pos = digits;
+
+            // "10.5" -> 500 milésimas, "10.05" -> 50
+            if (pos < c.length() && c.charAt(pos) == '.') {
+                int fractionDigits = leadingDigits(c, pos + 1);
+                for (int i = 0; i < FRACTION_DIGITS; i++) {
+                    fraction *= 10;
+                    if (i < fractionDigits) {
+                        fraction += c.charAt(pos + 1 + i) - '0';
+                    }
+                }
+                pos += 1 + fractionDigits;
+            }
+
+            // "10.5a" va después de "10.5" y antes de "10.5b"
+            if (pos < c.length()) {
+                char next = Character.toLowerCase(c.charAt(pos));
+                suffix = next >= 'a' && next <= 'z' ? next - 'a' + 1 : OTHER_SUFFIX;
+            }
+        }
+
+        return ((((number << FRACTION_BITS) | fraction) << SUFFIX_BITS | suffix) << VOLUME_BITS) | volumeKey;
+    }
+
+    private static int leadingDigits(String text, int start) {
+        int end = start;
+        while (end < text.length() && text.charAt(end) >= '0' && text.charAt(end) <= '9') {
+            end++;
+        }
+        return end - start;
+    }
+
+    // Sin desbordar con números absurdos: se satura y el llamador recorta al máximo
+    private static long parseDigits(String text, int start, int count) {
+        long value = 0;
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+            if (value > MAX_NUMBER) return MAX_NUMBER;
+        }
+        return value;
+    }
+}
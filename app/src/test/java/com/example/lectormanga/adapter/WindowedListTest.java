@@ -0,0 +1,165 @@
+package com.example.lectormanga.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+public class WindowedListTest {
+
+    // Filas 0..rows-1 ordenadas; la clave de una fila es su valor
+    private static class KeysetSource implements WindowedList.Source<Integer> {
+        int rows;
+        final List<String> loads = new ArrayList<>();
+
+        KeysetSource(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int count() {
+            return rows;
+        }
+
+        @Override
+        public List<Integer> load(Integer after, int skip, int limit) {
+            loads.add(after + "+" + skip);
+            List<Integer> window = new ArrayList<>();
+            for (int row = (after == null ? 0 : after + 1) + skip; row < rows && window.size() < limit; row++) {
+                window.add(row);
+            }
+            return window;
+        }
+    }
+
+    private static class Recorder implements WindowedList.Listener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onReset(int size) {
+            events.add("reset " + size);
+        }
+
+        @Override
+        public void onRangeLoaded(int start, int count) {
+            events.add("range " + start + "+" + count);
+        }
+    }
+
+    // Las cargas en segundo plano esperan aquí hasta que el test las ejecuta
+    private final Queue<Runnable> background = new ArrayDeque<>();
+
+    private WindowedList<Integer> list(KeysetSource source, Recorder recorder) {
+        WindowedList<Integer> list = new WindowedList<>(source, 10, 1, background::add, Runnable::run);
+        list.setListener(recorder);
+        return list;
+    }
+
+    private void runBackground() {
+        while (!background.isEmpty()) {
+            background.poll().run();
+        }
+    }
+
+    @Test
+    public void refresh_countsAndLoadsFirstWindow() {
+        KeysetSource source = new KeysetSource(35);
+        Recorder recorder = new Recorder();
+        WindowedList<Integer> list = list(source, recorder);
+
+        list.refresh();
+        runBackground();
+
+        assertEquals(35, list.size());
+        assertEquals(Integer.valueOf(3), list.get(3));
+        assertEquals("[reset 35]", recorder.events.toString());
+        assertEquals("[null+0]", source.loads.toString());
+    }
+
+    @Test
+    public void scrolling_loadsNextWindowByKeyFromPreviousOne() {
+        KeysetSource source = new KeysetSource(35);
+        Recorder recorder = new Recorder();
+        WindowedList<Integer> list = list(source, recorder);
+        list.refresh();
+        runBackground();
+
+        // Cerca del final de la ventana 0 ya se pide la 1
+        list.get(8);
+        runBackground();
+        assertEquals(Integer.valueOf(15), list.get(15));
+        assertEquals("[null+0, 9+0]", source.loads.toString());
+        assertEquals("range 10+10", recorder.events.get(1));
+    }
+
+    @Test
+    public void jumpingAhead_skipsFromNearestKnownWindow() {
+        KeysetSource source = new KeysetSource(100);
+        Recorder recorder = new Recorder();
+        WindowedList<Integer> list = list(source, recorder);
+        list.refresh();
+        runBackground();
+
+        assertNull(list.get(55));
+        runBackground();
+        assertEquals(Integer.valueOf(55), list.get(55));
+        assertEquals("[null+0, 9+40]", source.loads.toString());
+    }
+
+    @Test
+    public void farWindows_areDroppedAndReloadedByKey() {
+        KeysetSource source = new KeysetSource(100);
+        Recorder recorder = new Recorder();
+        WindowedList<Integer> list = list(source, recorder);
+        list.refresh();
+        runBackground();
+
+        for (int position = 0; position < 100; position += 5) {
+            list.get(position);
+            runBackground();
+        }
+        source.loads.clear();
+
+        // La ventana 0 se descartó; la 1 se vuelve a leer desde la clave de la 0
+        assertNull(list.get(0));
+        assertNull(list.get(12));
+        runBackground();
+        assertEquals(Integer.valueOf(12), list.get(12));
+        assertEquals("[null+0, 9+0]", source.loads.toString());
+    }
+
+    @Test
+    public void shorterWindowThanCounted_shrinksList() {
+        KeysetSource source = new KeysetSource(30);
+        Recorder recorder = new Recorder();
+        WindowedList<Integer> list = list(source, recorder);
+        list.refresh();
+        runBackground();
+
+        source.rows = 14;
+        list.get(9);
+        runBackground();
+
+        assertEquals(14, list.size());
+        assertEquals("reset 14", recorder.events.get(recorder.events.size() - 1));
+    }
+
+    @Test
+    public void resultsAfterClose_areIgnored() {
+        KeysetSource source = new KeysetSource(30);
+        Recorder recorder = new Recorder();
+        WindowedList<Integer> list = list(source, recorder);
+
+        list.refresh();
+        list.close();
+        runBackground();
+
+        assertEquals(0, list.size());
+        assertEquals("[]", recorder.events.toString());
+    }
+}
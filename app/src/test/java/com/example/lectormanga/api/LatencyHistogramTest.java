@@ -0,0 +1,74 @@
+package com.example.lectormanga.api;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketFor_boundsAreInclusive() {
+        assertEquals(0, LatencyHistogram.bucketFor(0));
+        assertEquals(0, LatencyHistogram.bucketFor(5));
+        assertEquals(1, LatencyHistogram.bucketFor(6));
+        assertEquals(1, LatencyHistogram.bucketFor(10));
+        assertEquals(7, LatencyHistogram.bucketFor(1000));
+        assertEquals(8, LatencyHistogram.bucketFor(1001));
+        assertEquals(10, LatencyHistogram.bucketFor(10000));
+    }
+
+    @Test
+    public void bucketFor_overflowGoesToTheLastBucket() {
+        int overflow = LatencyHistogram.BUCKET_BOUNDS_MS.length;
+        assertEquals(overflow, LatencyHistogram.bucketFor(10001));
+        assertEquals(overflow, LatencyHistogram.bucketFor(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles_reportTheUpperBoundOfTheirBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.record(ms);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.count);
+        // 1..100: cubetas de 5, 5, 15, 25 y 50 muestras
+        assertEquals(5, snapshot.getPercentileMs(0.0));
+        assertEquals(5, snapshot.getPercentileMs(0.05));
+        assertEquals(10, snapshot.getPercentileMs(0.06));
+        assertEquals(50, snapshot.getPercentileMs(0.5));
+        assertEquals(100, snapshot.getPercentileMs(0.51));
+        assertEquals(100, snapshot.getPercentileMs(0.9));
+        assertEquals(100, snapshot.getPercentileMs(1.0));
+        assertEquals(50, snapshot.getMeanMs());
+        assertEquals(100, snapshot.maxMs);
+    }
+
+    @Test
+    public void percentiles_inTheOverflowBucketReportTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(20);
+        histogram.record(15_000);
+        histogram.record(42_000);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(2, snapshot.counts[LatencyHistogram.BUCKET_BOUNDS_MS.length]);
+        assertEquals(25, snapshot.getPercentileMs(0.3));
+        assertEquals(42_000, snapshot.getPercentileMs(0.5));
+        assertEquals(42_000, snapshot.getPercentileMs(0.99));
+        assertEquals(19_006, snapshot.getMeanMs());
+    }
+
+    @Test
+    public void emptyOrNegativeSamples_reportZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-3);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.getMeanMs());
+        assertEquals(0, snapshot.getPercentileMs(0.5));
+        assertEquals(0, snapshot.maxMs);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.lectormanga.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.lectormanga.model.Chapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.HttpUrl;
+
+public class LibraryUpdateCheckerTest {
+
+    private static final String SINCE = "2024-01-01T00:00:00";
+
+    private static Chapter chapter(String mangaId, String number, String publishAt) {
+        Chapter chapter = new Chapter();
+        chapter.setMangaId(mangaId);
+        chapter.setChapterNumber(number);
+        chapter.setPublishedAt(publishAt);
+        return chapter;
+    }
+
+    private static class Recorder implements LibraryUpdateChecker.Callback {
+        LibraryUpdateChecker.Result result;
+        Exception error;
+
+        @Override
+        public void onProgress(int completedBatches, int totalBatches) {}
+
+        @Override
+        public void onComplete(LibraryUpdateChecker.Result result) {
+            this.result = result;
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            this.error = e;
+        }
+    }
+
+    @Test
+    public void largeLibrary_usesOneRequestPerBatch() {
+        Map<String, String> targets = new LinkedHashMap<>();
+        for (int i = 0; i < 300; i++) {
+            targets.put("manga-" + i, SINCE);
+        }
+        List<String> urls = new ArrayList<>();
+        LibraryUpdateChecker checker = new LibraryUpdateChecker("https://api.mangadex.org", (url, handle, callback) -> {
+            urls.add(url);
+            callback.onSuccess(new MangaDexParser.ChapterFeedPage(Collections.emptyList(), 0, 0));
+        });
+
+        Recorder recorder = new Recorder();
+        ApiRequest handle = checker.check(targets, recorder);
+
+        assertEquals(300 / LibraryUpdateChecker.BATCH_SIZE, urls.size());
+        assertEquals(300, recorder.result.newChapters.size());
+        assertTrue(urls.get(0).contains("publishAtSince=2024-01-01T00%3A00%3A00"));
+        // Terminada la comprobación el handle ya no retiene el Run
+        assertTrue(handle.isCompleted());
+    }
+
+    @Test
+    public void countsDistinctNumbersNewerThanEachMangasOwnCheck() {
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("a", "2024-01-01T00:00:00");
+        targets.put("b", "2024-03-01T00:00:00");
+        List<Chapter> chapters = new ArrayList<>();
+        chapters.add(chapter("a", "10", "2024-02-01T10:00:00+00:00"));
+        chapters.add(chapter("a", "10", "2024-02-02T10:00:00+00:00"));
+        chapters.add(chapter("a", "11", "2024-02-03T10:00:00+00:00"));
+        chapters.add(chapter("b", "5", "2024-02-03T10:00:00+00:00"));
+        chapters.add(chapter("b", "6", "2024-03-05T10:00:00+00:00"));
+
+        LibraryUpdateChecker checker = new LibraryUpdateChecker("https://api.mangadex.org", (url, handle, callback) ->
+                callback.onSuccess(new MangaDexParser.ChapterFeedPage(chapters, chapters.size(), chapters.size())));
+
+        Recorder recorder = new Recorder();
+        checker.check(targets, recorder);
+
+        assertEquals(Integer.valueOf(2), recorder.result.newChapters.get("a"));
+        assertEquals(Integer.valueOf(1), recorder.result.newChapters.get("b"));
+    }
+
+    // Servidor falso: capítulos ordenados por publishAt, filtrados por publishAtSince y paginados
+    private static LibraryUpdateChecker.PageFetcher feed(List<Chapter> chapters, List<String> urls) {
+        return (url, handle, callback) -> {
+            urls.add(url);
+            HttpUrl parsed = HttpUrl.get(url);
+            String since = parsed.queryParameter("publishAtSince");
+            int offset = Integer.parseInt(parsed.queryParameter("offset"));
+            int limit = Integer.parseInt(parsed.queryParameter("limit"));
+            assertTrue(offset + limit <= LibraryUpdateChecker.MAX_WINDOW);
+
+            List<Chapter> matching = new ArrayList<>();
+            for (Chapter chapter : chapters) {
+                if (chapter.getPublishedAt().substring(0, since.length()).compareTo(since) >= 0) {
+                    matching.add(chapter);
+                }
+            }
+            List<Chapter> page = matching.subList(Math.min(offset, matching.size()), Math.min(offset + limit, matching.size()));
+            callback.onSuccess(new MangaDexParser.ChapterFeedPage(new ArrayList<>(page), page.size(), matching.size()));
+        };
+    }
+
+    @Test
+    public void moreThanMaxWindow_keepsPagingFromTheLastSeenDate() {
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("a", SINCE);
+        long start = 1704067200000L + 60_000; // 2024-01-01T00:01:00Z
+        List<Chapter> chapters = new ArrayList<>();
+        for (int i = 0; i < 25_000; i++) {
+            String publishAt = LibraryUpdateChecker.formatSince(new Date(start + i * 60_000L)) + "+00:00";
+            chapters.add(chapter("a", String.valueOf(i), publishAt));
+        }
+        List<String> urls = new ArrayList<>();
+        LibraryUpdateChecker checker = new LibraryUpdateChecker("https://api.mangadex.org", feed(chapters, urls));
+
+        Recorder recorder = new Recorder();
+        checker.check(targets, recorder);
+
+        // Los más nuevos (los últimos en orden ascendente) también cuentan
+        assertEquals(0, recorder.result.failedBatches);
+        assertEquals(Integer.valueOf(25_000), recorder.result.newChapters.get("a"));
+        assertEquals(recorder.result.requestCount, urls.size());
+    }
+
+    @Test
+    public void windowThatCannotAdvance_leavesTheBatchUnchecked() {
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("a", SINCE);
+        List<Chapter> chapters = new ArrayList<>();
+        for (int i = 0; i < LibraryUpdateChecker.MAX_WINDOW + 1; i++) {
+            chapters.add(chapter("a", String.valueOf(i), "2024-02-01T10:00:00+00:00"));
+        }
+        LibraryUpdateChecker checker = new LibraryUpdateChecker("https://api.mangadex.org", feed(chapters, new ArrayList<>()));
+
+        Recorder recorder = new Recorder();
+        checker.check(targets, recorder);
+
+        assertNotNull(recorder.error);
+        assertNull(recorder.result);
+    }
+
+    @Test
+    public void failedBatchesAreLeftUnchecked() {
+        Map<String, String> targets = new LinkedHashMap<>();
+        for (int i = 0; i < LibraryUpdateChecker.BATCH_SIZE + 1; i++) {
+            targets.put("manga-" + i, SINCE);
+        }
+        int[] calls = {0};
+        LibraryUpdateChecker checker = new LibraryUpdateChecker("https://api.mangadex.org", (url, handle, callback) -> {
+            if (calls[0]++ == 0) {
+                callback.onFailure(new Exception("HTTP 500"));
+            } else {
+                callback.onSuccess(new MangaDexParser.ChapterFeedPage(Collections.emptyList(), 0, 0));
+            }
+        });
+
+        Recorder recorder = new Recorder();
+        checker.check(targets, recorder);
+
+        assertEquals(1, recorder.result.failedBatches);
+        assertEquals(1, recorder.result.newChapters.size());
+    }
+}
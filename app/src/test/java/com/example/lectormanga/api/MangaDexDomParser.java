@@ -0,0 +1,130 @@
+package com.example.lectormanga.api;
+
+import com.example.lectormanga.model.Chapter;
+import com.example.lectormanga.model.ChapterSortKey;
+import com.example.lectormanga.model.Manga;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parser original de MangaDex con org.json (árbol completo en memoria). Solo sirve de
+ * referencia: los tests comparan con él los parsers en streaming de MangaDexParser y
+ * el módulo :benchmark lo mide frente a ellos. No forma parte de la app.
+ */
+public final class MangaDexDomParser {
+
+    private MangaDexDomParser() {}
+
+    public static List<Manga> parseMangaResponse(String jsonData) throws JSONException {
+        List<Manga> mangas = new ArrayList<>();
+        JSONObject jsonObject = new JSONObject(jsonData);
+        JSONArray dataArray = jsonObject.getJSONArray("data");
+
+        for (int i = 0; i < dataArray.length(); i++) {
+            JSONObject mangaObj = dataArray.getJSONObject(i);
+            JSONObject attributes = mangaObj.getJSONObject("attributes");
+
+            Manga manga = new Manga();
+            manga.setId(mangaObj.getString("id"));
+
+            JSONObject title = attributes.getJSONObject("title");
+            String titleText = title.optString("en",
+                    title.optString("ja-ro",
+                            title.optString("ja", MangaDexParser.NO_TITLE)));
+            manga.setTitle(titleText);
+
+            JSONObject description = attributes.optJSONObject("description");
+            String descriptionText = "";
+            if (description != null) {
+                descriptionText = description.optString("en",
+                        description.optString("es", MangaDexParser.NO_DESCRIPTION));
+            }
+            manga.setDescription(MangaDexParser.formatDescription(descriptionText));
+
+            JSONArray relationships = mangaObj.getJSONArray("relationships");
+            for (int j = 0; j < relationships.length(); j++) {
+                JSONObject rel = relationships.getJSONObject(j);
+                if ("cover_art".equals(rel.getString("type"))) {
+                    if (rel.has("attributes")) {
+                        String fileName = rel.getJSONObject("attributes").optString("fileName", "");
+                        if (!fileName.isEmpty()) {
+                            manga.setCoverUrl(MangaDexParser.COVERS_URL + manga.getId() + "/" + fileName + ".256.jpg");
+                        }
+                    }
+                    break;
+                }
+            }
+
+            mangas.add(manga);
+        }
+
+        return mangas;
+    }
+
+    public static List<Chapter> parseChapterResponse(String jsonData) throws JSONException {
+        JSONObject jsonObject = new JSONObject(jsonData);
+        return parseChapterArray(jsonObject.getJSONArray("data"));
+    }
+
+    public static MangaDexParser.ChapterFeedPage parseChapterFeedPage(String jsonData) throws JSONException {
+        JSONObject jsonObject = new JSONObject(jsonData);
+        JSONArray dataArray = jsonObject.getJSONArray("data");
+        int total = jsonObject.optInt("total", dataArray.length());
+        return new MangaDexParser.ChapterFeedPage(parseChapterArray(dataArray), dataArray.length(), total);
+    }
+
+    private static List<Chapter> parseChapterArray(JSONArray dataArray) throws JSONException {
+        List<Chapter> chapters = new ArrayList<>();
+
+        for (int i = 0; i < dataArray.length(); i++) {
+            JSONObject chapterObj = dataArray.getJSONObject(i);
+            JSONObject attributes = chapterObj.getJSONObject("attributes");
+
+            String chapterNum = attributes.optString("chapter", "");
+            if (chapterNum.isEmpty()) continue;
+
+            Chapter chapter = new Chapter();
+            chapter.setId(chapterObj.getString("id"));
+            chapter.setChapterNumber(chapterNum);
+            chapter.setVolume(attributes.isNull("volume") ? null : attributes.optString("volume"));
+            chapter.setTitle(attributes.optString("title", ""));
+            chapter.setPages(String.valueOf(attributes.optInt("pages", 0)));
+            chapter.setPublishedAt(attributes.optString("publishAt", ""));
+
+            chapters.add(chapter);
+        }
+
+        Collections.sort(chapters, ChapterSortKey.ORDER);
+        return chapters;
+    }
+
+    public static List<String> parsePageResponse(String jsonData) throws JSONException {
+        List<String> pageUrls = new ArrayList<>();
+        JSONObject jsonObject = new JSONObject(jsonData);
+        String baseUrl = jsonObject.getString("baseUrl");
+        JSONObject chapter = jsonObject.getJSONObject("chapter");
+        String hash = chapter.getString("hash");
+
+        JSONArray dataArray;
+        if (chapter.has("dataSaver")) {
+            dataArray = chapter.getJSONArray("dataSaver");
+        } else {
+            dataArray = chapter.getJSONArray("data");
+        }
+
+        for (int i = 0; i < dataArray.length(); i++) {
+            String filename = dataArray.getString(i);
+            String endpoint = chapter.has("dataSaver") ? "/data-saver/" : "/data/";
+            String fullUrl = baseUrl + endpoint + hash + "/" + filename;
+            pageUrls.add(fullUrl);
+        }
+
+        return pageUrls;
+    }
+}
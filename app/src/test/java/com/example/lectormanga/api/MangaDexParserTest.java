@@ -0,0 +1,191 @@
+package com.example.lectormanga.api;
+
+import com.example.lectormanga.model.Chapter;
+import com.example.lectormanga.model.Manga;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compara los parsers en streaming con el parser DOM original usando respuestas
+ * de MangaDex guardadas en src/test/resources/fixtures.
+ */
+public class MangaDexParserTest {
+
+    @Test
+    public void readMangas_extractsModelFields() throws Exception {
+        List<Manga> mangas = MangaDexParser.readMangas(fixture("manga_list.json"));
+
+        assertEquals(3, mangas.size());
+
+        Manga onePiece = mangas.get(0);
+        assertEquals("a1c7c817-4e59-43b7-9365-09675a149a6f", onePiece.getId());
+        assertEquals("One Piece", onePiece.getTitle());
+        assertEquals(203, onePiece.getDescription().length());
+        assertTrue(onePiece.getDescription().endsWith("..."));
+        assertEquals("https://uploads.mangadex.org/covers/a1c7c817-4e59-43b7-9365-09675a149a6f/" +
+                "c3b0d1e2-5a0c-4f2b-9a7e-1f6e2d3c4b5a.jpg.256.jpg", onePiece.getCoverUrl());
+
+        // id después de attributes, título ja-ro, descripción solo en español, portada sin attributes
+        Manga aot = mangas.get(1);
+        assertEquals("304ceac3-8cdb-4fe7-acf7-2b6ff7a60613", aot.getId());
+        assertEquals("Shingeki no Kyojin", aot.getTitle());
+        assertEquals("La humanidad vive tras enormes murallas.", aot.getDescription());
+        assertNull(aot.getCoverUrl());
+
+        // sin título conocido ni descripción; solo cuenta la primera portada
+        Manga soloLeveling = mangas.get(2);
+        assertEquals("Sin título", soloLeveling.getTitle());
+        assertEquals("Sin descripción", soloLeveling.getDescription());
+        assertTrue(soloLeveling.getCoverUrl().endsWith("/5d1d3f0e-1c2b-4a5d-8e9f-0a1b2c3d4e5f.png.256.jpg"));
+    }
+
+    @Test
+    public void readMangas_matchesDomParser() throws Exception {
+        List<Manga> streamed = MangaDexParser.readMangas(fixture("manga_list.json"));
+        List<Manga> dom = MangaDexDomParser.parseMangaResponse(fixtureText("manga_list.json"));
+
+        assertEquals(dom.size(), streamed.size());
+        for (int i = 0; i < dom.size(); i++) {
+            assertEquals(dom.get(i).toString(), streamed.get(i).toString());
+        }
+    }
+
+    @Test
+    public void readChapterFeed_skipsChaptersWithoutNumber() throws Exception {
+        MangaDexParser.ChapterFeedPage page = MangaDexParser.readChapterFeed(fixture("chapter_feed.json"));
+
+        assertEquals(5, page.rawCount);
+        assertEquals(250, page.total);
+        assertEquals(3, page.chapters.size());
+
+        Chapter first = page.chapters.get(0);
+        assertEquals("e86ec2c4-c5e4-4710-bfaa-7604f00939c7", first.getId());
+        assertEquals("1", first.getChapterNumber());
+        assertEquals("Romance Dawn", first.getTitle());
+        assertEquals("53", first.getPages());
+        assertEquals("2018-03-19T01:32:47+00:00", first.getPublishedAt());
+
+        Chapter decimal = page.chapters.get(1);
+        assertEquals("10.5", decimal.getChapterNumber());
+        assertEquals("", decimal.getTitle());
+
+        Chapter noDate = page.chapters.get(2);
+        assertEquals("9c8b7a6f-5e4d-4c3b-8a29-1f0e0d0c0b0a", noDate.getId());
+        assertEquals("", noDate.getPublishedAt());
+        assertEquals("0", noDate.getPages());
+    }
+
+    @Test
+    public void readChapterFeed_matchesDomParser() throws Exception {
+        MangaDexParser.ChapterFeedPage streamed = MangaDexParser.readChapterFeed(fixture("chapter_feed.json"));
+        MangaDexParser.ChapterFeedPage dom = MangaDexDomParser.parseChapterFeedPage(fixtureText("chapter_feed.json"));
+
+        assertEquals(dom.rawCount, streamed.rawCount);
+        assertEquals(dom.total, streamed.total);
+        assertEquals(dom.chapters.size(), streamed.chapters.size());
+        for (int i = 0; i < dom.chapters.size(); i++) {
+            Chapter expected = dom.chapters.get(i);
+            Chapter actual = streamed.chapters.get(i);
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.getPublishedAt(), actual.getPublishedAt());
+        }
+    }
+
+    @Test
+    public void readPages_prefersDataSaver() throws Exception {
+        List<String> pages = MangaDexParser.readPages(fixture("at_home.json"));
+
+        assertEquals(3, pages.size());
+        assertEquals("https://cmdxd98sb0x3yprd.mangadex.network/data-saver/3303dd03ac8d27452cce3f2a882e94b2/" +
+                "1-27a5cb3b0da2f8bd1b4d0c79a4cf5ac8c0e1a2b3c4d5e6f708192a3b4c5d6e7f.jpg", pages.get(0));
+        assertEquals(MangaDexDomParser.parsePageResponse(fixtureText("at_home.json")), pages);
+    }
+
+    @Test
+    public void readPages_fallsBackToDataWhenKeysComeInAnyOrder() throws Exception {
+        List<String> pages = MangaDexParser.readPages(fixture("at_home_data_only.json"));
+
+        assertEquals(2, pages.size());
+        assertTrue(pages.get(1).startsWith("https://uploads.mangadex.org/data/3303dd03ac8d27452cce3f2a882e94b2/2-"));
+        assertEquals(MangaDexDomParser.parsePageResponse(fixtureText("at_home_data_only.json")), pages);
+    }
+
+    @Test
+    public void readAtHome_keepsBothQualities() throws Exception {
+        MangaDexParser.AtHomeChapter chapter = MangaDexParser.readAtHome(fixture("at_home.json"));
+
+        List<String> full = chapter.urls(PageQuality.DATA);
+        assertEquals(3, full.size());
+        assertTrue(full.get(2).startsWith("https://cmdxd98sb0x3yprd.mangadex.network/data/3303dd03ac8d27452cce3f2a882e94b2/3-"));
+        assertEquals(full.get(1), chapter.url(PageQuality.DATA, 1));
+        assertEquals(MangaDexParser.readPages(fixture("at_home.json")), chapter.urls(PageQuality.DATA_SAVER));
+    }
+
+    @Test
+    public void readAtHome_fallsBackWhenQualityIsMissing() throws Exception {
+        MangaDexParser.AtHomeChapter chapter = MangaDexParser.readAtHome(fixture("at_home_data_only.json"));
+
+        assertEquals(PageQuality.DATA, chapter.resolve(PageQuality.DATA_SAVER));
+        assertEquals(chapter.urls(PageQuality.DATA), chapter.urls(PageQuality.DATA_SAVER));
+    }
+
+    @Test
+    public void readChapterFeed_ordersByVolumeAndChapter() throws Exception {
+        String json = "{\"data\":[" +
+                chapterJson("a", null, "12") + "," +
+                chapterJson("b", "2", "10.5a") + "," +
+                chapterJson("c", "2", "10.5") + "," +
+                chapterJson("d", "1", "9") + "],\"total\":4}";
+
+        MangaDexParser.ChapterFeedPage streamed = MangaDexParser.readChapterFeed(new StringReader(json));
+        List<Chapter> dom = MangaDexDomParser.parseChapterResponse(json);
+
+        String[] expected = {"d", "c", "b", "a"};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], streamed.chapters.get(i).getId());
+            assertEquals(expected[i], dom.get(i).getId());
+        }
+        assertEquals("2", streamed.chapters.get(1).getVolume());
+        assertNull(streamed.chapters.get(3).getVolume());
+        assertNull(dom.get(3).getVolume());
+    }
+
+    @Test(expected = IOException.class)
+    public void readPages_rejectsIncompleteResponse() throws Exception {
+        MangaDexParser.readPages(new StringReader("{\"result\":\"error\",\"errors\":[]}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readMangas_rejectsUnexpectedShape() throws Exception {
+        MangaDexParser.readMangas(new StringReader("{\"data\":{\"id\":1}}"));
+    }
+
+    private static String chapterJson(String id, String volume, String chapter) {
+        return "{\"id\":\"" + id + "\",\"attributes\":{" +
+                "\"volume\":" + (volume == null ? "null" : "\"" + volume + "\"") + "," +
+                "\"chapter\":\"" + chapter + "\",\"title\":null,\"pages\":1}}";
+    }
+
+    private Reader fixture(String name) {
+        InputStream in = getClass().getClassLoader().getResourceAsStream("fixtures/" + name);
+        assertNotNull("Falta el fixture " + name, in);
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    private String fixtureText(String name) {
+        try (Scanner scanner = new Scanner(fixture(name)).useDelimiter("\\A")) {
+            return scanner.next();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.lectormanga.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import okio.BufferedSource;
+
+public class NetworkMetricsTest {
+
+    private static final int BODY_BYTES = 64 * 1024;
+    private static final long PARSE_PAUSE_MS = 300;
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void bodyPhase_countsReadTimeButNotParsing() throws Exception {
+        server.enqueue(new MockResponse().setBody(new Buffer().write(new byte[BODY_BYTES])));
+        NetworkMetrics metrics = new NetworkMetrics();
+        AtomicLong listenedBytes = new AtomicLong();
+        AtomicLong listenedMs = new AtomicLong(-1);
+        metrics.setBodyListener((endpoint, bytes, millis) -> {
+            listenedBytes.set(bytes);
+            listenedMs.set(millis);
+        });
+        OkHttpClient client = new OkHttpClient.Builder()
+                .eventListenerFactory(metrics.eventListenerFactory())
+                .addNetworkInterceptor(metrics.bodyTimer())
+                .build();
+
+        // Como el parser en streaming: lee un trozo, "parsea" y sigue leyendo
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/img.jpg")).build()).execute()) {
+            BufferedSource source = response.body().source();
+            source.require(1024);
+            Thread.sleep(PARSE_PAUSE_MS);
+            source.readByteArray();
+        }
+
+        NetworkMetrics.EndpointSnapshot image = metrics.snapshot().get(ApiEndpoint.IMAGE);
+        LatencyHistogram.Snapshot body = image.phases.get(NetworkMetrics.Phase.BODY);
+        assertEquals(1, body.count);
+        assertTrue(String.valueOf(body.maxMs), body.maxMs < PARSE_PAUSE_MS);
+        assertEquals(BODY_BYTES, listenedBytes.get());
+        assertEquals(body.maxMs, listenedMs.get());
+        assertEquals(BODY_BYTES, image.bytesReceived);
+    }
+
+    @Test
+    public void bodyPhase_ignoresBodiesClosedHalfRead() throws Exception {
+        server.enqueue(new MockResponse().setBody(new Buffer().write(new byte[BODY_BYTES])));
+        NetworkMetrics metrics = new NetworkMetrics();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addNetworkInterceptor(metrics.bodyTimer())
+                .build();
+
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/img.jpg")).build()).execute()) {
+            response.body().source().require(1024);
+        }
+
+        assertEquals(0, metrics.snapshot().get(ApiEndpoint.IMAGE).phases.get(NetworkMetrics.Phase.BODY).count);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.lectormanga.api;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PageQualityPolicyTest {
+
+    private static final long PAGE_BYTES = 500 * 1024;
+
+    private static void feed(PageQualityPolicy policy, long bytesPerSecond, int count) {
+        for (int i = 0; i < count; i++) {
+            policy.recordImageDownload(PAGE_BYTES, PAGE_BYTES * 1000 / bytesPerSecond);
+        }
+    }
+
+    @Test
+    public void withoutSamples_keepsDataSaver() {
+        PageQualityPolicy policy = new PageQualityPolicy();
+
+        assertEquals(-1, policy.getEstimatedBytesPerSecond());
+        assertEquals(PageQuality.DATA_SAVER, policy.chooseForChapter());
+    }
+
+    @Test
+    public void smallDownloads_areIgnored() {
+        PageQualityPolicy policy = new PageQualityPolicy();
+        for (int i = 0; i < 10; i++) {
+            policy.recordImageDownload(4 * 1024, 1);
+        }
+
+        assertEquals(PageQuality.DATA_SAVER, policy.chooseForChapter());
+    }
+
+    @Test
+    public void fastLink_upgradesAndSlowLink_downgrades() {
+        PageQualityPolicy policy = new PageQualityPolicy();
+
+        feed(policy, 4_000_000, 5);
+        assertEquals(PageQuality.DATA, policy.chooseForChapter());
+
+        feed(policy, 100_000, 10);
+        assertEquals(PageQuality.DATA_SAVER, policy.chooseForChapter());
+    }
+
+    @Test
+    public void betweenThresholds_keepsPreviousChoice() {
+        PageQualityPolicy policy = new PageQualityPolicy();
+
+        feed(policy, 700_000, 10);
+        assertEquals(PageQuality.DATA_SAVER, policy.chooseForChapter());
+
+        feed(policy, 4_000_000, 10);
+        assertEquals(PageQuality.DATA, policy.chooseForChapter());
+
+        feed(policy, 700_000, 20);
+        assertEquals(PageQuality.DATA, policy.chooseForChapter());
+    }
+
+    @Test
+    public void userOverride_winsOverEstimate() {
+        PageQualityPolicy policy = new PageQualityPolicy();
+        feed(policy, 4_000_000, 5);
+
+        policy.setMode(PageQualityPolicy.Mode.ALWAYS_DATA_SAVER);
+        assertEquals(PageQuality.DATA_SAVER, policy.chooseForChapter());
+
+        policy.setMode(PageQualityPolicy.Mode.ALWAYS_DATA);
+        assertEquals(PageQuality.DATA, policy.chooseForChapter());
+    }
+}
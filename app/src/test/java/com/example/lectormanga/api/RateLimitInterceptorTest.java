@@ -0,0 +1,92 @@
+package com.example.lectormanga.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Headers;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+public class RateLimitInterceptorTest {
+
+    private static Headers retryAfter(String value) {
+        return new Headers.Builder().add("Retry-After", value).build();
+    }
+
+    @Test
+    public void parseRetryAfter_readsSeconds() {
+        assertEquals(120_000, RateLimitInterceptor.parseRetryAfter(retryAfter("120")));
+        assertEquals(3_000, RateLimitInterceptor.parseRetryAfter(retryAfter(" 3 ")));
+        assertEquals(0, RateLimitInterceptor.parseRetryAfter(retryAfter("-5")));
+    }
+
+    @Test
+    public void parseRetryAfter_readsHttpDate() {
+        Headers future = new Headers.Builder()
+                .add("Retry-After", new Date(System.currentTimeMillis() + 60_000)).build();
+        long delay = RateLimitInterceptor.parseRetryAfter(future);
+        // La fecha HTTP tiene resolución de segundos
+        assertTrue(String.valueOf(delay), delay > 58_000 && delay <= 60_000);
+
+        Headers past = new Headers.Builder()
+                .add("Retry-After", new Date(System.currentTimeMillis() - 60_000)).build();
+        assertEquals(0, RateLimitInterceptor.parseRetryAfter(past));
+    }
+
+    @Test
+    public void parseRetryAfter_ignoresMissingOrGarbage() {
+        assertEquals(0, RateLimitInterceptor.parseRetryAfter(new Headers.Builder().build()));
+        assertEquals(0, RateLimitInterceptor.parseRetryAfter(retryAfter("pronto")));
+        assertEquals(0, RateLimitInterceptor.parseRetryAfter(retryAfter("1.5")));
+    }
+
+    @Test
+    public void backoffMillis_growsWithJitterWithinBounds() {
+        Headers none = new Headers.Builder().build();
+        for (int i = 0; i < 200; i++) {
+            long first = RateLimitInterceptor.backoffMillis(0, none);
+            assertTrue(String.valueOf(first), first >= 1_000 && first <= 1_500);
+            long third = RateLimitInterceptor.backoffMillis(2, none);
+            assertTrue(String.valueOf(third), third >= 4_000 && third <= 4_500);
+        }
+    }
+
+    @Test
+    public void backoffMillis_followsRetryAfterAndIsCapped() {
+        for (int i = 0; i < 200; i++) {
+            long server = RateLimitInterceptor.backoffMillis(0, retryAfter("10"));
+            assertTrue(String.valueOf(server), server >= 10_000 && server <= 10_500);
+            assertEquals(30_000, RateLimitInterceptor.backoffMillis(0, retryAfter("3600")));
+            assertEquals(30_000, RateLimitInterceptor.backoffMillis(10, new Headers.Builder().build()));
+        }
+    }
+
+    @Test
+    public void sleep_stopsSoonAfterCallIsCanceled() throws Exception {
+        Call call = new OkHttpClient().newCall(new Request.Builder().url("https://api.mangadex.org/manga").build());
+        new Thread(() -> {
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException ignored) {
+            }
+            call.cancel();
+        }).start();
+
+        long start = System.nanoTime();
+        try {
+            RateLimitInterceptor.sleep(call, 30_000);
+            fail("La espera debía cortarse al cancelar");
+        } catch (IOException expected) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(String.valueOf(elapsed), elapsed < 1_000);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.lectormanga.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class RequestCoalescerTest {
+
+    @Rule
+    public final TemporaryFolder cacheDir = new TemporaryFolder();
+
+    // El servidor retiene la respuesta hasta 'release': así las dos llamadas coinciden en vuelo
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger parses = new AtomicInteger();
+    private MockWebServer server;
+    private OkHttpClient client;
+    private RequestCoalescer coalescer;
+
+    private static class Recorder implements RequestCoalescer.ResultCallback<String> {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<String> result = new AtomicReference<>();
+        final AtomicReference<Exception> error = new AtomicReference<>();
+
+        @Override
+        public void onSuccess(String value) {
+            result.set(value);
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            error.set(e);
+            done.countDown();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                release.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody("capítulos");
+            }
+        });
+        server.start();
+        client = new OkHttpClient();
+        coalescer = new RequestCoalescer(client, new RevalidationStore());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        client.dispatcher().executorService().shutdown();
+        server.shutdown();
+    }
+
+    private ApiRequest enqueue(Recorder recorder) {
+        ApiRequest handle = new ApiRequest();
+        Request request = new Request.Builder().url(server.url("/manga/1/feed")).build();
+        coalescer.enqueue(request, body -> {
+            parses.incrementAndGet();
+            return body.string();
+        }, recorder, handle);
+        return handle;
+    }
+
+    @Test
+    public void identicalRequestsInFlight_shareOneCallAndOneParse() throws Exception {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        enqueue(first);
+        enqueue(second);
+        release.countDown();
+
+        assertTrue(first.done.await(5, TimeUnit.SECONDS));
+        assertTrue(second.done.await(5, TimeUnit.SECONDS));
+        assertEquals("capítulos", first.result.get());
+        assertSame(first.result.get(), second.result.get());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, parses.get());
+        assertEquals(1, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void delivery_completesTheHandleUnlessTheCallbackChainsAnotherStep() throws Exception {
+        release.countDown();
+        Recorder last = new Recorder();
+        ApiRequest handle = new ApiRequest();
+        CountDownLatch firstDelivered = new CountDownLatch(1);
+        AtomicReference<Boolean> completedAfterFirst = new AtomicReference<>();
+        Request request = new Request.Builder().url(server.url("/manga/1/feed")).build();
+
+        // Como el feed: la primera entrega encadena otra petición con el mismo handle
+        coalescer.enqueue(request, ResponseBody::string, new RequestCoalescer.ResultCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                coalescer.enqueue(request, ResponseBody::string, last, handle);
+                completedAfterFirst.set(handle.isCompleted());
+                firstDelivered.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                firstDelivered.countDown();
+            }
+        }, handle);
+
+        assertTrue(firstDelivered.await(5, TimeUnit.SECONDS));
+        assertFalse(completedAfterFirst.get());
+        assertTrue(last.done.await(5, TimeUnit.SECONDS));
+        // La entrega final suelta acción de cancelar y observer
+        for (int i = 0; i < 50 && !handle.isCompleted(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(handle.isCompleted());
+        assertFalse(handle.isCanceled());
+    }
+
+    // Cliente con caché en disco; las URLs de api.mangadex.org se desvían al servidor de prueba
+    // para que apliquen la caché y la reutilización del resultado
+    private OkHttpClient cachingClient() throws Exception {
+        return client.newBuilder()
+                .cache(new Cache(cacheDir.newFolder(), 1024 * 1024))
+                .addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+                        .url(chain.request().url().newBuilder()
+                                .scheme("http")
+                                .host(server.getHostName())
+                                .port(server.getPort())
+                                .build())
+                        .build()))
+                .build();
+    }
+
+    // Versión nueva en cada descarga; con If-None-Match contesta 304
+    private void serveVersions(String cacheControl) {
+        AtomicInteger version = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getHeader("If-None-Match") != null) {
+                    return new MockResponse().setResponseCode(304).setHeader("ETag", "\"v\"");
+                }
+                return new MockResponse()
+                        .setHeader("ETag", "\"v\"")
+                        .setHeader("Cache-Control", cacheControl)
+                        .setBody("versión " + version.incrementAndGet());
+            }
+        });
+    }
+
+    private String fetch(RequestCoalescer coalescer, Request request) throws Exception {
+        Recorder recorder = new Recorder();
+        coalescer.enqueue(request, body -> {
+            parses.incrementAndGet();
+            return body.string();
+        }, recorder, new ApiRequest());
+        assertTrue(recorder.done.await(5, TimeUnit.SECONDS));
+        assertNull(recorder.error.get());
+        return recorder.result.get();
+    }
+
+    @Test
+    public void freshCacheEntry_isServedFromDiskWithoutTheNetwork() throws Exception {
+        serveVersions("max-age=300");
+        RevalidationStore store = new RevalidationStore();
+        RequestCoalescer caching = new RequestCoalescer(cachingClient(), store);
+        Request request = new Request.Builder().url("https://api.mangadex.org/manga/1/feed").build();
+
+        String first = fetch(caching, request);
+        assertSame(first, fetch(caching, request));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, parses.get());
+        assertEquals(1, store.snapshot().reused);
+    }
+
+    @Test
+    public void staleCacheEntry_revalidatesAndReusesTheParseOn304() throws Exception {
+        serveVersions("no-cache");
+        OkHttpClient cachingClient = cachingClient();
+        RevalidationStore store = new RevalidationStore();
+        RequestCoalescer caching = new RequestCoalescer(cachingClient, store);
+        Request request = new Request.Builder().url("https://api.mangadex.org/manga/1/feed").build();
+
+        String first = fetch(caching, request);
+        assertSame(first, fetch(caching, request));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, parses.get());
+        assertEquals(1, store.snapshot().notModified);
+
+        // Sin el resultado en memoria (otro proceso, LRU) se parsea el body que guarda la caché
+        RequestCoalescer forgetful = new RequestCoalescer(cachingClient, new RevalidationStore());
+        assertEquals("versión 1", fetch(forgetful, request));
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    public void cancellingOneWaiter_keepsTheOtherDelivery() throws Exception {
+        Recorder canceled = new Recorder();
+        Recorder kept = new Recorder();
+        ApiRequest handle = enqueue(canceled);
+        enqueue(kept);
+
+        handle.cancel();
+        release.countDown();
+
+        assertTrue(kept.done.await(5, TimeUnit.SECONDS));
+        assertEquals("capítulos", kept.result.get());
+        assertEquals(1, server.getRequestCount());
+        // El callback cancelado no se invoca nunca
+        assertEquals(1, canceled.done.getCount());
+        assertNull(canceled.error.get());
+    }
+
+    @Test
+    public void cancellingEveryWaiter_abortsTheCall() throws Exception {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        ApiRequest firstHandle = enqueue(first);
+        ApiRequest secondHandle = enqueue(second);
+
+        firstHandle.cancel();
+        secondHandle.cancel();
+        release.countDown();
+
+        // Sin interesados la Call se aborta y nadie recibe callback
+        assertFalse(first.done.await(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, second.done.getCount());
+        assertEquals(0, parses.get());
+
+        // Una llamada posterior ya no se suma a la abortada: sale una petición nueva
+        Recorder later = new Recorder();
+        enqueue(later);
+        assertTrue(later.done.await(5, TimeUnit.SECONDS));
+        assertEquals("capítulos", later.result.get());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.lectormanga.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+public class RevalidationStoreTest {
+
+    private static final String FEED = "https://api.mangadex.org/manga/1/feed?limit=100";
+
+    private static Request get(String url) {
+        return new Request.Builder().url(url).build();
+    }
+
+    private static Response.Builder builder(Request request, int code, String etag, String lastModified) {
+        Response.Builder builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("");
+        if (etag != null) builder.header("ETag", etag);
+        if (lastModified != null) builder.header("Last-Modified", lastModified);
+        return builder;
+    }
+
+    // Respuesta descargada de la red
+    private static Response network(Request request, String etag, String lastModified) {
+        return builder(request, 200, etag, lastModified)
+                .networkResponse(builder(request, 200, etag, lastModified).build())
+                .body(ResponseBody.create("{}", null))
+                .build();
+    }
+
+    // Entrada fresca servida del disco, sin red
+    private static Response cacheHit(Request request, String etag) {
+        return builder(request, 200, etag, null)
+                .cacheResponse(builder(request, 200, etag, null).build())
+                .body(ResponseBody.create("{}", null))
+                .build();
+    }
+
+    // Entrada caducada revalidada: el servidor contesta 304 y OkHttp devuelve el body del disco
+    private static Response revalidated(Request request, String etag) {
+        return builder(request, 200, etag, null)
+                .cacheResponse(builder(request, 200, etag, null).build())
+                .networkResponse(builder(request, 304, etag, null).build())
+                .body(ResponseBody.create("{}", null))
+                .build();
+    }
+
+    private static void store(RevalidationStore store, String url, String etag, String lastModified, Object result) {
+        Request request = get(url);
+        store.store(request, network(request, etag, lastModified), result);
+    }
+
+    @Test
+    public void cachedResult_reusesTheParseForFreshHitsAndValidated304s() {
+        RevalidationStore store = new RevalidationStore();
+        Object parsed = new Object();
+        store(store, FEED, "\"v1\"", null, parsed);
+        Request request = get(FEED);
+
+        assertSame(parsed, store.cachedResult(request, cacheHit(request, "\"v1\"")));
+        assertSame(parsed, store.cachedResult(request, revalidated(request, "\"v1\"")));
+        // Descargado de nuevo: hay que parsear
+        assertNull(store.cachedResult(request, network(request, "\"v2\"", null)));
+
+        RevalidationStore.RevalidationStats stats = store.snapshot();
+        assertEquals(2, stats.cacheAnswers);
+        assertEquals(1, stats.notModified);
+        assertEquals(2, stats.reused);
+        assertEquals(1.0, stats.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void cachedResult_matchesEitherValidator() {
+        RevalidationStore store = new RevalidationStore();
+        Object parsed = new Object();
+        String date = "Mon, 15 Jan 2024 10:00:00 GMT";
+        store(store, FEED, null, date, parsed);
+        Request request = get(FEED);
+
+        Response sameDate = builder(request, 200, null, date)
+                .cacheResponse(builder(request, 200, null, date).build())
+                .build();
+        assertSame(parsed, store.cachedResult(request, sameDate));
+    }
+
+    @Test
+    public void cachedResult_ignoresADifferentCachedBodyAndNonCacheableRequests() {
+        RevalidationStore store = new RevalidationStore();
+        store(store, FEED, "\"v1\"", null, "feed");
+        Request request = get(FEED);
+        // El disco guarda otra versión que la parseada (p. ej. de otro proceso)
+        assertNull(store.cachedResult(request, cacheHit(request, "\"v2\"")));
+
+        // at-home caduca y las imágenes van a otro host: nunca se guardan
+        String atHome = "https://api.mangadex.org/at-home/server/abc";
+        String cover = "https://uploads.mangadex.org/covers/1/a.jpg";
+        store(store, atHome, "\"v1\"", null, "at-home");
+        store(store, cover, "\"v1\"", null, "cover");
+        assertNull(store.cachedResult(get(atHome), cacheHit(get(atHome), "\"v1\"")));
+        assertNull(store.cachedResult(get(cover), cacheHit(get(cover), "\"v1\"")));
+        assertEquals(1, store.snapshot().cacheAnswers);
+    }
+
+    @Test
+    public void store_withoutValidatorsForgetsTheEntry() {
+        RevalidationStore store = new RevalidationStore();
+        store(store, FEED, "\"v1\"", null, "feed");
+        store(store, FEED, null, null, "feed");
+
+        Request request = get(FEED);
+        assertNull(store.cachedResult(request, cacheHit(request, "\"v1\"")));
+    }
+
+    @Test
+    public void eviction_dropsTheLeastRecentlyUsedUrl() {
+        RevalidationStore store = new RevalidationStore();
+        for (int i = 0; i < 64; i++) {
+            store(store, FEED + "&offset=" + i, "\"v" + i + "\"", null, i);
+        }
+        // Usar la primera la vuelve la más reciente: la que sale es la segunda
+        Request first = get(FEED + "&offset=0");
+        store.cachedResult(first, cacheHit(first, "\"v0\""));
+        store(store, FEED + "&offset=64", "\"v64\"", null, 64);
+
+        assertEquals(0, store.cachedResult(first, cacheHit(first, "\"v0\"")));
+        Request last = get(FEED + "&offset=64");
+        assertEquals(64, store.cachedResult(last, cacheHit(last, "\"v64\"")));
+        Request evicted = get(FEED + "&offset=1");
+        assertNull(store.cachedResult(evicted, cacheHit(evicted, "\"v1\"")));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.lectormanga.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class FtsQueryTest {
+
+    @Test
+    public void build_prefixesEveryWordOnTheColumn() {
+        assertEquals("title:drag* title:ball*", FtsQuery.build("title", "  Drag  ball ", true));
+        assertEquals("title:señor* title:2*", FtsQuery.build("title", "Señor 2", true));
+    }
+
+    @Test
+    public void build_withoutColumnMatchesAnyColumn() {
+        assertEquals("drag* ball*", FtsQuery.build(null, "Drag ball", true));
+    }
+
+    @Test
+    public void build_dropsFtsSyntaxFromInput() {
+        assertEquals("title:one* title:piece*", FtsQuery.build("title", "\"one-piece*\"", true));
+        assertEquals("title:a* title:or* title:b*", FtsQuery.build("title", "a OR b", true));
+        assertEquals("title:title* title:x*", FtsQuery.build("title", "title:x", true));
+    }
+
+    @Test
+    public void build_returnsNullWithoutWords() {
+        assertNull(FtsQuery.build("title", null, true));
+        assertNull(FtsQuery.build("title", "", true));
+        assertNull(FtsQuery.build("title", " -*\" ", true));
+    }
+
+    @Test
+    public void build_foldsCaseLikeTheTokenizerInUse() {
+        // unicode61 pliega todo; "simple" solo A-Z, así que el resto se deja como está
+        assertEquals("title:pokémon* title:école*", FtsQuery.build("title", "Pokémon ÉCOLE", true));
+        assertEquals("title:pokémon* title:École*", FtsQuery.build("title", "Pokémon ÉCOLE", false));
+        assertEquals("title:a* title:or* title:b*", FtsQuery.build("title", "a OR b", false));
+    }
+
+    @Test
+    public void build_limitsNumberOfTerms() {
+        String query = FtsQuery.build("title", "a b c d e f g h i j", true);
+        assertEquals(FtsQuery.MAX_TERMS, query.split(" ").length);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.lectormanga.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class ImageSnifferTest {
+
+    @Test
+    public void sniff_recognizesSupportedFormats() {
+        assertEquals("image/jpeg", sniff(0xFF, 0xD8, 0xFF, 0xE0));
+        assertEquals("image/png", sniff(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A));
+        assertEquals("image/webp", sniff('R', 'I', 'F', 'F', 0x24, 0, 0, 0, 'W', 'E', 'B', 'P'));
+        assertEquals("image/gif", sniff('G', 'I', 'F', '8', '9', 'a'));
+    }
+
+    @Test
+    public void sniff_rejectsErrorPagesAndTruncatedHeaders() {
+        byte[] html = "<!DOCTYPE html>".getBytes(StandardCharsets.US_ASCII);
+        assertNull(ImageSniffer.sniff(html, html.length));
+        assertNull(sniff('R', 'I', 'F', 'F', 0x24, 0, 0, 0, 'W', 'A', 'V', 'E'));
+        assertNull(sniff(0xFF, 0xD8));
+        assertNull(ImageSniffer.sniff(new byte[ImageSniffer.HEADER_BYTES], 0));
+    }
+
+    private static String sniff(int... values) {
+        byte[] header = new byte[ImageSniffer.HEADER_BYTES];
+        for (int i = 0; i < values.length; i++) {
+            header[i] = (byte) values[i];
+        }
+        return ImageSniffer.sniff(header, values.length);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.lectormanga.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ChapterSortKeyTest {
+
+    @Test
+    public void ordersNumbersDecimalsAndSuffixesNumerically() {
+        assertOrdered(null, "1", "2", "9", "10", "10.05", "10.5", "10.5a", "10.5b", "10.6", "11", "100");
+    }
+
+    @Test
+    public void ordersByNumberWithOrWithoutVolume() {
+        // Capítulos guardados sin volumen no van detrás de uno posterior que sí lo tiene
+        assertTrue(ChapterSortKey.of(null, "10") < ChapterSortKey.of("2", "11"));
+        assertTrue(ChapterSortKey.of("2", "3") < ChapterSortKey.of("1", "20"));
+        assertTrue(ChapterSortKey.of("12", "200") < ChapterSortKey.of(null, "201"));
+        assertEquals(ChapterSortKey.of(null, "5"), ChapterSortKey.of("", "5"));
+    }
+
+    @Test
+    public void volumeOnlyBreaksTiesAndMissingVolumeGoesLast() {
+        assertTrue(ChapterSortKey.of("1", "5") < ChapterSortKey.of("2", "5"));
+        assertTrue(ChapterSortKey.of("2", "5") < ChapterSortKey.of(null, "5"));
+        assertTrue(ChapterSortKey.of(null, "5") < ChapterSortKey.of("1", "5.5"));
+    }
+
+    @Test
+    public void missingOrTextChapterSortsAfterNumbered() {
+        assertTrue(ChapterSortKey.of(null, "99999") < ChapterSortKey.of(null, ""));
+        assertTrue(ChapterSortKey.of(null, "99999") < ChapterSortKey.of(null, null));
+        assertTrue(ChapterSortKey.of(null, "99999") < ChapterSortKey.of(null, "Extra"));
+        assertTrue(ChapterSortKey.of(null, "3") < ChapterSortKey.of(null, "3-extra"));
+    }
+
+    @Test
+    public void hugeNumbersAreClampedInsteadOfOverflowing() {
+        long huge = ChapterSortKey.of("99999999", "12345678901234567890");
+        assertTrue(huge > 0);
+        assertTrue(huge > ChapterSortKey.of(null, "999999"));
+        assertTrue(huge < ChapterSortKey.of(null, null));
+    }
+
+    @Test
+    public void comparatorSortsChapters() {
+        List<Chapter> chapters = new ArrayList<>();
+        for (String number : new String[]{"10", "2", "10.5a", "1", "10.5"}) {
+            Chapter chapter = new Chapter();
+            chapter.setChapterNumber(number);
+            chapters.add(chapter);
+        }
+        Collections.sort(chapters, ChapterSortKey.ORDER);
+
+        List<String> numbers = new ArrayList<>();
+        for (Chapter chapter : chapters) {
+            numbers.add(chapter.getChapterNumber());
+        }
+        assertEquals(Arrays.asList("1", "2", "10", "10.5", "10.5a"), numbers);
+    }
+
+    @Test
+    public void chapterComputesItsKeyOnceAndKeepsTheStoredOne() {
+        Chapter chapter = new Chapter();
+        chapter.setChapterNumber("3");
+        assertEquals(ChapterSortKey.of(null, "3"), chapter.getSortKey());
+
+        chapter.setVolume("1");
+        assertEquals(ChapterSortKey.of("1", "3"), chapter.getSortKey());
+
+        // La de la fila manda aunque el cálculo actual diera otra
+        chapter.setSortKey(42);
+        assertEquals(42, chapter.getSortKey());
+    }
+
+    private static void assertOrdered(String volume, String... chapters) {
+        for (int i = 1; i < chapters.length; i++) {
+            long previous = ChapterSortKey.of(volume, chapters[i - 1]);
+            long current = ChapterSortKey.of(volume, chapters[i]);
+            assertTrue(chapters[i - 1] + " < " + chapters[i], previous < current);
+        }
+    }
+}
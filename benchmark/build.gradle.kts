@@ -0,0 +1,56 @@
+// Benchmarks JMH de la capa de parsing y modelos. Es un módulo JVM puro:
+// compila directamente las clases de :app que no dependen de Android.
+//
+//   ./gradlew :benchmark:jmh
+//
+// Resultados en benchmark/build/results/jmh/results.json
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            // Parser DOM de referencia: vive en los tests de :app, fuera del APK
+            srcDir("../app/src/test/java")
+            include("com/example/lectormanga/api/MangaDexParser.java")
+            include("com/example/lectormanga/api/MangaDexDomParser.java")
+            include("com/example/lectormanga/api/PageQuality.java")
+            include("com/example/lectormanga/model/**")
+        }
+    }
+    named("jmh") {
+        // Respuestas grabadas de MangaDex compartidas con los tests de :app
+        resources.srcDir("../app/src/test/resources")
+    }
+}
+
+dependencies {
+    implementation(libs.gson)
+    implementation(libs.org.json)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("s")
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("2s")
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    // Tasa de asignación (gc.alloc.rate / gc.alloc.rate.norm) junto al throughput
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,34 @@
+package com.example.lectormanga.benchmark;
+
+import com.example.lectormanga.api.MangaDexDomParser;
+import com.example.lectormanga.api.MangaDexParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+
+// Respuesta de /at-home/server/{chapterId}
+@State(Scope.Benchmark)
+public class AtHomeParseBenchmark {
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        body = Fixtures.atHome();
+    }
+
+    @Benchmark
+    public List<String> streaming() throws IOException {
+        return MangaDexParser.readPages(Fixtures.reader(body));
+    }
+
+    @Benchmark
+    public List<String> dom() {
+        return MangaDexDomParser.parsePageResponse(Fixtures.string(body));
+    }
+}
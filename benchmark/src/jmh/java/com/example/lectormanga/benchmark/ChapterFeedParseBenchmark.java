@@ -0,0 +1,37 @@
+package com.example.lectormanga.benchmark;
+
+import com.example.lectormanga.api.MangaDexDomParser;
+import com.example.lectormanga.api.MangaDexParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+
+// Respuesta de /manga/{id}/feed con distintos tamaños de serie
+@State(Scope.Benchmark)
+public class ChapterFeedParseBenchmark {
+
+    @Param({"100", "500", "2000"})
+    public int chapters;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        body = Fixtures.chapterFeed(chapters);
+    }
+
+    @Benchmark
+    public MangaDexParser.ChapterFeedPage streaming() throws IOException {
+        return MangaDexParser.readChapterFeed(Fixtures.reader(body));
+    }
+
+    @Benchmark
+    public MangaDexParser.ChapterFeedPage dom() {
+        return MangaDexDomParser.parseChapterFeedPage(Fixtures.string(body));
+    }
+}
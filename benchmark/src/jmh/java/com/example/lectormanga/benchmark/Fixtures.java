@@ -0,0 +1,83 @@
+package com.example.lectormanga.benchmark;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Scanner;
+
+/**
+ * Construye los payloads de los benchmarks a partir de las respuestas grabadas de MangaDex
+ * (fixtures de los tests de :app). Los tamaños grandes se obtienen replicando las entradas
+ * grabadas con ids y números de capítulo distintos, así la forma del JSON es la real.
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static byte[] mangaList(int count) {
+        JSONObject response = new JSONObject(read("manga_list.json"));
+        JSONArray recorded = response.getJSONArray("data");
+        JSONArray data = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            JSONObject manga = new JSONObject(recorded.getJSONObject(i % recorded.length()).toString());
+            manga.put("id", fakeUuid(i));
+            data.put(manga);
+        }
+        response.put("data", data);
+        response.put("limit", count);
+        response.put("total", count);
+        return response.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] chapterFeed(int count) {
+        JSONObject response = new JSONObject(read("chapter_feed.json"));
+        JSONObject template = response.getJSONArray("data").getJSONObject(0);
+        JSONArray data = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            JSONObject chapter = new JSONObject(template.toString());
+            chapter.put("id", fakeUuid(i));
+            chapter.getJSONObject("attributes").put("chapter", String.valueOf(i + 1));
+            chapter.getJSONObject("attributes").put("volume", String.valueOf(i / 10 + 1));
+            data.put(chapter);
+        }
+        response.put("data", data);
+        response.put("limit", count);
+        response.put("total", count);
+        return response.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] atHome() {
+        return read("at_home.json").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Equivalente a ResponseBody.charStream(): decodifica UTF-8 sobre la marcha
+    static Reader reader(byte[] body) {
+        return new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8);
+    }
+
+    // Equivalente a ResponseBody.string(): copia todo el body en un String
+    static String string(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static String fakeUuid(int i) {
+        return String.format(Locale.ROOT, "00000000-0000-4000-8000-%012d", i);
+    }
+
+    private static String read(String name) {
+        InputStream in = Fixtures.class.getClassLoader().getResourceAsStream("fixtures/" + name);
+        if (in == null) {
+            throw new IllegalStateException("Falta el fixture " + name);
+        }
+        try (Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A")) {
+            return scanner.next();
+        }
+    }
+}
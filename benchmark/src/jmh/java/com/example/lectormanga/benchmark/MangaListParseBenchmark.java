@@ -0,0 +1,39 @@
+package com.example.lectormanga.benchmark;
+
+import com.example.lectormanga.api.MangaDexDomParser;
+import com.example.lectormanga.api.MangaDexParser;
+import com.example.lectormanga.model.Manga;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+
+// Respuesta de /manga (populares y búsqueda)
+@State(Scope.Benchmark)
+public class MangaListParseBenchmark {
+
+    @Param({"20"})
+    public int mangas;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        body = Fixtures.mangaList(mangas);
+    }
+
+    @Benchmark
+    public List<Manga> streaming() throws IOException {
+        return MangaDexParser.readMangas(Fixtures.reader(body));
+    }
+
+    @Benchmark
+    public List<Manga> dom() {
+        return MangaDexDomParser.parseMangaResponse(Fixtures.string(body));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.lectormanga.benchmark;
+
+import com.example.lectormanga.model.Chapter;
+import com.example.lectormanga.model.Manga;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+// Coste de construir los modelos tal como lo hacen los parsers y el DAO
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+    private int counter;
+
+    @Benchmark
+    public Chapter chapterWithSetters() {
+        int n = counter++;
+        Chapter chapter = new Chapter();
+        chapter.setId("e86ec2c4-c5e4-4710-bfaa-7604f00939c7");
+        chapter.setChapterNumber(String.valueOf(n));
+        chapter.setTitle("Romance Dawn");
+        chapter.setPages(String.valueOf(53));
+        chapter.setPublishedAt("2018-03-19T01:32:47+00:00");
+        return chapter;
+    }
+
+    @Benchmark
+    public Chapter chapterWithConstructor() {
+        int n = counter++;
+        return new Chapter("e86ec2c4-c5e4-4710-bfaa-7604f00939c7", "Romance Dawn",
+                String.valueOf(n), String.valueOf(53), "2018-03-19T01:32:47+00:00",
+                "a1c7c817-4e59-43b7-9365-09675a149a6f");
+    }
+
+    @Benchmark
+    public Manga mangaWithSetters() {
+        Manga manga = new Manga();
+        manga.setId("a1c7c817-4e59-43b7-9365-09675a149a6f");
+        manga.setTitle("One Piece");
+        manga.setDescription("Gol D. Roger was known as the Pirate King.");
+        manga.setCoverUrl("https://uploads.mangadex.org/covers/a1c7c817-4e59-43b7-9365-09675a149a6f/cover.jpg.256.jpg");
+        return manga;
+    }
+
+    @Benchmark
+    public Manga mangaWithConstructor() {
+        return new Manga("a1c7c817-4e59-43b7-9365-09675a149a6f", "One Piece",
+                "Gol D. Roger was known as the Pirate King.",
+                "https://uploads.mangadex.org/covers/a1c7c817-4e59-43b7-9365-09675a149a6f/cover.jpg.256.jpg");
+    }
+}